@@ -0,0 +1,72 @@
+package jmh.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.ActionHelper;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.resources.Resource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ActionHelper validation of inputs, outputs and pollution, separately and fused.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionHelperBenchmark {
+
+    /**
+     * Cards on the grid.
+     */
+    @Param({"3", "9"})
+    public int cards;
+
+    /**
+     * Resource movements in each direction.
+     */
+    @Param({"1", "4", "8"})
+    public int movements;
+
+    private final ActionHelper helper = new ActionHelper();
+    private Grid grid;
+    private List<Pair<Resource, GridPosition>> inputs;
+    private List<Pair<Resource, GridPosition>> outputs;
+    private List<GridPosition> pollution;
+    private ActionBuffer action;
+
+    @Setup
+    public void setUp() {
+        grid = BenchmarkFixtures.grid(cards, movements, movements);
+        inputs = BenchmarkFixtures.movements(cards, movements);
+        outputs = BenchmarkFixtures.movements(cards, movements);
+        pollution = BenchmarkFixtures.pollution(cards, Math.min(cards, movements));
+        action = ActionBuffer.of(inputs, outputs, pollution);
+    }
+
+    @Benchmark
+    public boolean validateInputs() {
+        return helper.validateInputs(inputs, grid);
+    }
+
+    @Benchmark
+    public boolean validateOutputs() {
+        return helper.validateOutputs(outputs, grid);
+    }
+
+    @Benchmark
+    public boolean validatePollution() {
+        return helper.validatePollution(pollution, grid);
+    }
+
+    @Benchmark
+    public boolean validateAction() {
+        return helper.validateAction(action, grid);
+    }
+}
@@ -0,0 +1,90 @@
+package jmh.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shared card and grid fixtures for the benchmarks, sized by the benchmark parameters.
+ */
+final class BenchmarkFixtures {
+
+    /**
+     * Order in which cards fill the 3x3 area around the starting card.
+     */
+    static final List<GridPosition> PLACEMENT_ORDER = List.of(
+            GridPosition.of(0, 0), GridPosition.of(1, 0), GridPosition.of(-1, 0),
+            GridPosition.of(0, 1), GridPosition.of(0, -1), GridPosition.of(1, 1),
+            GridPosition.of(-1, -1), GridPosition.of(1, -1), GridPosition.of(-1, 1));
+
+    private static final Resource[] BASIC = {Resource.Green, Resource.Red, Resource.Yellow};
+
+    private BenchmarkFixtures() {}
+
+    /**
+     * @param size number of resources
+     * @return non-pollution resources cycling over the basic types
+     */
+    static List<Resource> resources(int size) {
+        List<Resource> resources = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            resources.add(BASIC[i % BASIC.length]);
+        }
+        return resources;
+    }
+
+    /**
+     * @param pollutionSpaces pollution capacity of the card
+     * @param resources number of resources stored on the card
+     * @return card accepting any {@code in} resources for any {@code out} resources
+     */
+    static Card card(int pollutionSpaces, int resources, int in, int out) {
+        Card card = new Card(pollutionSpaces, new ArbitraryInOut(in, out, 0));
+        card.putResources(resources(resources));
+        return card;
+    }
+
+    /**
+     * @param cards number of cards on the grid, 1 to 9
+     * @param resourcesPerCard resources stored on every card
+     * @param movements input and output size of every card's effect
+     * @return grid filled in {@link #PLACEMENT_ORDER}
+     */
+    static Grid grid(int cards, int resourcesPerCard, int movements) {
+        Grid grid = new Grid(card(movements, resourcesPerCard, movements, movements));
+        for (int i = 1; i < cards; i++) {
+            grid.putCard(PLACEMENT_ORDER.get(i), card(movements, resourcesPerCard, movements, movements));
+        }
+        grid.endTurn();
+        return grid;
+    }
+
+    /**
+     * Resources taken round-robin from the first {@code cards} positions.
+     */
+    static List<Pair<Resource, GridPosition>> movements(int cards, int movements) {
+        List<Pair<Resource, GridPosition>> pairs = new ArrayList<>(movements);
+        List<Resource> resources = resources(movements);
+        for (int i = 0; i < movements; i++) {
+            pairs.add(new Pair<>(resources.get(i), PLACEMENT_ORDER.get(i % cards)));
+        }
+        return pairs;
+    }
+
+    /**
+     * Pollution placed round-robin on the first {@code cards} positions.
+     */
+    static List<GridPosition> pollution(int cards, int count) {
+        List<GridPosition> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            positions.add(PLACEMENT_ORDER.get(i % cards));
+        }
+        return positions;
+    }
+}
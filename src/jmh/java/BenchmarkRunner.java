@@ -0,0 +1,17 @@
+package jmh.java;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+
+/**
+ * Runs the benchmarks in this package; accepts the usual JMH command line options,
+ * e.g. a benchmark name pattern such as {@code EffectCheck}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new CommandLineOptions(args)).run();
+    }
+}
@@ -0,0 +1,58 @@
+package jmh.java;
+
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.resources.Resource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Card.canGetResources and Card.canPutResources for cards of growing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardBenchmark {
+
+    /**
+     * Resources stored on the card.
+     */
+    @Param({"0", "8", "64"})
+    public int resourcesOnCard;
+
+    /**
+     * Resources asked for or offered in one call.
+     */
+    @Param({"1", "4"})
+    public int requestSize;
+
+    private Card card;
+    private List<Resource> request;
+    private List<Resource> pollution;
+
+    @Setup
+    public void setUp() {
+        card = BenchmarkFixtures.card(requestSize, resourcesOnCard, 1, 1);
+        request = BenchmarkFixtures.resources(requestSize);
+        pollution = List.of(Resource.Pollution);
+    }
+
+    @Benchmark
+    public boolean canGetResources() {
+        return card.canGetResources(request);
+    }
+
+    @Benchmark
+    public boolean canPutResources() {
+        return card.canPutResources(request);
+    }
+
+    @Benchmark
+    public boolean canPutPollution() {
+        return card.canPutResources(pollution);
+    }
+}
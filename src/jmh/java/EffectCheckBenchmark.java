@@ -0,0 +1,83 @@
+package jmh.java;
+
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.cards.effects.*;
+import main.java.com.terrafutura.resources.Resource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Effect.check of every implementation in cards.effects, plus the compiled form of their EffectOr.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EffectCheckBenchmark {
+
+    /**
+     * Number of input and output resources passed to check.
+     */
+    @Param({"1", "4", "16"})
+    public int size;
+
+    private List<Resource> input;
+    private List<Resource> output;
+    private Effect transformationFixed;
+    private Effect arbitraryOutput;
+    private Effect arbitraryInOut;
+    private Effect arbitraryBasic;
+    private Effect effectOr;
+    private Effect compiled;
+
+    @Setup
+    public void setUp() {
+        input = BenchmarkFixtures.resources(size);
+        output = BenchmarkFixtures.resources(size);
+        transformationFixed = new TransformationFixed(input, output, 0);
+        arbitraryOutput = new ArbitraryOutput(input, size, 0);
+        arbitraryInOut = new ArbitraryInOut(size, size, 0);
+        arbitraryBasic = new ArbitraryBasic(size, output, 0);
+        // the matching branch comes last so every alternative is tried
+        effectOr = new EffectOr(
+                new TransformationFixed(List.of(Resource.Car), List.of(Resource.Bulb), 0),
+                new ArbitraryInOut(size + 1, size, 0),
+                new ArbitraryOutput(List.of(Resource.Gear), size, 0),
+                transformationFixed);
+        compiled = EffectCompiler.compile(effectOr);
+    }
+
+    @Benchmark
+    public boolean transformationFixed() {
+        return transformationFixed.check(input, output, 0);
+    }
+
+    @Benchmark
+    public boolean arbitraryOutput() {
+        return arbitraryOutput.check(input, output, 0);
+    }
+
+    @Benchmark
+    public boolean arbitraryInOut() {
+        return arbitraryInOut.check(input, output, 0);
+    }
+
+    @Benchmark
+    public boolean arbitraryBasic() {
+        return arbitraryBasic.check(input, output, 0);
+    }
+
+    @Benchmark
+    public boolean effectOr() {
+        return effectOr.check(input, output, 0);
+    }
+
+    @Benchmark
+    public boolean compiledEffectOr() {
+        return compiled.check(input, output, 0);
+    }
+}
@@ -0,0 +1,71 @@
+package jmh.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.*;
+import main.java.com.terrafutura.resources.Resource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full ProcessAction.activateCard path. Every accepted activation is undone through the journal,
+ * so all invocations see the same board.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessActionBenchmark {
+
+    /**
+     * Cards on the grid.
+     */
+    @Param({"3", "9"})
+    public int cards;
+
+    /**
+     * Resource movements in each direction.
+     */
+    @Param({"1", "4", "8"})
+    public int movements;
+
+    private final ProcessAction processAction = new ProcessAction(new ActivationJournal());
+    private Grid grid;
+    private Card card;
+    private List<Pair<Resource, GridPosition>> inputs;
+    private List<Pair<Resource, GridPosition>> outputs;
+    private List<GridPosition> pollution;
+    private ActionBuffer action;
+
+    @Setup
+    public void setUp() {
+        grid = BenchmarkFixtures.grid(cards, movements, movements);
+        card = grid.getCard(GridPosition.of(0, 0)).orElseThrow();
+        inputs = BenchmarkFixtures.movements(cards, movements);
+        outputs = BenchmarkFixtures.movements(cards, movements);
+        pollution = List.of();
+        action = ActionBuffer.of(inputs, outputs, pollution);
+        if (!processAction.activateCard(card, grid, action)) {
+            throw new IllegalStateException("Benchmark activation must be valid");
+        }
+        processAction.undo();
+    }
+
+    @Benchmark
+    public boolean activateCardPairs() {
+        boolean activated = processAction.activateCard(card, grid, inputs, outputs, pollution);
+        processAction.undo();
+        return activated;
+    }
+
+    @Benchmark
+    public boolean activateCardEncoded() {
+        boolean activated = processAction.activateCard(card, grid, action);
+        processAction.undo();
+        return activated;
+    }
+}
@@ -0,0 +1,35 @@
+package main.java.com.terrafutura.api;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Commands the players send to one game. Every command is rejected (returns false or does nothing)
+ * if it is not the player's move or not allowed in the current phase of the game.
+ */
+public interface TerraFuturaInterface {
+    boolean takeCard(int playerId, CardSource source, GridPosition destination);
+
+    boolean discardLastCardFromDeck(int playerId, Deck deck);
+
+    void activateCard(int playerId, GridPosition card,
+                      List<Pair<Resource, GridPosition>> inputs,
+                      List<Pair<Resource, GridPosition>> outputs,
+                      List<GridPosition> pollution,
+                      Optional<Integer> otherPlayerId,
+                      Optional<GridPosition> otherCard);
+
+    void selectReward(int playerId, Resource resource);
+
+    boolean turnFinished(int playerId);
+
+    boolean selectActivationPattern(int playerId, int card);
+
+    boolean selectScoring(int playerId, int card);
+}
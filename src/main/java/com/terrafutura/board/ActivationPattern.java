@@ -3,6 +3,8 @@ package main.java.com.terrafutura.board;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.json.JSONObject;
 import org.json.JSONArray;
@@ -14,18 +16,34 @@ public final class ActivationPattern {
     private boolean selected;
     private InterfaceActivateGrid grid;
 
+    /**
+     * Last result of {@link #state()}, null after the pattern changes.
+     */
+    private String cachedState;
+
     public ActivationPattern(final InterfaceActivateGrid grid, final Collection<SimpleEntry<Integer, Integer>> pattern) {
         this.grid = grid;
         this.pattern = new ArrayList<>(pattern);  // copy the pattern
         this.selected = false;
     }
 
+    /**
+     * Restores a pattern, e.g. from a snapshot. Unlike {@link #select()}, creating a selected pattern
+     * does not allow any activations on the grid.
+     */
+    public ActivationPattern(final InterfaceActivateGrid grid, final Collection<SimpleEntry<Integer, Integer>> pattern,
+                             final boolean selected) {
+        this(grid, pattern);
+        this.selected = selected;
+    }
+
     public void select() {
         if (this.selected) {
             throw new IllegalStateException("Pattern already selected");
         }
         this.grid.setActivationPattern(this.pattern);
         this.selected = true;
+        this.cachedState = null;
     }
 
 
@@ -34,7 +52,18 @@ public final class ActivationPattern {
     }
 
 
+    /**
+     * @return positions the pattern activates, relative to the starting card
+     */
+    public List<SimpleEntry<Integer, Integer>> getPattern() {
+        return Collections.unmodifiableList(this.pattern);
+    }
+
+
     public String state() {
+        if (cachedState != null) {
+            return cachedState;
+        }
         JSONArray patternList = new JSONArray();
         for (SimpleEntry<Integer, Integer> entry: pattern) {
             JSONObject pair = new JSONObject();
@@ -45,6 +74,7 @@ public final class ActivationPattern {
         JSONObject result = new JSONObject();
         result.put("selected", this.selected);
         result.put("activations", patternList);
-        return result.toString();
+        cachedState = result.toString();
+        return cachedState;
     }
 }
\ No newline at end of file
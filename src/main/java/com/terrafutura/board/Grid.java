@@ -1,26 +1,477 @@
 package main.java.com.terrafutura.board;
 
 import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.CardListener;
 
+import org.json.JSONObject;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public class Grid {
-    private Card startingCard;
+/**
+ * Player's board of cards. Coordinates range over [-2, 2] in both axes with the starting card at (0, 0);
+ * the placed cards must always fit into a 3x3 area.
+ * Cards are stored in a flat array indexed by {@code (x + 2) * 5 + (y + 2)}, so every lookup is constant time.
+ * Occupancy and activation state are kept as 25-bit masks over the same indices.
+ */
+public class Grid implements InterfaceActivateGrid {
+    private static final int OFFSET = 2;
+    private static final int SIDE = 2 * OFFSET + 1;
+    private static final int SLOTS = SIDE * SIDE;
+    private static final int MAX_SPAN = 3;
+
+    /**
+     * Number of ints {@link #saveState} writes: occupied, pending and activated slots and the activations left.
+     */
+    public static final int STATE_SIZE = 3 + SLOTS;
+
+    /**
+     * Bits of all slots on the board.
+     */
+    private static final int FULL = (1 << SLOTS) - 1;
+
+    /**
+     * Bits of slots that have a neighbour with y + 1 and y - 1 respectively.
+     */
+    private static final int NOT_MAX_Y, NOT_MIN_Y;
+
+    /**
+     * Bits of every 3x3 window on the board; all cards must fit into one of them.
+     */
+    private static final int[] WINDOWS;
+
+    static {
+        int maxY = 0, minY = 0;
+        for (int x = -OFFSET; x <= OFFSET; x++) {
+            maxY |= bit(x, OFFSET);
+            minY |= bit(x, -OFFSET);
+        }
+        NOT_MAX_Y = FULL & ~maxY;
+        NOT_MIN_Y = FULL & ~minY;
+
+        int positions = SIDE - MAX_SPAN + 1;
+        WINDOWS = new int[positions * positions];
+        for (int wx = 0; wx < positions; wx++) {
+            for (int wy = 0; wy < positions; wy++) {
+                int window = 0;
+                for (int x = 0; x < MAX_SPAN; x++) {
+                    for (int y = 0; y < MAX_SPAN; y++) {
+                        window |= bit(wx + x - OFFSET, wy + y - OFFSET);
+                    }
+                }
+                WINDOWS[wx * positions + wy] = window;
+            }
+        }
+    }
+
+    private final Card startingCard;
+
+    /**
+     * Cards by slot index, null for empty slots.
+     */
+    private final Card[] cards = new Card[SLOTS];
+
+    /**
+     * Optional wrapper of every slot, kept in sync with {@link #cards} so {@link #getCard} never allocates.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final Optional<Card>[] cardOptionals = new Optional[SLOTS];
+
+    /**
+     * Slots holding a card.
+     */
+    private int occupied;
+
+    /**
+     * Empty slots where a card may be placed, recomputed whenever a card is placed.
+     */
+    private int placeable;
+
+    /**
+     * Slots with at least one activation left this turn.
+     */
+    private int pending;
+
+    /**
+     * Slots activated at least once this turn.
+     */
+    private int activated;
+
+    /**
+     * How many more times the card in each slot may be activated this turn; only valid for {@link #pending} slots.
+     */
+    private final int[] activationsLeft = new int[SLOTS];
+
+    /**
+     * Serialized form of every occupied slot, and the card state it was rendered from.
+     */
+    private final String[] cellStates = new String[SLOTS];
+    private final String[] renderedCardStates = new String[SLOTS];
+
+    /**
+     * Slots whose placement or activation state changed since the last {@link #state()}.
+     */
+    private int dirtyCells;
+
+    /**
+     * Last result of {@link #state()}.
+     */
+    private String cachedState;
+
+    /**
+     * Notified of placed and removed cards and of every change of their resources, in the order they were added.
+     */
+    private CardListener[] listeners = new CardListener[0];
+
+    /**
+     * What the cards on the grid report their changes to: the only listener itself, {@link #fanOut} if there
+     * are several, null if nobody listens.
+     */
+    private CardListener listener;
+
+    private final CardListener fanOut = new CardListener() {
+        @Override
+        public void cardChanged(Card card) {
+            for (CardListener each : listeners) {
+                each.cardChanged(card);
+            }
+        }
+
+        @Override
+        public void cardRemoved(Card card) {
+            for (CardListener each : listeners) {
+                each.cardRemoved(card);
+            }
+        }
+    };
 
     public Grid(Card startingCard){
         this.startingCard = startingCard;
+        Arrays.fill(cardOptionals, Optional.empty());
+        set(index(0, 0), startingCard);
+    }
+
+    /**
+     * Places a card and allows activating every card in its row and column during this turn.
+     *
+     * @param coordinate where to put the card
+     * @param card card to place
+     * @throws IllegalStateException if the card cannot be placed there
+     */
+    public void putCard(GridPosition coordinate, Card card) {
+        if (!canPutCard(coordinate)) {
+            throw new IllegalStateException("Card cannot be placed at " + coordinate.getX() + "," + coordinate.getY());
+        }
+        int x = coordinate.getX();
+        int y = coordinate.getY();
+        set(index(x, y), card);
+        int line = 0;
+        for (int i = -OFFSET; i <= OFFSET; i++) {
+            line |= bit(x, i) | bit(i, y);
+        }
+        pending |= line;
+        dirtyCells |= line;
+        for (int rest = line; rest != 0; rest &= rest - 1) {
+            activationsLeft[Integer.numberOfTrailingZeros(rest)] = 1;
+        }
+    }
+
+    /**
+     * A card can be placed on an empty position touching another card (also diagonally),
+     * as long as all cards still fit into a 3x3 area.
+     *
+     * @param coordinate position to check
+     * @return true if a card may be placed there
+     */
+    public boolean canPutCard(GridPosition coordinate) {
+        int x = coordinate.getX();
+        int y = coordinate.getY();
+        return inBounds(x, y) && (placeable & bit(x, y)) != 0;
+    }
+
+    /**
+     * @return every position where a card may currently be placed
+     */
+    public List<GridPosition> getPlaceablePositions() {
+        List<GridPosition> positions = new ArrayList<>(Integer.bitCount(placeable));
+        for (int rest = placeable; rest != 0; rest &= rest - 1) {
+            int i = Integer.numberOfTrailingZeros(rest);
+            positions.add(GridPosition.of(i / SIDE - OFFSET, i % SIDE - OFFSET));
+        }
+        return positions;
+    }
+
+    /**
+     * @return positions of all cards on the grid
+     */
+    public List<GridPosition> getCardPositions() {
+        List<GridPosition> positions = new ArrayList<>(Integer.bitCount(occupied));
+        for (int rest = occupied; rest != 0; rest &= rest - 1) {
+            int i = Integer.numberOfTrailingZeros(rest);
+            positions.add(GridPosition.of(i / SIDE - OFFSET, i % SIDE - OFFSET));
+        }
+        return positions;
     }
 
-    public void putCard(GridPosition coordinate, Card card) { }
-    public boolean canPutCard(GridPosition coordinate) { return false; }
     public Optional<Card> getCard(GridPosition position) {
-        return Optional.empty();
+        int x = position.getX();
+        int y = position.getY();
+        return inBounds(x, y) ? cardOptionals[index(x, y)] : Optional.empty();
+    }
+
+    /**
+     * @param coordinate position to check
+     * @return true if there is a card on the position that may still be activated this turn
+     */
+    public boolean canBeActivated(GridPosition coordinate) {
+        int x = coordinate.getX();
+        int y = coordinate.getY();
+        return inBounds(x, y) && (occupied & pending & bit(x, y)) != 0;
+    }
+
+    /**
+     * Uses up one activation of the card on the given position.
+     *
+     * @throws IllegalStateException if the card cannot be activated
+     */
+    public void setActivated(GridPosition coordinate) {
+        if (!canBeActivated(coordinate)) {
+            throw new IllegalStateException("Card at " + coordinate.getX() + "," + coordinate.getY() + " cannot be activated");
+        }
+        int i = index(coordinate.getX(), coordinate.getY());
+        activated |= 1 << i;
+        dirtyCells |= 1 << i;
+        if (--activationsLeft[i] == 0) {
+            pending &= ~(1 << i);
+        }
+    }
+
+    /**
+     * Allows activating the given positions, once for every occurrence in the pattern.
+     *
+     * @param pattern positions to activate, relative to the starting card
+     */
+    public void setActivationPattern(List<GridPosition> pattern) {
+        for (GridPosition position : pattern) {
+            allowActivation(position.getX(), position.getY());
+        }
+    }
+
+    @Override
+    public void setActivationPattern(Collection<SimpleEntry<Integer, Integer>> pattern) {
+        for (SimpleEntry<Integer, Integer> entry : pattern) {
+            allowActivation(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Forgets all activations allowed during the finished turn.
+     */
+    public void endTurn() {
+        dirtyCells |= pending | activated;
+        pending = 0;
+        activated = 0;
+    }
+
+    /**
+     * Adds a listener notified of cards being placed and removed and of every change of their resources,
+     * e.g. a running score; a grid may have several. The listener is told about every card already on the grid
+     * right away.
+     *
+     * @throws IllegalArgumentException if the listener is null
+     */
+    public void addCardListener(CardListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Card listener must not be null");
+        }
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        updateCardListener();
+        for (int rest = occupied; rest != 0; rest &= rest - 1) {
+            listener.cardChanged(cards[Integer.numberOfTrailingZeros(rest)]);
+        }
+    }
+
+    /**
+     * Stops notifying the listener; does nothing if it was not added.
+     */
+    public void removeCardListener(CardListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                CardListener[] rest = new CardListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, rest, 0, i);
+                System.arraycopy(listeners, i + 1, rest, i, rest.length - i);
+                listeners = rest;
+                updateCardListener();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Points the cards on the grid at the only listener directly, so a single listener costs no extra call.
+     */
+    private void updateCardListener() {
+        listener = switch (listeners.length) {
+            case 0 -> null;
+            case 1 -> listeners[0];
+            default -> fanOut;
+        };
+        for (int rest = occupied; rest != 0; rest &= rest - 1) {
+            cards[Integer.numberOfTrailingZeros(rest)].setListener(listener);
+        }
+    }
+
+    /**
+     * Writes the placement and activation state into the array, for {@link #restoreState} to revert to.
+     * Cards themselves are not saved; their resources are reverted with an
+     * {@link main.java.com.terrafutura.cards.ActivationJournal}.
+     *
+     * @param into   array to write {@link #STATE_SIZE} ints into
+     * @param offset where to start writing
+     */
+    public void saveState(int[] into, int offset) {
+        into[offset] = occupied;
+        into[offset + 1] = pending;
+        into[offset + 2] = activated;
+        System.arraycopy(activationsLeft, 0, into, offset + 3, SLOTS);
+    }
+
+    /**
+     * Reverts to a state written by {@link #saveState} on this grid.
+     * Cards placed since then are removed again; cards can never be replaced, so the rest are the same.
+     */
+    public void restoreState(int[] from, int offset) {
+        for (int rest = occupied & ~from[offset]; rest != 0; rest &= rest - 1) {
+            set(Integer.numberOfTrailingZeros(rest), null);
+        }
+        pending = from[offset + 1];
+        activated = from[offset + 2];
+        System.arraycopy(from, offset + 3, activationsLeft, 0, SLOTS);
+        dirtyCells = FULL;
     }
-    public boolean canBeActivated(GridPosition coordinate) { return false; }
-    public void setActivated(GridPosition coordinate) {}
-    public void setActivationPattern(List<GridPosition> pattern) {}
-    public void endTurn() {}
-    public String state() { return ""; }
 
-}
\ No newline at end of file
+    /**
+     * @return independent grid with copies of all cards in the same placement and activation state
+     */
+    public Grid copy() {
+        int start = index(0, 0);
+        Grid copy = new Grid(cards[start].copy());
+        for (int rest = occupied & ~(1 << start); rest != 0; rest &= rest - 1) {
+            int i = Integer.numberOfTrailingZeros(rest);
+            copy.set(i, cards[i].copy());
+        }
+        copy.pending = pending;
+        copy.activated = activated;
+        System.arraycopy(activationsLeft, 0, copy.activationsLeft, 0, SLOTS);
+        return copy;
+    }
+
+    /**
+     * Serializes the grid as JSON. Only cells whose card or activation state changed since the previous call
+     * are rendered again, and an unchanged grid returns the previous string.
+     */
+    public String state() {
+        boolean changed = cachedState == null || dirtyCells != 0;
+        for (int rest = occupied; rest != 0; rest &= rest - 1) {
+            int i = Integer.numberOfTrailingZeros(rest);
+            String cardState = cards[i].state();
+            if ((dirtyCells & (1 << i)) != 0 || cardState != renderedCardStates[i]) {
+                cellStates[i] = renderCell(i, cardState);
+                renderedCardStates[i] = cardState;
+                changed = true;
+            }
+        }
+        dirtyCells = 0;
+        if (!changed) {
+            return cachedState;
+        }
+        StringBuilder result = new StringBuilder("{\"cards\":[");
+        for (int rest = occupied; rest != 0; rest &= rest - 1) {
+            result.append(cellStates[Integer.numberOfTrailingZeros(rest)]);
+            if ((rest & (rest - 1)) != 0) {
+                result.append(',');
+            }
+        }
+        cachedState = result.append("]}").toString();
+        return cachedState;
+    }
+
+    private String renderCell(int i, String cardState) {
+        JSONObject cell = new JSONObject();
+        cell.put("x", i / SIDE - OFFSET);
+        cell.put("y", i % SIDE - OFFSET);
+        cell.put("card", cardState);
+        cell.put("activations", (pending & (1 << i)) != 0 ? activationsLeft[i] : 0);
+        cell.put("activated", (activated & (1 << i)) != 0);
+        return cell.toString();
+    }
+
+    private void allowActivation(int x, int y) {
+        if (!inBounds(x, y)) {
+            return;
+        }
+        int i = index(x, y);
+        dirtyCells |= 1 << i;
+        if ((pending & (1 << i)) == 0) {
+            pending |= 1 << i;
+            activationsLeft[i] = 1;
+        } else {
+            activationsLeft[i]++;
+        }
+    }
+
+    private void set(int index, Card card) {
+        dirtyCells |= 1 << index;
+        Card previous = cards[index];
+        cards[index] = card;
+        cardOptionals[index] = Optional.ofNullable(card);
+        if (card == null) {
+            occupied &= ~(1 << index);
+        } else {
+            occupied |= 1 << index;
+        }
+        placeable = computePlaceable(occupied);
+        if (listener != null) {
+            if (previous != null) {
+                previous.setListener(null);
+                listener.cardRemoved(previous);
+            }
+            if (card != null) {
+                card.setListener(listener);
+                listener.cardChanged(card);
+            }
+        }
+    }
+
+    /**
+     * Empty slots touching a card, restricted to the 3x3 windows that still contain every card.
+     */
+    private static int computePlaceable(int occupied) {
+        int alongY = occupied | ((occupied & NOT_MAX_Y) << 1) | ((occupied & NOT_MIN_Y) >>> 1);
+        int touching = (alongY | (alongY << SIDE) | (alongY >>> SIDE)) & FULL;
+        int fitting = 0;
+        for (int window : WINDOWS) {
+            if ((occupied & ~window) == 0) {
+                fitting |= window;
+            }
+        }
+        return touching & fitting & ~occupied;
+    }
+
+    private static boolean inBounds(int x, int y) {
+        return x >= -OFFSET && x <= OFFSET && y >= -OFFSET && y <= OFFSET;
+    }
+
+    private static int index(int x, int y) {
+        return (x + OFFSET) * SIDE + (y + OFFSET);
+    }
+
+    private static int bit(int x, int y) {
+        return 1 << index(x, y);
+    }
+}
@@ -1,9 +1,22 @@
 package main.java.com.terrafutura.board;
 
-import java.util.AbstractMap;
-import java.util.Objects;
-
 public class GridPosition {
+    private static final int OFFSET = 2;
+    private static final int SIDE = 2 * OFFSET + 1;
+
+    /**
+     * Shared instances for every position on the board, indexed by {@code (x + 2) * 5 + (y + 2)}.
+     */
+    private static final GridPosition[] CACHE = new GridPosition[SIDE * SIDE];
+
+    static {
+        for (int x = -OFFSET; x <= OFFSET; x++) {
+            for (int y = -OFFSET; y <= OFFSET; y++) {
+                CACHE[(x + OFFSET) * SIDE + (y + OFFSET)] = new GridPosition(x, y);
+            }
+        }
+    }
+
     private final int x, y;
 
     public GridPosition(int x, int y) {
@@ -11,6 +24,20 @@ public class GridPosition {
         this.y = y;
     }
 
+    /**
+     * Returns the position with the given coordinates, reusing a shared instance for positions on the board.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return position with the given coordinates
+     */
+    public static GridPosition of(int x, int y) {
+        if (x < -OFFSET || x > OFFSET || y < -OFFSET || y > OFFSET) {
+            return new GridPosition(x, y);
+        }
+        return CACHE[(x + OFFSET) * SIDE + (y + OFFSET)];
+    }
+
     public int getX() {
         return x;
     }
@@ -28,6 +55,6 @@ public class GridPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        return 31 * x + y;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,222 @@
+package main.java.com.terrafutura.cards;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reusable, compact description of one card activation.
+ * Every resource movement is a single int entry packing the resource ordinal and the board cell
+ * {@code (x + 2) * 5 + (y + 2)}; pollution entries use {@link Resource#Pollution}.
+ * Positions outside the board are encoded as an invalid cell, which validation rejects.
+ */
+public final class ActionBuffer {
+    private static final int OFFSET = 2;
+    private static final int SIDE = 2 * OFFSET + 1;
+    private static final int CELL_BITS = 5;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+    private static final int INVALID_CELL = CELL_MASK;
+    private static final Resource[] RESOURCES = Resource.values();
+
+    private int[] inputs = new int[8];
+    private int[] outputs = new int[8];
+    private int[] pollution = new int[4];
+    private int inputCount, outputCount, pollutionCount;
+
+    private final List<Resource> inputResources = new ResourceView(true);
+    private final List<Resource> outputResources = new ResourceView(false);
+
+    /**
+     * Packs a resource and a position into one entry.
+     *
+     * @param resource resource being moved
+     * @param x x coordinate of the card
+     * @param y y coordinate of the card
+     * @return encoded entry
+     */
+    public static int encode(Resource resource, int x, int y) {
+        int cell = x < -OFFSET || x > OFFSET || y < -OFFSET || y > OFFSET
+                ? INVALID_CELL
+                : (x + OFFSET) * SIDE + (y + OFFSET);
+        return resource.ordinal() << CELL_BITS | cell;
+    }
+
+    public static int encode(Resource resource, GridPosition position) {
+        return encode(resource, position.getX(), position.getY());
+    }
+
+    public static Resource resource(int entry) {
+        return RESOURCES[entry >>> CELL_BITS];
+    }
+
+    /**
+     * @param entry encoded entry
+     * @return board cell index of the entry, only meaningful if {@link #validCell} holds
+     */
+    public static int cell(int entry) {
+        return entry & CELL_MASK;
+    }
+
+    public static boolean validCell(int entry) {
+        return cell(entry) != INVALID_CELL;
+    }
+
+    /**
+     * @param entry encoded entry with a valid cell
+     * @return shared position instance of the entry's cell
+     */
+    public static GridPosition position(int entry) {
+        return cellPosition(cell(entry));
+    }
+
+    /**
+     * @param cell board cell index
+     * @return shared position instance of the cell
+     */
+    public static GridPosition cellPosition(int cell) {
+        return GridPosition.of(cell / SIDE - OFFSET, cell % SIDE - OFFSET);
+    }
+
+    /**
+     * Builds a buffer from the list based activation description.
+     */
+    public static ActionBuffer of(List<Pair<Resource, GridPosition>> inputs,
+                                  List<Pair<Resource, GridPosition>> outputs,
+                                  List<GridPosition> pollution) {
+        return new ActionBuffer().set(inputs, outputs, pollution);
+    }
+
+    /**
+     * Replaces the content of this buffer with the list based activation description.
+     *
+     * @return this buffer
+     */
+    public ActionBuffer set(List<Pair<Resource, GridPosition>> inputs,
+                            List<Pair<Resource, GridPosition>> outputs,
+                            List<GridPosition> pollution) {
+        clear();
+        for (Pair<Resource, GridPosition> input : inputs) {
+            addInput(input.getFirst(), input.getSecond());
+        }
+        for (Pair<Resource, GridPosition> output : outputs) {
+            addOutput(output.getFirst(), output.getSecond());
+        }
+        for (GridPosition position : pollution) {
+            addPollution(position);
+        }
+        return this;
+    }
+
+    /**
+     * @return independent buffer with the same entries
+     */
+    public ActionBuffer copy() {
+        ActionBuffer copy = new ActionBuffer();
+        copy.inputs = Arrays.copyOf(inputs, Math.max(inputCount, 1));
+        copy.outputs = Arrays.copyOf(outputs, Math.max(outputCount, 1));
+        copy.pollution = Arrays.copyOf(pollution, Math.max(pollutionCount, 1));
+        copy.inputCount = inputCount;
+        copy.outputCount = outputCount;
+        copy.pollutionCount = pollutionCount;
+        return copy;
+    }
+
+    public ActionBuffer clear() {
+        inputCount = 0;
+        outputCount = 0;
+        pollutionCount = 0;
+        return this;
+    }
+
+    public ActionBuffer addInput(Resource resource, GridPosition position) {
+        return addInput(encode(resource, position));
+    }
+
+    public ActionBuffer addInput(int entry) {
+        if (inputCount == inputs.length) inputs = Arrays.copyOf(inputs, inputCount * 2);
+        inputs[inputCount++] = entry;
+        return this;
+    }
+
+    public ActionBuffer addOutput(Resource resource, GridPosition position) {
+        return addOutput(encode(resource, position));
+    }
+
+    public ActionBuffer addOutput(int entry) {
+        if (outputCount == outputs.length) outputs = Arrays.copyOf(outputs, outputCount * 2);
+        outputs[outputCount++] = entry;
+        return this;
+    }
+
+    public ActionBuffer addPollution(GridPosition position) {
+        return addPollution(encode(Resource.Pollution, position));
+    }
+
+    public ActionBuffer addPollution(int entry) {
+        if (pollutionCount == pollution.length) pollution = Arrays.copyOf(pollution, pollutionCount * 2);
+        pollution[pollutionCount++] = entry;
+        return this;
+    }
+
+    public int inputCount() {
+        return inputCount;
+    }
+
+    public int input(int index) {
+        return inputs[index];
+    }
+
+    public int outputCount() {
+        return outputCount;
+    }
+
+    public int output(int index) {
+        return outputs[index];
+    }
+
+    public int pollutionCount() {
+        return pollutionCount;
+    }
+
+    public int pollution(int index) {
+        return pollution[index];
+    }
+
+    /**
+     * @return read-only view of the input resources, reflecting later changes of the buffer
+     */
+    public List<Resource> inputResources() {
+        return inputResources;
+    }
+
+    /**
+     * @return read-only view of the output resources, reflecting later changes of the buffer
+     */
+    public List<Resource> outputResources() {
+        return outputResources;
+    }
+
+    private final class ResourceView extends AbstractList<Resource> {
+        private final boolean input;
+
+        private ResourceView(boolean input) {
+            this.input = input;
+        }
+
+        @Override
+        public Resource get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return resource(input ? inputs[index] : outputs[index]);
+        }
+
+        @Override
+        public int size() {
+            return input ? inputCount : outputCount;
+        }
+    }
+}
@@ -9,9 +9,44 @@ import java.util.*;
 /**
  * Helper class containing common validation logic for ProcessAction and ProcessActionAssistance
  * Provides validation methods only - no state changes performed
+ * Not thread-safe: validation reuses per-instance scratch buffers, so each thread needs its own helper
  */
 public class ActionHelper {
+    private static final Resource[] RESOURCES = Resource.values();
 
+    /**
+     * Single-resource lists per resource type, shared to avoid allocating one per checked entry.
+     */
+    private static final List<List<Resource>> SINGLE = Arrays.stream(RESOURCES).map(List::of).toList();
+
+    /**
+     * Scratch buffer used by the list based adapters.
+     */
+    private final ActionBuffer scratch = new ActionBuffer();
+
+    /**
+     * Pollution tokens per board cell, reused by {@link #validatePollution(ActionBuffer, Grid)}.
+     */
+    private final int[] pollutionPerCell = new int[25];
+
+    /**
+     * Per-cell scratch of {@link #validateAction}: resolved card, resources taken and resources put.
+     */
+    private final Card[] cellCards = new Card[25];
+    private final List<List<Resource>> cellTakes = new ArrayList<>(25);
+    private final List<List<Resource>> cellPuts = new ArrayList<>(25);
+
+    /**
+     * Bits of the cells resolved by the running {@link #validateAction} pass.
+     */
+    private int touchedCells;
+
+    {
+        for (int i = 0; i < 25; i++) {
+            cellTakes.add(new ArrayList<>());
+            cellPuts.add(new ArrayList<>());
+        }
+    }
 
     /**
      * Checks if any required parameters are null before proceeding with validation
@@ -22,14 +57,10 @@ public class ActionHelper {
         return grid == null || card == null || inputs == null || outputs == null || pollution == null;
     }
     /**
-     * Checks if coaordinations are valid
-     * @param position to check
-     * @return true if the position is valid, false if it is invalid
-     * */
-    private boolean inValidCoordinations(GridPosition position){
-        int x = position.getX();
-        int y = position.getY();
-        return x < -2 || x > 2 || y < -2 || y > 2;
+     * Returns a shared immutable list holding just the given resource.
+     */
+    static List<Resource> single(Resource resource) {
+        return SINGLE.get(resource.ordinal());
     }
 
     /**
@@ -37,17 +68,24 @@ public class ActionHelper {
      * @return false if the position is invalid, has no card, or card cannot provide the resource
      */
     public boolean validateInputs(List<Pair<Resource, GridPosition>> inputs, Grid grid) {
-        for (Pair<Resource, GridPosition> input : inputs) {
-            Resource resource = input.getFirst();
-            GridPosition position = input.getSecond();
+        return validateInputs(scratch.set(inputs, List.of(), List.of()), grid);
+    }
+
+    /**
+     * Validates all encoded input resources - checks positions and resource availability
+     * @return false if the position is invalid, has no card, or card cannot provide the resource
+     */
+    public boolean validateInputs(ActionBuffer action, Grid grid) {
+        for (int i = 0; i < action.inputCount(); i++) {
+            int input = action.input(i);
 
-            // Check if the position is valid and if grid contains a card (canPutCard=true means empty position)
-            if (grid.canPutCard(position) || inValidCoordinations(position)){
+            // Check if the position is valid; an empty position is rejected by the card lookup below
+            if (!ActionBuffer.validCell(input)) {
                 return false;
             }
 
-            Optional<Card> cardOpt = grid.getCard(position);
-            if (cardOpt.isEmpty() || !cardOpt.get().canGetResources(List.of(resource))) {
+            Optional<Card> cardOpt = grid.getCard(ActionBuffer.position(input));
+            if (cardOpt.isEmpty() || !cardOpt.get().canGetResources(single(ActionBuffer.resource(input)))) {
                 return false; // Card doesn't exist or cannot provide the required resource
             }
         }
@@ -59,16 +97,23 @@ public class ActionHelper {
      * @return false if the position is invalid, has no card, or card cannot accept the resource
      */
     public boolean validateOutputs(List<Pair<Resource, GridPosition>> outputs, Grid grid) {
-        for (Pair<Resource, GridPosition> output : outputs) {
-            Resource resource = output.getFirst();
-            GridPosition position = output.getSecond();
+        return validateOutputs(scratch.set(List.of(), outputs, List.of()), grid);
+    }
 
-            // Check if the position is valid and if grid contains a card
-            if (grid.canPutCard(position) || inValidCoordinations(position)){
+    /**
+     * Validates all encoded output resources - checks positions and card capacity
+     * @return false if the position is invalid, has no card, or card cannot accept the resource
+     */
+    public boolean validateOutputs(ActionBuffer action, Grid grid) {
+        for (int i = 0; i < action.outputCount(); i++) {
+            int output = action.output(i);
+
+            // Check if the position is valid; an empty position is rejected by the card lookup below
+            if (!ActionBuffer.validCell(output)) {
                 return false;
             }
-            Optional<Card> cardOpt = grid.getCard(position);
-            if (cardOpt.isEmpty() || !cardOpt.get().canPutResources(List.of(resource))) {
+            Optional<Card> cardOpt = grid.getCard(ActionBuffer.position(output));
+            if (cardOpt.isEmpty() || !cardOpt.get().canPutResources(single(ActionBuffer.resource(output)))) {
                 return false; // Card doesn't exist or cannot accept the resource
             }
         }
@@ -80,37 +125,102 @@ public class ActionHelper {
      * @return false if the position is invalid, has no card, or card cannot accept more pollution
      */
     public boolean validatePollution(List<GridPosition> pollution, Grid grid) {
-        // Group pollution by card where it should go
-        Map<Card, Integer> pollutionPerCard = new HashMap<>();
+        return validatePollution(scratch.set(List.of(), List.of(), pollution), grid);
+    }
 
-        for (GridPosition position : pollution) {
-            if (grid.canPutCard(position) || inValidCoordinations(position)) {
+    /**
+     * Validates encoded pollution positions - checks if positions exist and cards can accept pollution
+     * @return false if the position is invalid, has no card, or card cannot accept more pollution
+     */
+    public boolean validatePollution(ActionBuffer action, Grid grid) {
+        // Group pollution by cell where it should go
+        Arrays.fill(pollutionPerCell, 0);
+        for (int i = 0; i < action.pollutionCount(); i++) {
+            int pollution = action.pollution(i);
+            if (!ActionBuffer.validCell(pollution)) {
                 return false;
             }
-            Optional<Card> cardOpt = grid.getCard(position);
+            pollutionPerCell[ActionBuffer.cell(pollution)]++;
+        }
+
+        // check if each card can accept all the pollution meant to go to it
+        for (int cell = 0; cell < pollutionPerCell.length; cell++) {
+            int pollutionCount = pollutionPerCell[cell];
+            if (pollutionCount == 0) {
+                continue;
+            }
+            Optional<Card> cardOpt = grid.getCard(ActionBuffer.cellPosition(cell));
             if (cardOpt.isEmpty()) {
                 return false;
             }
-            Card card = cardOpt.get();
 
-            // count how much pollution should go to each card
-            pollutionPerCard.put(card, pollutionPerCard.getOrDefault(card, 0) + 1);
+            // list of pollution tokens to add
+            List<Resource> pollutionToAdd = pollutionCount == 1
+                    ? single(Resource.Pollution)
+                    : Collections.nCopies(pollutionCount, Resource.Pollution);
+            if (!cardOpt.get().canPutResources(pollutionToAdd)) {
+                return false;
+            }
         }
 
-        // check if each card can accept the pollution
-        for (Map.Entry<Card, Integer> entry : pollutionPerCard.entrySet()) {
-            Card card = entry.getKey();
-            int pollutionCount = entry.getValue();
+        return true;
+    }
 
-            // list of pollution tokens to add
-            List<Resource> pollutionToAdd = Collections.nCopies(pollutionCount, Resource.Pollution);
+    /**
+     * Validates inputs, outputs and pollution of an encoded action in one pass.
+     * Every referenced cell is resolved once and all movements are grouped per card,
+     * so a card must hold every resource taken from it and accept all outputs and pollution put on it together.
+     * @return false if a position is invalid, has no card, or a card cannot provide or accept its resources
+     */
+    public boolean validateAction(ActionBuffer action, Grid grid) {
+        boolean valid = true;
+        for (int i = 0; i < action.inputCount() && valid; i++) {
+            int input = action.input(i);
+            valid = collect(input, ActionBuffer.resource(input), cellTakes, grid);
+        }
+        for (int i = 0; i < action.outputCount() && valid; i++) {
+            int output = action.output(i);
+            valid = collect(output, ActionBuffer.resource(output), cellPuts, grid);
+        }
+        for (int i = 0; i < action.pollutionCount() && valid; i++) {
+            valid = collect(action.pollution(i), Resource.Pollution, cellPuts, grid);
+        }
 
-            // chceck if the card can accept all the pollution meant to go to it
-            if (!card.canPutResources(pollutionToAdd)) {
-                return false;
+        // check every card once with everything taken from and put on it, clearing the scratch on the way
+        for (int rest = touchedCells; rest != 0; rest &= rest - 1) {
+            int cell = Integer.numberOfTrailingZeros(rest);
+            List<Resource> takes = cellTakes.get(cell);
+            List<Resource> puts = cellPuts.get(cell);
+            if (valid) {
+                Card card = cellCards[cell];
+                valid = (takes.isEmpty() || card.canGetResources(takes))
+                        && (puts.isEmpty() || card.canPutResources(puts));
             }
+            cellCards[cell] = null;
+            takes.clear();
+            puts.clear();
         }
+        touchedCells = 0;
+        return valid;
+    }
 
+    /**
+     * Resolves the card of an entry's cell (once per pass) and records the resource moved there.
+     * @return false if the position is invalid or has no card
+     */
+    private boolean collect(int entry, Resource resource, List<List<Resource>> into, Grid grid) {
+        if (!ActionBuffer.validCell(entry)) {
+            return false;
+        }
+        int cell = ActionBuffer.cell(entry);
+        if ((touchedCells & (1 << cell)) == 0) {
+            touchedCells |= 1 << cell;
+            cellCards[cell] = grid.getCard(ActionBuffer.cellPosition(cell)).orElse(null);
+        }
+        if (cellCards[cell] == null) {
+            return false;
+        }
+        into.get(cell).add(resource);
         return true;
     }
 
@@ -123,13 +233,20 @@ public class ActionHelper {
      */
     public boolean validTransaction(Card card, List<Pair<Resource, GridPosition>> inputs,
                                     List<Pair<Resource, GridPosition>> outputs, List<GridPosition> pollution, boolean upper) {
-        int pollutionFromTransaction = pollution.size();
-        List<Resource> inputResources = extractResources(inputs);
-        List<Resource> outputResources = extractResources(outputs);
+        return validTransaction(card, scratch.set(inputs, outputs, pollution), upper);
+    }
+
+    /**
+     * Validates an encoded transformation using card.check() method, reading the resources through
+     * the buffer's views so nothing is copied
+     * @param upper If true, validates against the upper effect; if false, uses a lower effect
+     * @return true if the card's effect approves the proposed resource transformation
+     */
+    public boolean validTransaction(Card card, ActionBuffer action, boolean upper) {
         if (upper) {
-            return card.check(inputResources, outputResources, pollutionFromTransaction);
+            return card.check(action.inputResources(), action.outputResources(), action.pollutionCount());
         }else {
-            return card.checkLower(inputResources, outputResources, pollutionFromTransaction);
+            return card.checkLower(action.inputResources(), action.outputResources(), action.pollutionCount());
         }
     }
 
@@ -0,0 +1,80 @@
+package main.java.com.terrafutura.cards;
+
+import java.util.Arrays;
+
+/**
+ * Reusable undo log for card activations.
+ * Every journaled activation opens a frame; before a card is changed for the first time in the frame,
+ * its resources, pollution spaces and blocked flag are saved. {@link #undo()} restores the cards of the
+ * latest frame exactly, so search code can apply and revert activations instead of copying the board.
+ * Only the state held by {@link Card} itself is saved; subclasses keeping their own state are not restored.
+ */
+public final class ActivationJournal {
+    private Card[] cards = new Card[16];
+    private int[] states = new int[16 * Card.STATE_SIZE];
+    private int size;
+
+    private int[] frames = new int[8];
+    private int depth;
+
+    /**
+     * Opens a frame for the next activation.
+     */
+    void begin() {
+        if (depth == frames.length) frames = Arrays.copyOf(frames, depth * 2);
+        frames[depth++] = size;
+    }
+
+    /**
+     * Saves the card's state unless it was already saved in the current frame.
+     *
+     * @param card card about to be changed
+     */
+    void record(Card card) {
+        for (int i = frames[depth - 1]; i < size; i++) {
+            if (cards[i] == card) {
+                return;
+            }
+        }
+        if (size == cards.length) {
+            cards = Arrays.copyOf(cards, size * 2);
+            states = Arrays.copyOf(states, size * 2 * Card.STATE_SIZE);
+        }
+        card.saveState(states, size * Card.STATE_SIZE);
+        cards[size++] = card;
+    }
+
+    /**
+     * Reverts the latest journaled activation.
+     *
+     * @return false if there is nothing to undo
+     */
+    public boolean undo() {
+        if (depth == 0) {
+            return false;
+        }
+        int start = frames[--depth];
+        for (int i = size - 1; i >= start; i--) {
+            cards[i].restoreState(states, i * Card.STATE_SIZE);
+            cards[i] = null;
+        }
+        size = start;
+        return true;
+    }
+
+    /**
+     * @return number of activations that can be undone
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Forgets all journaled activations without reverting them.
+     */
+    public void clear() {
+        Arrays.fill(cards, 0, size, null);
+        size = 0;
+        depth = 0;
+    }
+}
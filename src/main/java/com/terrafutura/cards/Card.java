@@ -1,6 +1,8 @@
 package main.java.com.terrafutura.cards;
 
+import main.java.com.terrafutura.cards.effects.CompiledEffect;
 import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.resources.ResourceBag;
 
 import java.util.*;
 
@@ -11,9 +13,40 @@ import java.util.*;
 public class Card {
 
     /**
-     * List of resources currently stored on the card.
+     * All resource types in ordinal order.
      */
-    private final List<Resource> resources;
+    private static final Resource[] TYPES = Resource.values();
+
+    /**
+     * Number of distinct resource types, used to size the counter store.
+     */
+    private static final int RESOURCE_TYPES = TYPES.length;
+
+    /**
+     * Index of pollution in the counter store.
+     */
+    private static final int POLLUTION = Resource.Pollution.ordinal();
+
+    /**
+     * Number of ints {@link #saveState} writes: resource counts, pollution spaces left and the blocked flag.
+     */
+    public static final int STATE_SIZE = RESOURCE_TYPES + 2;
+
+    /**
+     * Count of every resource currently stored on the card, indexed by {@link Resource#ordinal()}.
+     * The pollution slot doubles as the cached pollution count.
+     */
+    private final int[] counts = new int[RESOURCE_TYPES];
+
+    /**
+     * Total number of resources currently stored on the card.
+     */
+    private int size;
+
+    /**
+     * Read-only list view over {@link #counts}, handed out by {@link #getResources()}.
+     */
+    private final List<Resource> resources = new ResourcesView();
 
     /**
      * Number of pollution spaces remaining before the card becomes blocked.
@@ -27,29 +60,32 @@ public class Card {
     private boolean isBlockedByPollution;
 
     /**
-     * Upper (primary) effect of this card.
+     * Effects and pollution capacity, shared with every other card of the same definition.
+     */
+    private final CardDefinition definition;
+
+    /**
+     * Last result of {@link #state()}, null after any change of the card.
      */
-    private final Optional<Effect> effect;
+    private String cachedState;
 
     /**
-     * Lower effect of this card.
+     * Notified after every change of the resources, null if nobody listens.
      */
-    private final Optional<Effect> lowerEffect;
+    private CardListener listener;
 
 
     /**
      * Creates a card with the given pollution capacity and effects.
+     * Effects are compiled here, so they must be fully built before the card is created.
+     * Cards of a {@link CardCatalog} share their definitions instead; see {@link CardDefinition#newCard()}.
      *
      * @param pollutionSpaces number of pollution spaces before card becomes blocked
      * @param effect          upper effect of the card
      * @param lowerEffect     lower effect of the card
      */
     public Card(int pollutionSpaces, Optional<Effect> effect, Optional<Effect> lowerEffect) {
-        resources = new ArrayList<>();
-        pollutionSpacesLeft = pollutionSpaces;
-        isBlockedByPollution = false;
-        this.effect = effect;
-        this.lowerEffect = lowerEffect;
+        this(new CardDefinition("", pollutionSpaces, effect, lowerEffect));
     }
 
     /**
@@ -59,11 +95,7 @@ public class Card {
      * @param effect          upper effect of the card
      */
     public Card(int pollutionSpaces, Effect effect) {
-        resources = new ArrayList<>();
-        pollutionSpacesLeft = pollutionSpaces;
-        isBlockedByPollution = false;
-        this.effect = Optional.of(effect);
-        this.lowerEffect = Optional.empty();
+        this(pollutionSpaces, Optional.of(effect), Optional.empty());
     }
 
     /**
@@ -74,15 +106,38 @@ public class Card {
      * @param lowerEffect     lower effect of the card
      */
     public Card(int pollutionSpaces, Effect effect, Effect lowerEffect) {
-        resources = new ArrayList<>();
-        pollutionSpacesLeft = pollutionSpaces;
+        this(pollutionSpaces, Optional.of(effect), Optional.of(lowerEffect));
+    }
+
+    /**
+     * Creates a card of the definition without resources.
+     */
+    public Card(CardDefinition definition) {
+        this.definition = definition;
+        pollutionSpacesLeft = definition.getPollutionSpaces();
         isBlockedByPollution = false;
-        this.effect = Optional.of(effect);
-        this.lowerEffect = Optional.of(lowerEffect);
     }
 
     /**
-     * Checks if the card contains all requested resources.
+     * Creates a copy sharing the definition of the original and with its own resources.
+     */
+    private Card(Card original) {
+        System.arraycopy(original.counts, 0, counts, 0, RESOURCE_TYPES);
+        size = original.size;
+        pollutionSpacesLeft = original.pollutionSpacesLeft;
+        isBlockedByPollution = original.isBlockedByPollution;
+        definition = original.definition;
+    }
+
+    /**
+     * @return card with the same effects and pollution capacity, holding the same resources as this one now
+     */
+    public Card copy() {
+        return new Card(this);
+    }
+
+    /**
+     * Checks if the card contains all requested resources, counting repeated resources separately.
      * Blocked cards cannot provide any resources unless requesting pollution to be removed.
      *
      * @param resources list of resources to check
@@ -96,11 +151,44 @@ public class Card {
                 }
             }
         }
-        return new HashSet<>(this.resources).containsAll(resources);
+        if (resources.size() > size) {
+            return false;
+        }
+        if (resources.size() <= ResourceBag.LANE_MAX) {
+            // no counter in the bag can saturate, so it holds the exact requested counts
+            long requested = ResourceBag.of(resources);
+            for (Resource type : TYPES) {
+                if (ResourceBag.count(requested, type) > counts[type.ordinal()]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        for (Resource type : TYPES) {
+            int requested = 0;
+            for (Resource resource : resources) {
+                if (resource == type) requested++;
+            }
+            if (requested > counts[type.ordinal()]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns how many resources of the given type are stored on the card.
+     *
+     * @param resource resource type to count
+     * @return number of stored resources of that type
+     */
+    public int getResourceCount(Resource resource) {
+        return counts[resource.ordinal()];
     }
 
     /**
      * Returns the resources currently stored on the card.
+     * The list is a read-only view ordered by resource type and reflects later changes to the card.
      *
      * @return list of resources
      */
@@ -118,9 +206,7 @@ public class Card {
      */
     public boolean canPutResources(List<Resource> resources) {
         if (isBlockedByPollution) return false;
-        int currentPollution = (int) this.resources.stream().filter(r -> r == Resource.Pollution).count();
-        int pollutionToPut = (int) resources.stream().filter(r -> r == Resource.Pollution).count();
-        return currentPollution + pollutionToPut <= pollutionSpacesLeft + 1;
+        return counts[POLLUTION] + countPollution(resources) <= pollutionSpacesLeft + 1;
     }
 
     /**
@@ -130,14 +216,19 @@ public class Card {
      * @param resources list of resources to add
      */
     public void putResources(List<Resource> resources) {
-        this.resources.addAll(resources);
-        int newPollution = (int) resources.stream().filter(r -> r == Resource.Pollution).count();
+        cachedState = null;
+        for (Resource resource : resources) {
+            counts[resource.ordinal()]++;
+        }
+        size += resources.size();
+        int newPollution = countPollution(resources);
         for (int i = 0; i < newPollution; i++) {
             pollutionSpacesLeft--;
             if (pollutionSpacesLeft < 0) {
                 isBlockedByPollution = true;
             }
         }
+        changed();
     }
 
     /**
@@ -147,13 +238,19 @@ public class Card {
      * @param resource resource to remove
      */
     public void removeResource(Resource resource) {
-        this.resources.remove(resource);
+        if (counts[resource.ordinal()] == 0) {
+            return;
+        }
+        cachedState = null;
+        counts[resource.ordinal()]--;
+        size--;
         if (resource.equals(Resource.Pollution)) {
             pollutionSpacesLeft++;
             if (pollutionSpacesLeft > 0) {
                 isBlockedByPollution = false;
             }
         }
+        changed();
     }
 
     /**
@@ -166,8 +263,16 @@ public class Card {
             removeResource(resource);
         }
     }
-    
-    public void removeResource(Resource resource){}
+
+    private static int countPollution(List<Resource> resources) {
+        int pollution = 0;
+        for (Resource resource : resources) {
+            if (resource == Resource.Pollution) {
+                pollution++;
+            }
+        }
+        return pollution;
+    }
 
     /**
      * Checks whether this card's upper effect may be used for the given input and output resource lists.
@@ -178,7 +283,8 @@ public class Card {
      * @return true if the effect may be used
      */
     public boolean check(List<Resource> input, List<Resource> output, int pollution) {
-        return effect.map(value -> value.check(input, output, pollution)).orElse(false);
+        CompiledEffect compiledEffect = definition.compiledEffect();
+        return compiledEffect != null && compiledEffect.check(input, output, pollution);
     }
 
     /**
@@ -190,7 +296,43 @@ public class Card {
      * @return true if the effect may be used
      */
     public boolean checkLower(List<Resource> input, List<Resource> output, int pollution) {
-        return lowerEffect.map(value -> value.check(input, output, pollution)).orElse(false);
+        CompiledEffect compiledLowerEffect = definition.compiledLowerEffect();
+        return compiledLowerEffect != null && compiledLowerEffect.check(input, output, pollution);
+    }
+
+    public CardDefinition getDefinition() {
+        return definition;
+    }
+
+    public Optional<Effect> getEffect() {
+        return definition.getEffect();
+    }
+
+    public Optional<Effect> getLowerEffect() {
+        return definition.getLowerEffect();
+    }
+
+    /**
+     * @return compiled upper effect, null if the card has none
+     */
+    CompiledEffect compiledEffect() {
+        return definition.compiledEffect();
+    }
+
+    /**
+     * @return compiled lower effect, null if the card has none
+     */
+    CompiledEffect compiledLowerEffect() {
+        return definition.compiledLowerEffect();
+    }
+
+    /**
+     * A card full of pollution is not blocked yet, only one holding more pollution than it has spaces for.
+     *
+     * @return true if the card is blocked by pollution, so its resources are not scored
+     */
+    public boolean isBlockedByPollution() {
+        return isBlockedByPollution;
     }
 
     /**
@@ -199,27 +341,107 @@ public class Card {
      * @return true if card supports assistance
      */
     public boolean hasAssistance() {
-        return lowerEffect.map(Effect::hasAssistance).orElse(false);
+        return definition.hasAssistance();
+    }
+
+    /**
+     * Copies the mutable state of this card (resources, pollution spaces left, blocked flag) into an array.
+     *
+     * @param into array to write {@link #STATE_SIZE} ints to
+     * @param offset first index to write
+     */
+    public void saveState(int[] into, int offset) {
+        System.arraycopy(counts, 0, into, offset, RESOURCE_TYPES);
+        into[offset + RESOURCE_TYPES] = pollutionSpacesLeft;
+        into[offset + RESOURCE_TYPES + 1] = isBlockedByPollution ? 1 : 0;
+    }
+
+    /**
+     * Restores the state written by {@link #saveState}.
+     *
+     * @param from array holding the saved state
+     * @param offset first index of the saved state
+     */
+    public void restoreState(int[] from, int offset) {
+        cachedState = null;
+        System.arraycopy(from, offset, counts, 0, RESOURCE_TYPES);
+        size = 0;
+        for (int count : counts) {
+            size += count;
+        }
+        pollutionSpacesLeft = from[offset + RESOURCE_TYPES];
+        isBlockedByPollution = from[offset + RESOURCE_TYPES + 1] != 0;
+        changed();
+    }
+
+    /**
+     * Sets who is notified after every change of the card's resources or blocked state.
+     * A card lies on one grid, so it has at most one listener; copies do not inherit it.
+     *
+     * @param listener the listener, null to stop notifying
+     */
+    public void setListener(CardListener listener) {
+        this.listener = listener;
+    }
+
+    private void changed() {
+        if (listener != null) {
+            listener.cardChanged(this);
+        }
     }
 
     /**
+     * The result is cached until the card changes, so an unchanged card returns the same string instance.
+     *
      * @return readable representation of the card state
      */
     public String state() {
+        if (cachedState != null) {
+            return cachedState;
+        }
         StringBuilder sb = new StringBuilder();
 
         sb.append("Card{resources=").append(resources);
         sb.append(", pollutionSpacesLeft=").append(pollutionSpacesLeft);
         sb.append(", isBlockedByPollution=").append(isBlockedByPollution);
-        effect.ifPresent(value -> sb.append(", effect=").append(value.state()));
-        lowerEffect.ifPresent(value -> sb.append(", lowerEffect=").append(value.state()));
+        sb.append(definition.effectsState());
         sb.append("}");
 
-        return sb.toString();
+        cachedState = sb.toString();
+        return cachedState;
     }
 
     @Override
     public String toString() {
         return state();
     }
+
+    /**
+     * List view that expands the counter store into individual resources, ordered by resource type.
+     */
+    private final class ResourcesView extends AbstractList<Resource> {
+        @Override
+        public Resource get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            for (int i = 0; i < RESOURCE_TYPES; i++) {
+                if (index < counts[i]) {
+                    return TYPES[i];
+                }
+                index -= counts[i];
+            }
+            throw new IndexOutOfBoundsException(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Resource resource && counts[resource.ordinal()] > 0;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,190 @@
+package main.java.com.terrafutura.cards;
+
+import main.java.com.terrafutura.cards.effects.ArbitraryBasic;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.cards.effects.ArbitraryOutput;
+import main.java.com.terrafutura.cards.effects.EffectOr;
+import main.java.com.terrafutura.cards.effects.TransformationFixed;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Card definitions loaded once and shared by all games. Equal effects are interned: the builder creates each
+ * distinct effect once, so every definition using it, and every card of those definitions, refers to the same
+ * instance. Games only allocate the resources of their cards.
+ * <p>
+ * A catalog is immutable and may be used from any thread. Its {@link #definitions()} in order build the same
+ * {@link main.java.com.terrafutura.codec.DefinitionTable} on every side that loads the same card file.
+ */
+public final class CardCatalog {
+    private final Map<String, CardDefinition> definitions;
+    private final List<Effect> effects;
+
+    private CardCatalog(Builder builder) {
+        this.definitions = Collections.unmodifiableMap(new LinkedHashMap<>(builder.definitions));
+        this.effects = List.copyOf(builder.effects);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the definition with the name, empty if there is none
+     */
+    public Optional<CardDefinition> definition(String name) {
+        return Optional.ofNullable(definitions.get(name));
+    }
+
+    /**
+     * @return new card of the named definition
+     * @throws IllegalArgumentException if the catalog has no such definition
+     */
+    public Card newCard(String name) {
+        CardDefinition definition = definitions.get(name);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown card " + name);
+        }
+        return definition.newCard();
+    }
+
+    /**
+     * @return all definitions in the order they were defined
+     */
+    public List<CardDefinition> definitions() {
+        return List.copyOf(definitions.values());
+    }
+
+    /**
+     * @return every distinct effect, including the children of {@link EffectOr}s, in the order they were created
+     */
+    public List<Effect> effects() {
+        return effects;
+    }
+
+    public int size() {
+        return definitions.size();
+    }
+
+    /**
+     * Creates the interned effects and the definitions of a catalog. Effects given to {@link #define} must come
+     * from the same builder.
+     */
+    public static final class Builder {
+        private final Map<List<Object>, Effect> interned = new HashMap<>();
+        private final Set<Effect> own = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Effect> effects = new ArrayList<>();
+        private final Map<String, CardDefinition> definitions = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @return effect exchanging exactly the given input for part of the given output,
+         * see {@link TransformationFixed}
+         */
+        public Effect transformation(List<Resource> from, List<Resource> to, int pollution, boolean assistance) {
+            List<Resource> input = List.copyOf(from), output = List.copyOf(to);
+            return intern(List.of("transformation", input, output, pollution, assistance),
+                    () -> new TransformationFixed(input, output, pollution, assistance, pollution));
+        }
+
+        /**
+         * @return effect exchanging any resources for part of the given output, see {@link ArbitraryBasic}
+         */
+        public Effect arbitraryBasic(int from, List<Resource> to, int pollution, boolean assistance) {
+            List<Resource> output = List.copyOf(to);
+            return intern(List.of("arbitraryBasic", from, output, pollution, assistance),
+                    () -> new ArbitraryBasic(from, output, pollution, assistance));
+        }
+
+        /**
+         * @return effect exchanging any resources for any resources, see {@link ArbitraryInOut}
+         */
+        public Effect arbitraryInOut(int in, int out, int pollution, boolean assistance) {
+            return intern(List.of("arbitraryInOut", in, out, pollution, assistance),
+                    () -> new ArbitraryInOut(in, out, assistance, pollution));
+        }
+
+        /**
+         * @return effect exchanging the given input for any resources, see {@link ArbitraryOutput}
+         */
+        public Effect arbitraryOutput(List<Resource> from, int to, int pollution, boolean assistance) {
+            List<Resource> input = List.copyOf(from);
+            return intern(List.of("arbitraryOutput", input, to, pollution, assistance),
+                    () -> new ArbitraryOutput(input, to, assistance, pollution));
+        }
+
+        /**
+         * @param children effects of this builder
+         * @return effect accepting what any of the children accepts, see {@link EffectOr}
+         */
+        public Effect or(List<Effect> children) {
+            List<Effect> alternatives = List.copyOf(children);
+            alternatives.forEach(this::checkOwn);
+            // effects compare by identity, and interned equal children are the same instance
+            List<Object> key = new ArrayList<>(alternatives);
+            key.addFirst("or");
+            return intern(key, () -> new EffectOr(alternatives));
+        }
+
+        /**
+         * @param effect      upper effect created by this builder, if any
+         * @param lowerEffect lower effect created by this builder, if any
+         * @return the new definition
+         * @throws IllegalArgumentException if the name is taken or an effect comes from elsewhere
+         */
+        public CardDefinition define(String name, int pollutionSpaces, Optional<Effect> effect,
+                                     Optional<Effect> lowerEffect) {
+            if (definitions.containsKey(name)) {
+                throw new IllegalArgumentException("Card " + name + " is already defined");
+            }
+            if (pollutionSpaces < 0) {
+                throw new IllegalArgumentException("Card " + name + " has negative pollution spaces");
+            }
+            effect.ifPresent(this::checkOwn);
+            lowerEffect.ifPresent(this::checkOwn);
+            CardDefinition definition = new CardDefinition(name, pollutionSpaces, effect, lowerEffect);
+            definitions.put(name, definition);
+            return definition;
+        }
+
+        /**
+         * @return number of distinct effects created so far
+         */
+        public int effectCount() {
+            return effects.size();
+        }
+
+        public CardCatalog build() {
+            return new CardCatalog(this);
+        }
+
+        private Effect intern(List<Object> key, Supplier<Effect> create) {
+            Effect effect = interned.get(key);
+            if (effect == null) {
+                effect = create.get();
+                interned.put(List.copyOf(key), effect);
+                own.add(effect);
+                effects.add(effect);
+            }
+            return effect;
+        }
+
+        private void checkOwn(Effect effect) {
+            if (!own.contains(effect)) {
+                throw new IllegalArgumentException("Effect was not created by this catalog: " + effect.state());
+            }
+        }
+    }
+}
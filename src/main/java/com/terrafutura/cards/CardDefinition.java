@@ -0,0 +1,96 @@
+package main.java.com.terrafutura.cards;
+
+import main.java.com.terrafutura.cards.effects.CompiledEffect;
+import main.java.com.terrafutura.cards.effects.EffectCompiler;
+
+import java.util.Optional;
+
+/**
+ * What all copies of a card have in common: the pollution capacity and the effects, compiled once.
+ * Definitions are immutable, so one definition is shared by the cards of every game; a {@link Card} only adds
+ * the resources lying on it.
+ */
+public final class CardDefinition {
+    private final String name;
+    private final int pollutionSpaces;
+    private final Optional<Effect> effect;
+    private final Optional<Effect> lowerEffect;
+    private final CompiledEffect compiledEffect;
+    private final CompiledEffect compiledLowerEffect;
+    private final String effectsState;
+
+    /**
+     * Effects are compiled here, so they must be fully built before the definition is created.
+     *
+     * @param name            name of the card, unique within a {@link CardCatalog}
+     * @param pollutionSpaces number of pollution spaces before the card becomes blocked
+     */
+    public CardDefinition(String name, int pollutionSpaces, Optional<Effect> effect, Optional<Effect> lowerEffect) {
+        this.name = name;
+        this.pollutionSpaces = pollutionSpaces;
+        this.effect = effect;
+        this.lowerEffect = lowerEffect;
+        this.compiledEffect = effect.map(EffectCompiler::compile).orElse(null);
+        this.compiledLowerEffect = lowerEffect.map(EffectCompiler::compile).orElse(null);
+        StringBuilder effects = new StringBuilder();
+        effect.ifPresent(value -> effects.append(", effect=").append(value.state()));
+        lowerEffect.ifPresent(value -> effects.append(", lowerEffect=").append(value.state()));
+        this.effectsState = effects.toString();
+    }
+
+    /**
+     * @return new card of this definition without resources
+     */
+    public Card newCard() {
+        return new Card(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPollutionSpaces() {
+        return pollutionSpaces;
+    }
+
+    public Optional<Effect> getEffect() {
+        return effect;
+    }
+
+    public Optional<Effect> getLowerEffect() {
+        return lowerEffect;
+    }
+
+    /**
+     * @return true if the lower effect supports assistance
+     */
+    public boolean hasAssistance() {
+        return lowerEffect.map(Effect::hasAssistance).orElse(false);
+    }
+
+    /**
+     * @return compiled upper effect, null if the card has none
+     */
+    CompiledEffect compiledEffect() {
+        return compiledEffect;
+    }
+
+    /**
+     * @return compiled lower effect, null if the card has none
+     */
+    CompiledEffect compiledLowerEffect() {
+        return compiledLowerEffect;
+    }
+
+    /**
+     * @return serialized effects as {@link Card#state()} shows them
+     */
+    String effectsState() {
+        return effectsState;
+    }
+
+    @Override
+    public String toString() {
+        return name + "{pollutionSpaces=" + pollutionSpaces + effectsState + "}";
+    }
+}
@@ -0,0 +1,18 @@
+package main.java.com.terrafutura.cards;
+
+/**
+ * Receives the changes of cards on a grid, e.g. to keep a running score without scanning the grid.
+ * Cards report their own resource changes; the grid reports cards being placed and removed.
+ */
+public interface CardListener {
+
+    /**
+     * Called after a card was placed or its resources or blocked state changed.
+     */
+    void cardChanged(Card card);
+
+    /**
+     * Called after a card was removed from the grid, which only happens when search code reverts a placement.
+     */
+    void cardRemoved(Card card);
+}
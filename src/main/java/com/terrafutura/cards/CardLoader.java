@@ -0,0 +1,315 @@
+package main.java.com.terrafutura.cards;
+
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Loads card definitions from JSON into a {@link CardCatalog}. The file is an array of cards, read one card at
+ * a time, so the whole file is never held in memory:
+ * <pre>
+ * [
+ *   {"name": "farm", "pollutionSpaces": 1, "deck": "I", "copies": 2,
+ *    "effect": {"type": "transformation", "from": [], "to": ["Green"]},
+ *    "lowerEffect": {"type": "or", "of": [
+ *        {"type": "arbitraryInOut", "in": 1, "out": 1, "pollution": 1},
+ *        {"type": "arbitraryBasic", "from": 2, "to": ["Car"], "assistance": true}]}}
+ * ]
+ * </pre>
+ * Effect types are {@code transformation} (from, to), {@code arbitraryBasic} (from count, to),
+ * {@code arbitraryOutput} (from, to count), {@code arbitraryInOut} (in, out) and {@code or} (of); every effect
+ * may set {@code pollution} and {@code assistance}, which default to 0 and false. Both effects, {@code deck} and
+ * {@code copies} (default 1) of a card are optional. Unknown keys are errors, so typos do not go unnoticed.
+ */
+public final class CardLoader {
+
+    private static final Set<String> CARD_KEYS = Set.of("name", "pollutionSpaces", "effect", "lowerEffect", "deck",
+            "copies");
+    private static final Set<String> IN_OUT_KEYS = Set.of("type", "pollution", "assistance", "in", "out");
+    private static final Set<String> FROM_TO_KEYS = Set.of("type", "pollution", "assistance", "from", "to");
+    private static final Set<String> OR_KEYS = Set.of("type", "of");
+
+    /**
+     * Loaded catalog and the cards of every deck.
+     *
+     * @param decks     definitions of each deck, repeated for every copy, in file order
+     * @param parseTime time spent reading and building the catalog
+     * @param budget    time loading was expected to take at most
+     */
+    public record Loaded(CardCatalog catalog, Map<Deck, List<CardDefinition>> decks, Duration parseTime,
+                         Duration budget) {
+
+        public boolean withinBudget() {
+            return parseTime.compareTo(budget) <= 0;
+        }
+
+        /**
+         * @return new cards of all copies in the deck, empty if the file has none
+         */
+        public List<Card> newCards(Deck deck) {
+            List<Card> cards = new ArrayList<>();
+            for (CardDefinition definition : decks.getOrDefault(deck, List.of())) {
+                cards.add(definition.newCard());
+            }
+            return cards;
+        }
+
+        /**
+         * @return pile of new cards of the deck
+         */
+        public Pile newPile(Deck deck, long seed) {
+            return new Pile(newCards(deck), seed);
+        }
+
+        /**
+         * @return one line about the load, e.g. for the startup log
+         */
+        public String report() {
+            return String.format("%d cards, %d effects loaded in %.3f ms (budget %.3f ms%s)", catalog.size(),
+                    catalog.effects().size(), parseTime.toNanos() / 1e6, budget.toNanos() / 1e6,
+                    withinBudget() ? "" : ", exceeded");
+        }
+    }
+
+    private final Duration budget;
+
+    /**
+     * @param budget time loading is expected to take at most; exceeding it is only reported
+     */
+    public CardLoader(Duration budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the file is not valid JSON or not valid card definitions
+     */
+    public Loaded load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * Loads a file from the class path, e.g. {@code "/cards.json"}.
+     *
+     * @throws IOException if there is no such resource
+     */
+    public Loaded loadResource(String name) throws IOException {
+        InputStream in = CardLoader.class.getResourceAsStream(name);
+        if (in == null) {
+            throw new IOException("No resource " + name);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return load(reader);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is not valid JSON or not valid card definitions
+     */
+    public Loaded load(Reader reader) throws IOException {
+        long start = System.nanoTime();
+        CardCatalog.Builder builder = CardCatalog.builder();
+        Map<Deck, List<CardDefinition>> decks = new EnumMap<>(Deck.class);
+        JSONTokener tokener = new JSONTokener(reader);
+        int index = -1;
+        try {
+            if (tokener.nextClean() != '[') {
+                throw tokener.syntaxError("Expected an array of cards");
+            }
+            if (tokener.nextClean() != ']') {
+                tokener.back();
+                for (index = 0; ; index++) {
+                    card(builder, decks, index, tokener.nextValue());
+                    char next = tokener.nextClean();
+                    if (next == ']') {
+                        break;
+                    }
+                    if (next != ',') {
+                        throw tokener.syntaxError("Expected ',' or ']' after the card");
+                    }
+                }
+            }
+            index = -1;
+            if (tokener.nextClean() != 0) {
+                throw tokener.syntaxError("Unexpected content after the cards");
+            }
+        } catch (JSONException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            String where = index < 0 ? "" : "Card " + index + ": ";
+            throw new IllegalArgumentException(where + e.getMessage(), e);
+        }
+        decks.replaceAll((deck, definitions) -> List.copyOf(definitions));
+        return new Loaded(builder.build(), Collections.unmodifiableMap(decks),
+                Duration.ofNanos(System.nanoTime() - start), budget);
+    }
+
+    private static void card(CardCatalog.Builder builder, Map<Deck, List<CardDefinition>> decks, int index,
+                             Object value) {
+        String where = "Card " + index;
+        JSONObject card = object(value, where);
+        String name = string(card, "name", where);
+        where += " (" + name + ")";
+        checkKeys(card, CARD_KEYS, where);
+        int pollutionSpaces = count(card, "pollutionSpaces", where);
+        Optional<Effect> effect = optionalEffect(builder, card, "effect", where);
+        Optional<Effect> lowerEffect = optionalEffect(builder, card, "lowerEffect", where);
+        CardDefinition definition;
+        try {
+            definition = builder.define(name, pollutionSpaces, effect, lowerEffect);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(where + ": " + e.getMessage(), e);
+        }
+
+        int copies = card.has("copies") ? count(card, "copies", where) : 1;
+        if (!card.has("deck")) {
+            if (card.has("copies")) {
+                throw new IllegalArgumentException(where + ": copies without a deck");
+            }
+            return;
+        }
+        String deckName = string(card, "deck", where);
+        Deck deck;
+        try {
+            deck = Deck.valueOf(deckName);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(where + ": unknown deck " + deckName, e);
+        }
+        List<CardDefinition> cards = decks.computeIfAbsent(deck, d -> new ArrayList<>());
+        for (int i = 0; i < copies; i++) {
+            cards.add(definition);
+        }
+    }
+
+    private static Optional<Effect> optionalEffect(CardCatalog.Builder builder, JSONObject card, String key,
+                                                   String where) {
+        return card.has(key) ? Optional.of(effect(builder, card.get(key), where + ": " + key)) : Optional.empty();
+    }
+
+    private static Effect effect(CardCatalog.Builder builder, Object value, String where) {
+        JSONObject effect = object(value, where);
+        String type = string(effect, "type", where);
+        int pollution = effect.has("pollution") ? count(effect, "pollution", where) : 0;
+        boolean assistance = false;
+        if (effect.has("assistance")) {
+            if (!(effect.get("assistance") instanceof Boolean flag)) {
+                throw new IllegalArgumentException(where + ": assistance must be true or false");
+            }
+            assistance = flag;
+        }
+        return switch (type) {
+            case "transformation" -> {
+                checkKeys(effect, FROM_TO_KEYS, where);
+                yield builder.transformation(resources(effect, "from", where), resources(effect, "to", where),
+                        pollution, assistance);
+            }
+            case "arbitraryBasic" -> {
+                checkKeys(effect, FROM_TO_KEYS, where);
+                yield builder.arbitraryBasic(count(effect, "from", where), resources(effect, "to", where),
+                        pollution, assistance);
+            }
+            case "arbitraryOutput" -> {
+                checkKeys(effect, FROM_TO_KEYS, where);
+                yield builder.arbitraryOutput(resources(effect, "from", where), count(effect, "to", where),
+                        pollution, assistance);
+            }
+            case "arbitraryInOut" -> {
+                checkKeys(effect, IN_OUT_KEYS, where);
+                yield builder.arbitraryInOut(count(effect, "in", where), count(effect, "out", where),
+                        pollution, assistance);
+            }
+            case "or" -> {
+                // pollution and assistance come from the alternatives
+                checkKeys(effect, OR_KEYS, where);
+                JSONArray of = array(effect, "of", where);
+                if (of.isEmpty()) {
+                    throw new IllegalArgumentException(where + ": or needs at least one effect");
+                }
+                List<Effect> children = new ArrayList<>(of.length());
+                for (int i = 0; i < of.length(); i++) {
+                    children.add(effect(builder, of.get(i), where + ".of[" + i + "]"));
+                }
+                yield builder.or(children);
+            }
+            default -> throw new IllegalArgumentException(where + ": unknown effect type " + type);
+        };
+    }
+
+    /**
+     * Missing keys are reported by the getters below.
+     */
+    private static void checkKeys(JSONObject object, Set<String> allowed, String where) {
+        for (String key : object.keySet()) {
+            if (!allowed.contains(key)) {
+                throw new IllegalArgumentException(where + ": unknown key " + key);
+            }
+        }
+    }
+
+    private static JSONObject object(Object value, String where) {
+        if (!(value instanceof JSONObject object)) {
+            throw new IllegalArgumentException(where + ": expected an object");
+        }
+        return object;
+    }
+
+    private static JSONArray array(JSONObject object, String key, String where) {
+        if (!(object.opt(key) instanceof JSONArray array)) {
+            throw new IllegalArgumentException(where + ": " + key + " must be an array");
+        }
+        return array;
+    }
+
+    private static String string(JSONObject object, String key, String where) {
+        if (!(object.opt(key) instanceof String string) || string.isBlank()) {
+            throw new IllegalArgumentException(where + ": " + key + " must be a non-empty string");
+        }
+        return string;
+    }
+
+    /**
+     * @return non-negative whole number
+     */
+    private static int count(JSONObject object, String key, String where) {
+        if (!(object.opt(key) instanceof Integer count) || count < 0) {
+            throw new IllegalArgumentException(where + ": " + key + " must be a whole number of at least 0");
+        }
+        return count;
+    }
+
+    private static List<Resource> resources(JSONObject object, String key, String where) {
+        JSONArray array = array(object, key, where);
+        List<Resource> resources = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            Object name = array.get(i);
+            try {
+                resources.add(Resource.valueOf((String) name));
+            } catch (ClassCastException | IllegalArgumentException e) {
+                throw new IllegalArgumentException(where + ": " + key + " has unknown resource " + name, e);
+            }
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,796 @@
+package main.java.com.terrafutura.cards;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.effects.CompiledEffect;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.resources.ResourceBag;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Generates every legal activation of a card from its compiled effects and the resources on the grid.
+ * An activation is legal if {@link ProcessAction} would execute it:
+ * <ul>
+ *     <li>its input, output and pollution fit a row of the card's upper or lower effect table,</li>
+ *     <li>every card holds what is taken from it, and a card blocked by pollution gives only pollution,</li>
+ *     <li>every card something is put on accepts it, which depends only on how much pollution it gets,
+ *     including pollution produced as an output of any resource.</li>
+ * </ul>
+ * Whether an activation fits a row depends only on its shape, the number of each resource in its input and
+ * output. The grid decides how a shape is spread over the cards, the same way for every row. So each row yields
+ * the shapes it accepts and no earlier row does, every one with all its spreads: rows never yield the same
+ * activation, and nothing is validated or remembered per activation. Activations differing only in the order
+ * of their entries are the same activation.
+ * <p>
+ * The spreads of a shape are counted, not enumerated, so {@link #sample} draws a uniformly random legal activation
+ * without enumerating them; counts above 2^53 are rounded. Effects the compiler could not flatten are neither
+ * enumerated nor sampled.
+ */
+public class LegalActivationGenerator {
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final int TYPES = RESOURCES.length;
+    private static final int POLLUTION = Resource.Pollution.ordinal();
+
+    /**
+     * @param card card to activate
+     * @param grid grid the card lies on
+     * @return lazy iterator over the legal activations
+     */
+    public Iterator<ActionBuffer> iterator(Card card, Grid grid) {
+        Board board = Board.of(card, grid);
+        if (board == null) {
+            return Collections.emptyIterator();
+        }
+        return flatMap(range(0, board.rows.size()), board::activations);
+    }
+
+    /**
+     * @param card card to activate
+     * @param grid grid the card lies on
+     * @return lazy stream of the legal activations
+     */
+    public Stream<ActionBuffer> stream(Card card, Grid grid) {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(iterator(card, grid), Spliterator.ORDERED | Spliterator.NONNULL),
+                false);
+    }
+
+    /**
+     * Draws one of the legal activations, each with the same probability.
+     *
+     * @param card card to activate
+     * @param grid grid the card lies on
+     * @return random legal activation, empty if there is none
+     */
+    public Optional<ActionBuffer> sample(Card card, Grid grid, RandomGenerator random) {
+        Board board = Board.of(card, grid);
+        return board == null ? Optional.empty() : board.sample(random);
+    }
+
+    /**
+     * The cards of a grid as seen by one activating card, and the rows of that card's effects.
+     */
+    private static final class Board {
+        private final GridPosition[] cells;
+
+        /**
+         * Cards that accept what is put on them, and how much pollution each accepts at once.
+         */
+        private final GridPosition[] targets;
+        private final int[] rooms;
+
+        /**
+         * Ways to take each number of each resource from the cards.
+         */
+        private final Spread[] takes = new Spread[TYPES];
+
+        /**
+         * Ways to put each number of one resource other than pollution on the cards.
+         */
+        private final Spread puts;
+        private final List<Row> rows = new ArrayList<>();
+
+        private Board(Card card, Grid grid) {
+            List<GridPosition> positions = grid.getCardPositions();
+            cells = positions.toArray(new GridPosition[0]);
+            List<CompiledEffect> effects = new ArrayList<>(2);
+            if (card.compiledEffect() != null) {
+                effects.add(card.compiledEffect());
+            }
+            if (card.compiledLowerEffect() != null) {
+                effects.add(card.compiledLowerEffect());
+            }
+
+            int[][] caps = new int[TYPES][cells.length];
+            int takeable = 0;
+            for (int i = 0; i < cells.length; i++) {
+                Card source = grid.getCard(cells[i]).orElseThrow();
+                for (Resource resource : RESOURCES) {
+                    // a card refusing one resource refuses every input containing it
+                    if (source.canGetResources(ActionHelper.single(resource))) {
+                        caps[resource.ordinal()][i] = source.getResourceCount(resource);
+                        takeable += caps[resource.ordinal()][i];
+                    }
+                }
+            }
+            for (int k = 0; k < TYPES; k++) {
+                takes[k] = new Spread(caps[k], Arrays.stream(caps[k]).sum());
+            }
+
+            int outputs = 0, pollution = 0;
+            for (CompiledEffect effect : effects) {
+                for (int r = 0; r < effect.rows(); r++) {
+                    outputs = Math.max(outputs, Row.maxOutput(effect, r));
+                    pollution = Math.max(pollution, effect.rowPollution(r) + Row.outputCap(effect, r, POLLUTION));
+                }
+            }
+            List<GridPosition> accepting = new ArrayList<>();
+            List<Integer> room = new ArrayList<>();
+            for (GridPosition position : cells) {
+                int accepted = pollutionRoom(grid.getCard(position).orElseThrow(), pollution);
+                if (accepted >= 0) {
+                    accepting.add(position);
+                    room.add(accepted);
+                }
+            }
+            targets = accepting.toArray(new GridPosition[0]);
+            rooms = room.stream().mapToInt(Integer::intValue).toArray();
+            int[] unlimited = new int[targets.length];
+            Arrays.fill(unlimited, outputs);
+            puts = new Spread(unlimited, outputs);
+
+            for (CompiledEffect effect : effects) {
+                for (int r = 0; r < effect.rows(); r++) {
+                    rows.add(new Row(effect, r, this, takeable));
+                }
+            }
+        }
+
+        /**
+         * @return the board, null if the card cannot be activated at all
+         */
+        static Board of(Card card, Grid grid) {
+            // the same card level checks validation starts with
+            if (!card.canPutResources(List.of()) || card.hasAssistance()) {
+                return null;
+            }
+            return new Board(card, grid);
+        }
+
+        /**
+         * @return activations of the row that no earlier row yields
+         */
+        Iterator<ActionBuffer> activations(int r) {
+            Row row = rows.get(r);
+            return flatMap(row.in.shapes(), in ->
+                    flatMap(filter(row.out.shapes(), out -> !covered(r, in, out)), out -> spreads(row, in, out)));
+        }
+
+        Optional<ActionBuffer> sample(RandomGenerator random) {
+            double[] counts = new double[rows.size()];
+            double total = 0;
+            for (int r = 0; r < counts.length; r++) {
+                counts[r] = rows.get(r).count();
+                total += counts[r];
+            }
+            if (total == 0) {
+                return Optional.empty();
+            }
+            // an activation drawn from a row is kept only from the first row accepting it, so every
+            // activation is kept with the same probability; at most as many draws as rows are expected
+            while (true) {
+                int r = choose(counts, total, random);
+                Row row = rows.get(r);
+                int[] in = row.in.sample(random), out = row.out.sample(random);
+                if (covered(r, in, out)) {
+                    continue;
+                }
+                ActionBuffer action = new ActionBuffer();
+                for (Part part : parts(row, in, out)) {
+                    part.add(part.sample(random), action);
+                }
+                return Optional.of(action);
+            }
+        }
+
+        /**
+         * @return true if a row before the given one accepts the shape
+         */
+        private boolean covered(int r, int[] in, int[] out) {
+            long inBag = bag(in), outBag = bag(out);
+            int inSize = Arrays.stream(in).sum(), outSize = Arrays.stream(out).sum();
+            for (int q = 0; q < r; q++) {
+                if (rows.get(q).accepts(inBag, inSize, outBag, outSize, rows.get(r).pollution)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Iterator<ActionBuffer> spreads(Row row, int[] in, int[] out) {
+            return product(parts(row, in, out), 0, new ActionBuffer());
+        }
+
+        /**
+         * @return independent choices spreading the shape over the cards
+         */
+        private List<Part> parts(Row row, int[] in, int[] out) {
+            List<Part> parts = new ArrayList<>();
+            for (int k = 0; k < TYPES; k++) {
+                if (in[k] > 0) {
+                    parts.add(new SpreadPart(takes[k], in[k], cells, RESOURCES[k], true));
+                }
+            }
+            for (int k = 0; k < TYPES; k++) {
+                if (k != POLLUTION && out[k] > 0) {
+                    parts.add(new SpreadPart(puts, out[k], targets, RESOURCES[k], false));
+                }
+            }
+            parts.add(new PollutionPart(row.pollutionSpread, out[POLLUTION], targets));
+            return parts;
+        }
+    }
+
+    /**
+     * One row of an effect table with the ways the board can fill it.
+     */
+    private static final class Row {
+        private final int pollution, minIn, maxIn, minOut, maxOut;
+        private final long required, allowed;
+        private final PollutionSpread pollutionSpread;
+        private final Side in, out;
+
+        Row(CompiledEffect effect, int r, Board board, int takeable) {
+            pollution = effect.rowPollution(r);
+            minIn = effect.rowMinInput(r);
+            maxIn = effect.rowMaxInput(r);
+            minOut = effect.rowMinOutput(r);
+            maxOut = effect.rowMaxOutput(r);
+            required = effect.rowRequired(r);
+            allowed = effect.rowAllowed(r);
+
+            int[] inMin = new int[TYPES], inMax = new int[TYPES], outMax = new int[TYPES];
+            double[][] inWays = new double[TYPES][], outWays = new double[TYPES][];
+            for (int k = 0; k < TYPES; k++) {
+                inMin[k] = ResourceBag.count(required, RESOURCES[k]);
+                inMax[k] = board.takes[k].total;
+                inWays[k] = board.takes[k].ways();
+                outMax[k] = outputCap(effect, r, k);
+            }
+            pollutionSpread = new PollutionSpread(board.rooms, pollution, outMax[POLLUTION]);
+            for (int k = 0; k < TYPES; k++) {
+                outWays[k] = k == POLLUTION ? pollutionSpread.ways() : board.puts.ways();
+            }
+            in = new Side(inMin, inMax, inWays, minIn, Math.min(maxIn, takeable));
+            out = new Side(new int[TYPES], outMax, outWays, minOut, maxOutput(effect, r));
+        }
+
+        /**
+         * @return most of the resource the row allows in its output
+         */
+        static int outputCap(CompiledEffect effect, int r, int k) {
+            return Math.min(ResourceBag.count(effect.rowAllowed(r), RESOURCES[k]), effect.rowMaxOutput(r));
+        }
+
+        /**
+         * @return largest output the row allows
+         */
+        static int maxOutput(CompiledEffect effect, int r) {
+            int sum = 0;
+            for (int k = 0; k < TYPES; k++) {
+                sum += outputCap(effect, r, k);
+            }
+            return Math.min(sum, effect.rowMaxOutput(r));
+        }
+
+        /**
+         * The test {@link CompiledEffect#check(long, int, long, int, int)} makes for this row.
+         */
+        boolean accepts(long inBag, int inSize, long outBag, int outSize, int pollution) {
+            return this.pollution == pollution
+                    && inSize >= minIn && inSize <= maxIn && outSize >= minOut && outSize <= maxOut
+                    && ResourceBag.containsAll(inBag, required) && ResourceBag.containsAll(allowed, outBag);
+        }
+
+        double count() {
+            return in.count() * out.count();
+        }
+    }
+
+    /**
+     * Shapes of the input or the output of a row: how many of each resource, and in how many ways each
+     * number of a resource can be spread over the cards.
+     */
+    private static final class Side {
+        private final int[] min, max;
+        private final double[][] ways;
+        private final int lo, hi;
+
+        /**
+         * Ways to spread resources {@code k} and later over the cards with {@code s} of them in total, at k and s.
+         */
+        private final double[][] suffix;
+
+        Side(int[] min, int[] max, double[][] ways, int lo, int hi) {
+            this.min = min;
+            this.max = new int[TYPES];
+            this.ways = ways;
+            this.lo = lo;
+            int sum = 0;
+            for (int k = 0; k < TYPES; k++) {
+                this.max[k] = Math.min(max[k], ways[k].length - 1);
+                sum += this.max[k];
+            }
+            this.hi = Math.min(hi, sum);
+            suffix = new double[TYPES + 1][Math.max(this.hi, 0) + 1];
+            suffix[TYPES][0] = 1;
+            for (int k = TYPES - 1; k >= 0; k--) {
+                for (int s = 0; s <= this.hi; s++) {
+                    for (int t = min[k]; t <= Math.min(this.max[k], s); t++) {
+                        suffix[k][s] += ways[k][t] * suffix[k + 1][s - t];
+                    }
+                }
+            }
+        }
+
+        double count() {
+            return completions(0, 0);
+        }
+
+        /**
+         * @return ways to complete a shape whose resources before {@code k} hold {@code used} in total
+         */
+        private double completions(int k, int used) {
+            double sum = 0;
+            for (int s = Math.max(lo - used, 0); s <= hi - used; s++) {
+                sum += suffix[k][s];
+            }
+            return sum;
+        }
+
+        private double weight(int k, int used, int t) {
+            return ways[k][t] == 0 ? 0 : ways[k][t] * completions(k + 1, used + t);
+        }
+
+        Iterator<int[]> shapes() {
+            return shapes(0, new int[TYPES], 0);
+        }
+
+        private Iterator<int[]> shapes(int k, int[] shape, int used) {
+            if (k == TYPES) {
+                return List.of(shape.clone()).iterator();
+            }
+            return flatMap(filter(range(min[k], Math.min(max[k], hi - used) + 1), t -> weight(k, used, t) > 0), t -> {
+                shape[k] = t;
+                return shapes(k + 1, shape, used + t);
+            });
+        }
+
+        int[] sample(RandomGenerator random) {
+            int[] shape = new int[TYPES];
+            int used = 0;
+            for (int k = 0; k < TYPES; k++) {
+                int first = min[k];
+                double[] weights = new double[Math.max(Math.min(max[k], hi - used) - first + 1, 0)];
+                double total = 0;
+                for (int i = 0; i < weights.length; i++) {
+                    weights[i] = weight(k, used, first + i);
+                    total += weights[i];
+                }
+                shape[k] = first + choose(weights, total, random);
+                used += shape[k];
+            }
+            return shape;
+        }
+    }
+
+    /**
+     * Ways to spread a number of one resource over cards, each taking at most its cap.
+     */
+    private static final class Spread {
+        private final int[] caps;
+        private final int total;
+
+        /**
+         * Ways to spread {@code t} over the cards from {@code i} on, at i and t.
+         */
+        private final double[][] suffix;
+
+        Spread(int[] caps, int total) {
+            this.caps = caps;
+            this.total = total;
+            suffix = new double[caps.length + 1][total + 1];
+            suffix[caps.length][0] = 1;
+            for (int i = caps.length - 1; i >= 0; i--) {
+                for (int t = 0; t <= total; t++) {
+                    for (int x = 0; x <= Math.min(caps[i], t); x++) {
+                        suffix[i][t] += suffix[i + 1][t - x];
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return ways to spread each number up to the total
+         */
+        double[] ways() {
+            return suffix[0];
+        }
+
+        Iterator<int[]> spreads(int t) {
+            return multisets(caps, t);
+        }
+
+        int[] sample(int t, RandomGenerator random) {
+            int[] counts = new int[caps.length];
+            for (int i = 0; i < caps.length; i++) {
+                double[] weights = new double[Math.min(caps[i], t) + 1];
+                for (int x = 0; x < weights.length; x++) {
+                    weights[x] = suffix[i + 1][t - x];
+                }
+                counts[i] = choose(weights, suffix[i][t], random);
+                t -= counts[i];
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Ways to put pollution produced as output and the pollution of a row on the accepting cards together,
+     * each card getting at most as much as it has room for.
+     */
+    private static final class PollutionSpread {
+        private final int[] rooms;
+        private final int pollution;
+
+        /**
+         * Ways to put {@code u} output pollution and {@code v} row pollution on the cards from {@code i} on,
+         * at i, u and v.
+         */
+        private final double[][][] suffix;
+
+        PollutionSpread(int[] rooms, int pollution, int outputs) {
+            this.rooms = rooms;
+            this.pollution = pollution;
+            suffix = new double[rooms.length + 1][outputs + 1][pollution + 1];
+            suffix[rooms.length][0][0] = 1;
+            for (int i = rooms.length - 1; i >= 0; i--) {
+                for (int u = 0; u <= outputs; u++) {
+                    for (int v = 0; v <= pollution; v++) {
+                        for (int x = 0; x <= Math.min(rooms[i], u); x++) {
+                            for (int y = 0; y <= Math.min(rooms[i] - x, v); y++) {
+                                suffix[i][u][v] += suffix[i + 1][u - x][v - y];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return ways to put each number of output pollution together with the row pollution
+         */
+        double[] ways() {
+            double[] ways = new double[suffix[0].length];
+            for (int u = 0; u < ways.length; u++) {
+                ways[u] = suffix[0][u][pollution];
+            }
+            return ways;
+        }
+
+        /**
+         * @return output pollution per card followed by row pollution per card
+         */
+        Iterator<int[]> spreads(int u) {
+            return flatMap(multisets(rooms, pollution), v -> {
+                int[] left = new int[rooms.length];
+                for (int i = 0; i < left.length; i++) {
+                    left[i] = rooms[i] - v[i];
+                }
+                return map(multisets(left, u), w -> concat(w, v));
+            });
+        }
+
+        int[] sample(int u, RandomGenerator random) {
+            int[] counts = new int[2 * rooms.length];
+            int v = pollution;
+            for (int i = 0; i < rooms.length; i++) {
+                int width = Math.min(rooms[i], u) + 1;
+                double[] weights = new double[width * (Math.min(rooms[i], v) + 1)];
+                for (int x = 0; x < width; x++) {
+                    for (int y = 0; y <= Math.min(rooms[i] - x, v); y++) {
+                        weights[y * width + x] = suffix[i + 1][u - x][v - y];
+                    }
+                }
+                int chosen = choose(weights, suffix[i][u][v], random);
+                counts[i] = chosen % width;
+                counts[rooms.length + i] = chosen / width;
+                u -= counts[i];
+                v -= counts[rooms.length + i];
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * One independent choice of how part of a shape is spread over the cards.
+     */
+    private interface Part {
+        Iterator<int[]> spreads();
+
+        int[] sample(RandomGenerator random);
+
+        void add(int[] counts, ActionBuffer action);
+    }
+
+    private record SpreadPart(Spread spread, int count, GridPosition[] cards, Resource resource, boolean input)
+            implements Part {
+
+        @Override
+        public Iterator<int[]> spreads() {
+            return spread.spreads(count);
+        }
+
+        @Override
+        public int[] sample(RandomGenerator random) {
+            return spread.sample(count, random);
+        }
+
+        @Override
+        public void add(int[] counts, ActionBuffer action) {
+            for (int i = 0; i < counts.length; i++) {
+                int entry = ActionBuffer.encode(resource, cards[i]);
+                for (int n = 0; n < counts[i]; n++) {
+                    if (input) {
+                        action.addInput(entry);
+                    } else {
+                        action.addOutput(entry);
+                    }
+                }
+            }
+        }
+    }
+
+    private record PollutionPart(PollutionSpread spread, int outputs, GridPosition[] cards) implements Part {
+
+        @Override
+        public Iterator<int[]> spreads() {
+            return spread.spreads(outputs);
+        }
+
+        @Override
+        public int[] sample(RandomGenerator random) {
+            return spread.sample(outputs, random);
+        }
+
+        @Override
+        public void add(int[] counts, ActionBuffer action) {
+            for (int i = 0; i < cards.length; i++) {
+                int entry = ActionBuffer.encode(Resource.Pollution, cards[i]);
+                for (int n = 0; n < counts[i]; n++) {
+                    action.addOutput(entry);
+                }
+                for (int n = 0; n < counts[cards.length + i]; n++) {
+                    action.addPollution(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return every combination of the spreads of the parts from {@code k} on, added to copies of the prefix
+     */
+    private static Iterator<ActionBuffer> product(List<Part> parts, int k, ActionBuffer prefix) {
+        if (k == parts.size()) {
+            return List.of(prefix).iterator();
+        }
+        Part part = parts.get(k);
+        return flatMap(part.spreads(), spread -> {
+            ActionBuffer action = prefix.copy();
+            part.add(spread, action);
+            return product(parts, k + 1, action);
+        });
+    }
+
+    /**
+     * @return how many pollution tokens, up to {@code limit}, the card accepts at once, -1 if it accepts nothing
+     */
+    private static int pollutionRoom(Card card, int limit) {
+        if (!card.canPutResources(List.of())) {
+            return -1;
+        }
+        List<Resource> pollution = new ArrayList<>(limit);
+        int room = 0;
+        while (room < limit) {
+            pollution.add(Resource.Pollution);
+            if (!card.canPutResources(pollution)) {
+                break;
+            }
+            room++;
+        }
+        return room;
+    }
+
+    private static long bag(int[] shape) {
+        long bag = ResourceBag.EMPTY;
+        for (int k = 0; k < TYPES; k++) {
+            for (int n = 0; n < Math.min(shape[k], ResourceBag.LANE_MAX); n++) {
+                bag = ResourceBag.add(bag, RESOURCES[k]);
+            }
+        }
+        return bag;
+    }
+
+    private static int[] concat(int[] first, int[] second) {
+        int[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    /**
+     * @return index drawn with probability proportional to its weight
+     */
+    private static int choose(double[] weights, double total, RandomGenerator random) {
+        double target = random.nextDouble() * total;
+        int last = -1;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                last = i;
+                target -= weights[i];
+                if (target < 0) {
+                    return i;
+                }
+            }
+        }
+        // rounding left a little of the total over
+        return last;
+    }
+
+    private static Iterator<Integer> range(int from, int to) {
+        return Stream.iterate(from, i -> i < to, i -> i + 1).iterator();
+    }
+
+    /**
+     * Lazily enumerates every way to pick {@code size} items from slots with the given capacities.
+     * Each pick is a count per slot.
+     */
+    private static Iterator<int[]> multisets(int[] caps, int size) {
+        return new Iterator<>() {
+            private final int[] counts = new int[caps.length];
+            private boolean hasNext = first();
+
+            private boolean first() {
+                return fill(caps.length, size);
+            }
+
+            /**
+             * Packs {@code rest} items into the first {@code slots} slots, as far left as possible.
+             */
+            private boolean fill(int slots, int rest) {
+                for (int i = 0; i < slots; i++) {
+                    counts[i] = Math.min(caps[i], rest);
+                    rest -= counts[i];
+                }
+                return rest == 0;
+            }
+
+            /**
+             * Moves to the next pick: one item moves from the first slot that can pass it to the right,
+             * and the items left of it are packed back to the left.
+             */
+            private boolean advance() {
+                int before = 0;
+                for (int i = 0; i + 1 < counts.length; i++) {
+                    before += counts[i];
+                    if (counts[i] > 0 && counts[i + 1] < caps[i + 1]) {
+                        counts[i + 1]++;
+                        return fill(i + 1, before - 1);
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return hasNext;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext) {
+                    throw new NoSuchElementException();
+                }
+                int[] result = counts.clone();
+                hasNext = advance();
+                return result;
+            }
+        };
+    }
+
+    /*
+     * Pull based combinators. Stream.flatMap pushes a whole inner stream into a buffer as soon as one element
+     * is requested through an iterator, which would enumerate every activation of a row up front.
+     */
+
+    private static <T, R> Iterator<R> flatMap(Iterator<T> outer, Function<T, Iterator<R>> inner) {
+        return new Lookahead<>() {
+            private Iterator<R> current = Collections.emptyIterator();
+
+            @Override
+            R fetch() {
+                while (!current.hasNext()) {
+                    if (!outer.hasNext()) {
+                        return null;
+                    }
+                    current = inner.apply(outer.next());
+                }
+                return current.next();
+            }
+        };
+    }
+
+    private static <T> Iterator<T> filter(Iterator<T> source, Predicate<T> keep) {
+        return new Lookahead<>() {
+            @Override
+            T fetch() {
+                while (source.hasNext()) {
+                    T next = source.next();
+                    if (keep.test(next)) {
+                        return next;
+                    }
+                }
+                return null;
+            }
+        };
+    }
+
+    private static <T, R> Iterator<R> map(Iterator<T> source, Function<T, R> mapper) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public R next() {
+                return mapper.apply(source.next());
+            }
+        };
+    }
+
+    /**
+     * Iterator computing its next non-null element on demand.
+     */
+    private abstract static class Lookahead<T> implements Iterator<T> {
+        private T next;
+
+        /**
+         * @return next element, null when there are no more
+         */
+        abstract T fetch();
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = fetch();
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = next;
+            next = null;
+            return result;
+        }
+    }
+}
@@ -15,7 +15,20 @@ public class MoveCard {
      * @return true if the card was successfully moved, false otherwise
      */
     public boolean moveCard(Pile pile, GridPosition gridCoordinate, Grid grid) {
-        Optional<Card> optionalCard = pile.getCard(0);
+        return moveCard(pile, 0, gridCoordinate, grid);
+    }
+
+    /**
+     * Moves the card at the given index of a Pile to a Grid.
+     *
+     * @param pile The pile to take the card from
+     * @param index Index of the card in the pile
+     * @param gridCoordinate The coordinate on the grid to place the card
+     * @param grid The grid where the card will be placed
+     * @return true if the card was successfully moved, false otherwise
+     */
+    public boolean moveCard(Pile pile, int index, GridPosition gridCoordinate, Grid grid) {
+        Optional<Card> optionalCard = pile.getCard(index);
         if (optionalCard.isEmpty()) {
             return false;
         }
@@ -25,7 +38,7 @@ public class MoveCard {
         if (!grid.canPutCard(gridCoordinate)) {
             return false;
         }
-        pile.takeCard(0); // predpokladám, že takeCard odstrani kartu z pile
+        pile.takeCard(index); // predpokladám, že takeCard odstrani kartu z pile
 
         grid.putCard(gridCoordinate, card);
 
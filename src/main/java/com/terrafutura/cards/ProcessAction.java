@@ -10,10 +10,35 @@ import java.util.Optional;
 /**
  * Class for VALIDATING AND EXECUTING normal card activation without assistance
  * CHECKS if activation is possible and EXECUTES changes if valid
+ * Not thread-safe: activations reuse per-instance scratch buffers, so each game or thread needs its own instance
  */
 public class ProcessAction {
     private final ActionHelper helper = new ActionHelper();
 
+    /**
+     * Scratch buffer the list based entry point encodes into.
+     */
+    private final ActionBuffer scratch = new ActionBuffer();
+
+    /**
+     * Undo log of executed activations, null when journaling is off.
+     */
+    private final ActivationJournal journal;
+
+    public ProcessAction() {
+        this(null);
+    }
+
+    /**
+     * Creates an action processor that records every executed activation into the journal,
+     * so it can be reverted with {@link #undo()}.
+     *
+     * @param journal undo log to record into, null to disable journaling
+     */
+    public ProcessAction(ActivationJournal journal) {
+        this.journal = journal;
+    }
+
     /**
      * The main entry point for card activation - validates and executes the transaction
      *
@@ -29,25 +54,55 @@ public class ProcessAction {
                                 List<Pair<Resource, GridPosition>> outputs,
                                 List<GridPosition> pollution) {
 
+        if (helper.nullEntry(grid, card, inputs, outputs, pollution)) {
+            return false;
+        }
+        return activateCard(card, grid, scratch.set(inputs, outputs, pollution));
+    }
+
+    /**
+     * Card activation described by an encoded {@link ActionBuffer} - validates and executes the transaction
+     * without allocating per resource movement
+     *
+     * @param card The card being activated
+     * @param grid The game board containing all cards
+     * @param action Encoded inputs, outputs and pollution positions
+     * @return true if activation was successfully executed, false if validation failed
+     */
+    public boolean activateCard(Card card, Grid grid, ActionBuffer action) {
+
         // 1. VALIDATION PHASE
-        if (!validateActivation(card, grid, inputs, outputs, pollution)) {
+        if (!validateActivation(card, grid, action)) {
             return false;
         }
 
         // 2. EXECUTION PHASE - only if validation passed
-        executeTransaction(inputs, outputs, pollution, grid);
+        if (journal != null) {
+            journal.begin();
+        }
+        executeTransaction(action, grid);
         return true;
     }
 
+    /**
+     * Reverts the latest activation recorded in the journal.
+     *
+     * @return false if there is nothing to undo
+     * @throws IllegalStateException if journaling is off
+     */
+    public boolean undo() {
+        if (journal == null) {
+            throw new IllegalStateException("Journaling is not enabled");
+        }
+        return journal.undo();
+    }
+
     /**
      * PRIVATE VALIDATION METHOD - checks if activation is possible
      */
-    private boolean validateActivation(Card card, Grid grid,
-                                       List<Pair<Resource, GridPosition>> inputs,
-                                       List<Pair<Resource, GridPosition>> outputs,
-                                       List<GridPosition> pollution) {
+    private boolean validateActivation(Card card, Grid grid, ActionBuffer action) {
 
-        if (helper.nullEntry(grid, card, inputs, outputs, pollution)) {
+        if (grid == null || card == null || action == null) {
             return false;
         }
 
@@ -61,22 +116,16 @@ public class ProcessAction {
             return false;
         }
 
-        if (!helper.validateInputs(inputs, grid)) {
-            return false;
-        }
-
-        if (!helper.validateOutputs(outputs, grid)) {
-            return false;
-        }
-
-        if (!helper.validatePollution(pollution, grid)) {
+        // Inputs, outputs and pollution are checked together, each card once
+        if (!helper.validateAction(action, grid)) {
             return false;
         }
 
         // Validate the transaction against card's effect rules
         // Try upper effect first, then lower effect if upper fails
-        if (!helper.validTransaction(card, inputs, outputs, pollution, true)) { //try upper
-            if (!helper.validTransaction(card, inputs, outputs, pollution, false)){ // try lower
+        // Both read the same resource views of the buffer, nothing is extracted
+        if (!helper.validTransaction(card, action, true)) { //try upper
+            if (!helper.validTransaction(card, action, false)){ // try lower
                 return false; // Both effects rejected the transaction
             }
         }
@@ -87,27 +136,41 @@ public class ProcessAction {
     /**
      * PRIVATE EXECUTION METHOD - performs the actual transaction
      */
-    private void executeTransaction(List<Pair<Resource, GridPosition>> inputs,
-                                    List<Pair<Resource, GridPosition>> outputs,
-                                    List<GridPosition> pollution,
-                                    Grid grid) {
+    private void executeTransaction(ActionBuffer action, Grid grid) {
 
         // Remove input resources from source cards
-        for (Pair<Resource, GridPosition> input : inputs) {
-            Optional<Card> cardOpt = grid.getCard(input.getSecond());
-            cardOpt.ifPresent(sourceCard -> sourceCard.removeResource(input.getFirst()));
+        for (int i = 0; i < action.inputCount(); i++) {
+            int input = action.input(i);
+            Optional<Card> cardOpt = grid.getCard(ActionBuffer.position(input));
+            cardOpt.ifPresent(sourceCard -> {
+                record(sourceCard);
+                sourceCard.removeResource(ActionBuffer.resource(input));
+            });
         }
 
         // Add output resources to target cards
-        for (Pair<Resource, GridPosition> output : outputs) {
-            Optional<Card> cardOpt = grid.getCard(output.getSecond());
-            cardOpt.ifPresent(targetCard -> targetCard.putResources(List.of(output.getFirst())));
+        for (int i = 0; i < action.outputCount(); i++) {
+            int output = action.output(i);
+            Optional<Card> cardOpt = grid.getCard(ActionBuffer.position(output));
+            cardOpt.ifPresent(targetCard -> {
+                record(targetCard);
+                targetCard.putResources(ActionHelper.single(ActionBuffer.resource(output)));
+            });
         }
 
         // Add pollution tokens
-        for (GridPosition pollutionPos : pollution) {
-            Optional<Card> cardOpt = grid.getCard(pollutionPos);
-            cardOpt.ifPresent(targetCard -> targetCard.putResources(List.of(Resource.Pollution)));
+        for (int i = 0; i < action.pollutionCount(); i++) {
+            Optional<Card> cardOpt = grid.getCard(ActionBuffer.position(action.pollution(i)));
+            cardOpt.ifPresent(targetCard -> {
+                record(targetCard);
+                targetCard.putResources(ActionHelper.single(Resource.Pollution));
+            });
+        }
+    }
+
+    private void record(Card card) {
+        if (journal != null) {
+            journal.record(card);
         }
     }
-}
\ No newline at end of file
+}
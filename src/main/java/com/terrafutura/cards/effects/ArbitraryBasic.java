@@ -2,43 +2,66 @@ package main.java.com.terrafutura.cards.effects;
 
 import main.java.com.terrafutura.cards.Effect;
 import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.resources.ResourceBag;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 
 public class ArbitraryBasic implements Effect {
     private final int from, pollution;
     private final List<Resource> to;
+    private final long toBag;
     private boolean hasAssistance = false;
 
     public ArbitraryBasic(List<Resource> resources, int pollution) {
         this.pollution = pollution; // testing
         from = 1;
-        to = new ArrayList<>(resources);
+        to = List.copyOf(resources);
+        toBag = ResourceBag.of(resources);
     }
 
     public ArbitraryBasic(int from, List<Resource> resources, int pollution) {
         this.from = from;
         this.pollution = pollution;
-        to = new ArrayList<>(resources);
+        to = List.copyOf(resources);
+        toBag = ResourceBag.of(resources);
     }
 
     public ArbitraryBasic(int from, List<Resource> resources,int pollution, boolean hasAssistance) {
         this.from = from;
         this.pollution = pollution;
-        to = new ArrayList<>(resources);
+        to = List.copyOf(resources);
+        toBag = ResourceBag.of(resources);
         this.hasAssistance = hasAssistance;
     }
 
+    /**
+     * Any input of at least the required size; output must be part of the offered resources,
+     * counted with multiplicity.
+     */
     @Override
     public boolean check(List<Resource> input, List<Resource> output, int pollution) {
         if (input.size() >= from && pollution == this.pollution) {
-            return new HashSet<>(to).containsAll(output);
+            return ResourceBag.containsAll(toBag, ResourceBag.of(output));
         }
         else return false;
     }
 
+    public int minInputSize() {
+        return from;
+    }
+
+    public List<Resource> to() {
+        return to;
+    }
+
+    long toBag() {
+        return toBag;
+    }
+
+    public int pollution() {
+        return pollution;
+    }
+
     @Override
     public boolean hasAssistance() {
         return hasAssistance;
@@ -34,6 +34,18 @@ public class ArbitraryInOut implements Effect {
         return desiredInput.size() == in && desiredOutput.size() == out && pollution == this.pollution;
     }
 
+    public int inputSize() {
+        return in;
+    }
+
+    public int outputSize() {
+        return out;
+    }
+
+    public int pollution() {
+        return pollution;
+    }
+
     @Override
     public String state() {
         return "[(any " + in + " resources) -> (any " +
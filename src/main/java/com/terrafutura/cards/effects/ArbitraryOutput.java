@@ -2,9 +2,8 @@ package main.java.com.terrafutura.cards.effects;
 
 import main.java.com.terrafutura.cards.Effect;
 import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.resources.ResourceBag;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -12,18 +11,21 @@ import java.util.List;
  */
 public class ArbitraryOutput implements Effect {
     private final List<Resource> from;
+    private final long fromBag;
     private final int to;
     private boolean hasAssistance = false;
     private final int pollution;
 
     public ArbitraryOutput(List<Resource> from, int to, int pollution) {
-        this.from = new ArrayList<>(from);
+        this.from = List.copyOf(from);
+        this.fromBag = ResourceBag.of(from);
         this.to = to;
         this.pollution = pollution;
     }
 
     public ArbitraryOutput(List<Resource> from, int to, boolean hasAssistance, int pollution) {
-        this.from = new ArrayList<>(from);
+        this.from = List.copyOf(from);
+        this.fromBag = ResourceBag.of(from);
         this.to = to;
         this.hasAssistance = hasAssistance;
         this.pollution = pollution;
@@ -31,19 +33,35 @@ public class ArbitraryOutput implements Effect {
 
     /**
      *
-     * @param input Input resources
+     * @param input Input resources, must contain the fixed input (counted with multiplicity)
      * @param desiredOutput caller specifies which resources they need
      * @param pollution if card is polluted, pollution is non-zero
      * @return If the right input and correct output size is provided, return true.
      */
     @Override
     public boolean check(List<Resource> input, List<Resource> desiredOutput, int pollution) {
-        if (new HashSet<>(input).containsAll(from) && pollution == this.pollution) {
+        if (pollution == this.pollution && ResourceBag.containsAll(ResourceBag.of(input), fromBag)) {
             return desiredOutput.size() == to;
         }
         return false;
     }
 
+    public List<Resource> from() {
+        return from;
+    }
+
+    long fromBag() {
+        return fromBag;
+    }
+
+    public int outputSize() {
+        return to;
+    }
+
+    public int pollution() {
+        return pollution;
+    }
+
     @Override
     public boolean hasAssistance() {
         return hasAssistance;
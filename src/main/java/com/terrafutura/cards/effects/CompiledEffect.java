@@ -0,0 +1,145 @@
+package main.java.com.terrafutura.cards.effects;
+
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.resources.ResourceBag;
+
+import java.util.List;
+
+/**
+ * Immutable, flattened form of an effect tree produced by {@link EffectCompiler}.
+ * Every leaf effect becomes one row of a decision table stored in parallel primitive arrays,
+ * sorted by pollution. A row accepts a transaction if:
+ * <ul>
+ *     <li>the pollution matches,</li>
+ *     <li>input and output sizes fall into the row's bounds,</li>
+ *     <li>input contains the row's required resources,</li>
+ *     <li>output is part of the row's allowed resources.</li>
+ * </ul>
+ * Effects the compiler does not know are kept as delegates and checked after the table.
+ */
+public final class CompiledEffect implements Effect {
+    private final int[] pollution;
+    private final int[] minIn, maxIn, minOut, maxOut;
+    private final long[] required, allowed;
+    private final Effect[] delegates;
+    private final boolean hasAssistance;
+    private final Effect source;
+
+    CompiledEffect(int[] pollution, int[] minIn, int[] maxIn, int[] minOut, int[] maxOut,
+                   long[] required, long[] allowed, Effect[] delegates, boolean hasAssistance, Effect source) {
+        this.pollution = pollution;
+        this.minIn = minIn;
+        this.maxIn = maxIn;
+        this.minOut = minOut;
+        this.maxOut = maxOut;
+        this.required = required;
+        this.allowed = allowed;
+        this.delegates = delegates;
+        this.hasAssistance = hasAssistance;
+        this.source = source;
+    }
+
+    @Override
+    public boolean check(List<Resource> input, List<Resource> output, int pollution) {
+        if (check(ResourceBag.of(input), input.size(), ResourceBag.of(output), output.size(), pollution)) {
+            return true;
+        }
+        for (Effect delegate : delegates) {
+            if (delegate.check(input, output, pollution)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Probes the decision table with already counted resources. Delegates are not consulted.
+     *
+     * @param inBag input resources as a {@link ResourceBag}
+     * @param inSize number of input resources
+     * @param outBag output resources as a {@link ResourceBag}
+     * @param outSize number of output resources
+     * @param pollution pollution produced by the transaction
+     * @return true if any row accepts the transaction
+     */
+    public boolean check(long inBag, int inSize, long outBag, int outSize, int pollution) {
+        for (int r = 0; r < this.pollution.length; r++) {
+            if (this.pollution[r] < pollution) continue;
+            if (this.pollution[r] > pollution) break;
+            if (inSize >= minIn[r] && inSize <= maxIn[r]
+                    && outSize >= minOut[r] && outSize <= maxOut[r]
+                    && ResourceBag.containsAll(inBag, required[r])
+                    && ResourceBag.containsAll(allowed[r], outBag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if some effects could not be compiled and are checked by delegation
+     */
+    public boolean hasDelegates() {
+        return delegates.length > 0;
+    }
+
+    /**
+     * @return number of rows in the decision table
+     */
+    public int rows() {
+        return pollution.length;
+    }
+
+    public int rowPollution(int r) {
+        return pollution[r];
+    }
+
+    public int rowMinInput(int r) {
+        return minIn[r];
+    }
+
+    public int rowMaxInput(int r) {
+        return maxIn[r];
+    }
+
+    public int rowMinOutput(int r) {
+        return minOut[r];
+    }
+
+    public int rowMaxOutput(int r) {
+        return maxOut[r];
+    }
+
+    /**
+     * @return {@link ResourceBag} of resources the input must contain
+     */
+    public long rowRequired(int r) {
+        return required[r];
+    }
+
+    /**
+     * @return {@link ResourceBag} the output must be part of, {@link ResourceBag#ANY} if unrestricted
+     */
+    public long rowAllowed(int r) {
+        return allowed[r];
+    }
+
+    void copyRow(int r, EffectCompiler.Table table) {
+        table.addRow(pollution[r], minIn[r], maxIn[r], minOut[r], maxOut[r], required[r], allowed[r]);
+    }
+
+    Effect[] delegates() {
+        return delegates;
+    }
+
+    @Override
+    public boolean hasAssistance() {
+        return hasAssistance;
+    }
+
+    @Override
+    public String state() {
+        return source.state();
+    }
+}
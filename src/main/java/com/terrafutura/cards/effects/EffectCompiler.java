@@ -0,0 +1,90 @@
+package main.java.com.terrafutura.cards.effects;
+
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.resources.ResourceBag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flattens an effect tree into a single {@link CompiledEffect}.
+ * {@link EffectOr} nodes are expanded into their children, every known leaf effect becomes one table row
+ * and unknown effects are kept as delegates. The tree is read once, so effects must not change afterwards.
+ */
+public final class EffectCompiler {
+
+    private EffectCompiler() {}
+
+    /**
+     * @param effect effect tree to compile
+     * @return immutable matcher accepting exactly the transactions the tree accepts
+     */
+    public static CompiledEffect compile(Effect effect) {
+        if (effect instanceof CompiledEffect compiled) {
+            return compiled;
+        }
+        Table table = new Table();
+        add(effect, table);
+        return table.build(effect);
+    }
+
+    private static void add(Effect effect, Table table) {
+        table.hasAssistance |= effect.hasAssistance();
+        if (effect instanceof EffectOr or) {
+            for (Effect child : or.getChildren()) {
+                add(child, table);
+            }
+        } else if (effect instanceof TransformationFixed e) {
+            table.addRow(e.pollution(), 0, Integer.MAX_VALUE, 0, Integer.MAX_VALUE, e.fromBag(), e.toBag());
+        } else if (effect instanceof ArbitraryOutput e) {
+            table.addRow(e.pollution(), 0, Integer.MAX_VALUE, e.outputSize(), e.outputSize(),
+                    e.fromBag(), ResourceBag.ANY);
+        } else if (effect instanceof ArbitraryInOut e) {
+            table.addRow(e.pollution(), e.inputSize(), e.inputSize(), e.outputSize(), e.outputSize(),
+                    ResourceBag.EMPTY, ResourceBag.ANY);
+        } else if (effect instanceof ArbitraryBasic e) {
+            table.addRow(e.pollution(), e.minInputSize(), Integer.MAX_VALUE, 0, Integer.MAX_VALUE,
+                    ResourceBag.EMPTY, e.toBag());
+        } else if (effect instanceof CompiledEffect compiled) {
+            for (int r = 0; r < compiled.rows(); r++) {
+                compiled.copyRow(r, table);
+            }
+            table.delegates.addAll(List.of(compiled.delegates()));
+        } else {
+            table.delegates.add(effect);
+        }
+    }
+
+    /**
+     * Row storage used while compiling.
+     */
+    static final class Table {
+        private final List<long[]> rows = new ArrayList<>();
+        private final List<Effect> delegates = new ArrayList<>();
+        private boolean hasAssistance;
+
+        void addRow(int pollution, int minIn, int maxIn, int minOut, int maxOut, long required, long allowed) {
+            rows.add(new long[]{pollution, minIn, maxIn, minOut, maxOut, required, allowed});
+        }
+
+        private CompiledEffect build(Effect source) {
+            long[][] sorted = rows.toArray(new long[0][]);
+            Arrays.sort(sorted, (a, b) -> Long.compare(a[0], b[0]));
+            int n = sorted.length;
+            int[] pollution = new int[n], minIn = new int[n], maxIn = new int[n], minOut = new int[n], maxOut = new int[n];
+            long[] required = new long[n], allowed = new long[n];
+            for (int r = 0; r < n; r++) {
+                pollution[r] = (int) sorted[r][0];
+                minIn[r] = (int) sorted[r][1];
+                maxIn[r] = (int) sorted[r][2];
+                minOut[r] = (int) sorted[r][3];
+                maxOut[r] = (int) sorted[r][4];
+                required[r] = sorted[r][5];
+                allowed[r] = sorted[r][6];
+            }
+            return new CompiledEffect(pollution, minIn, maxIn, minOut, maxOut, required, allowed,
+                    delegates.toArray(new Effect[0]), hasAssistance, source);
+        }
+    }
+}
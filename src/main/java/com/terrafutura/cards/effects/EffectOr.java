@@ -3,15 +3,21 @@ package main.java.com.terrafutura.cards.effects;
 import main.java.com.terrafutura.cards.Effect;
 import main.java.com.terrafutura.resources.Resource;
 
-import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Accepts what any of its children accepts. Immutable, like every effect, so it can be shared by all cards
+ * of a {@link main.java.com.terrafutura.cards.CardCatalog}.
+ */
 public class EffectOr implements Effect {
     private final List<Effect> children;
 
     public EffectOr(Effect ...children) {
-        this.children = new ArrayList<>();
-        this.children.addAll(List.of(children));
+        this.children = List.of(children);
+    }
+
+    public EffectOr(List<? extends Effect> children) {
+        this.children = List.copyOf(children);
     }
 
     @Override
@@ -32,16 +38,8 @@ public class EffectOr implements Effect {
         return false;
     }
 
-    public void addChild(Effect e) {
-        children.add(e);
-    }
-
-    public void addChild(Effect ... es) {
-        children.addAll(List.of(es));
-    }
-
     public List<Effect> getChildren() {
-        return List.copyOf(children);
+        return children;
     }
 
     @Override
@@ -2,38 +2,67 @@ package main.java.com.terrafutura.cards.effects;
 
 import main.java.com.terrafutura.cards.Effect;
 import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.resources.ResourceBag;
 
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 
 public class TransformationFixed implements Effect {
     private final List<Resource> from;
     private final List<Resource> to;
+    private final long fromBag;
+    private final long toBag;
     private boolean hasAssistance = false;
     private final int pollution;
 
     public TransformationFixed(List<Resource> from, List<Resource> to, int pollution) {
-        this.from = new ArrayList<>(from);
-        this.to = new ArrayList<>(to);
+        this.from = List.copyOf(from);
+        this.to = List.copyOf(to);
+        this.fromBag = ResourceBag.of(from);
+        this.toBag = ResourceBag.of(to);
         this.pollution = pollution;
     }
 
     public TransformationFixed(List<Resource> from, List<Resource> to, int pollution, boolean hasAssistance, int pollution1) {
-        this.from = new ArrayList<>(from);
-        this.to = new ArrayList<>(to);
+        this.from = List.copyOf(from);
+        this.to = List.copyOf(to);
+        this.fromBag = ResourceBag.of(from);
+        this.toBag = ResourceBag.of(to);
         this.hasAssistance = hasAssistance;
         this.pollution = pollution1;
     }
 
+    /**
+     * Input must contain the fixed input resources and output must be part of the fixed output,
+     * both counted with multiplicity.
+     */
     @Override
     public boolean check(List<Resource> input, List<Resource> output, int pollution) {
-        if (new HashSet<>(input).containsAll(from) && pollution == this.pollution) {
-            return new HashSet<>(to).containsAll(output);
+        if (pollution == this.pollution && ResourceBag.containsAll(ResourceBag.of(input), fromBag)) {
+            return ResourceBag.containsAll(toBag, ResourceBag.of(output));
         }
         return false;
     }
 
+    public List<Resource> from() {
+        return from;
+    }
+
+    public List<Resource> to() {
+        return to;
+    }
+
+    long fromBag() {
+        return fromBag;
+    }
+
+    long toBag() {
+        return toBag;
+    }
+
+    public int pollution() {
+        return pollution;
+    }
+
     @Override
     public boolean hasAssistance() {
         return hasAssistance;
@@ -0,0 +1,74 @@
+package main.java.com.terrafutura.codec;
+
+import main.java.com.terrafutura.cards.CardDefinition;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Numbers the card definitions a snapshot may refer to, so cards are written with definition ids instead of their
+ * effects and pollution capacity; cards of other definitions are written with the whole definition.
+ * Definitions are matched by identity. The side decoding a snapshot must use a
+ * table with the same definitions in the same order, e.g. built from
+ * {@link main.java.com.terrafutura.cards.CardCatalog#definitions()} of the same card file.
+ */
+public final class DefinitionTable {
+    private final List<CardDefinition> definitions = new ArrayList<>();
+    private final Map<CardDefinition, Integer> ids = new IdentityHashMap<>();
+
+    public DefinitionTable() {
+    }
+
+    /**
+     * @param definitions definitions numbered from 0 in list order
+     */
+    public DefinitionTable(List<CardDefinition> definitions) {
+        definitions.forEach(this::register);
+    }
+
+    /**
+     * Adds the definition unless it is already in the table.
+     *
+     * @return id of the definition
+     */
+    public int register(CardDefinition definition) {
+        Integer id = ids.get(definition);
+        if (id != null) {
+            return id;
+        }
+        ids.put(definition, definitions.size());
+        definitions.add(definition);
+        return definitions.size() - 1;
+    }
+
+    public boolean contains(CardDefinition definition) {
+        return ids.containsKey(definition);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the definition is not in the table
+     */
+    public int idOf(CardDefinition definition) {
+        Integer id = ids.get(definition);
+        if (id == null) {
+            throw new IllegalArgumentException("Card definition is not in the table: " + definition);
+        }
+        return id;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there is no definition with the id
+     */
+    public CardDefinition definition(int id) {
+        if (id < 0 || id >= definitions.size()) {
+            throw new IllegalArgumentException("Unknown card definition id " + id);
+        }
+        return definitions.get(id);
+    }
+
+    public int size() {
+        return definitions.size();
+    }
+}
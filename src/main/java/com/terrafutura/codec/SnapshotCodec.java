@@ -0,0 +1,558 @@
+package main.java.com.terrafutura.codec;
+
+import main.java.com.terrafutura.board.ActivationPattern;
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.board.InterfaceActivateGrid;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.CardDefinition;
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.cards.effects.ArbitraryBasic;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.cards.effects.ArbitraryOutput;
+import main.java.com.terrafutura.cards.effects.EffectOr;
+import main.java.com.terrafutura.cards.effects.TransformationFixed;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.GameState;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.scoring.Points;
+import main.java.com.terrafutura.scoring.ScoringMethod;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compact binary snapshots of the game objects, written straight into a {@link ByteBuffer}.
+ * A snapshot starts with a header holding a magic number and the format version, followed by the objects.
+ * Small numbers are written as variable length integers, so a player with a full grid takes about two hundred
+ * bytes. Cards are written as ids of their definitions in a {@link DefinitionTable}, which the decoding side must
+ * share, followed by their resources; decoded cards share the definitions and their compiled effects. Cards whose
+ * definition is not in the table, e.g. cards built with the {@link Card} constructors taking effects, are written
+ * with their whole definition instead; each of them decodes to a new definition of equal name, pollution capacity
+ * and effects.
+ * <p>
+ * Writers throw {@link BufferOverflowException} if the buffer is too small; readers throw
+ * {@link IllegalArgumentException} or {@link java.nio.BufferUnderflowException} on malformed input.
+ */
+public final class SnapshotCodec {
+
+    /**
+     * First bytes of every snapshot, "TF".
+     */
+    public static final short MAGIC = 0x5446;
+
+    /**
+     * Format version written by this codec. Version 1 wrote only the visible cards of a pile, versions 1 and 2
+     * did not write the pollution capacity of cards, version 3 wrote effect ids instead of definition ids and
+     * version 4 could not write definitions missing from the table, so older snapshots are not read.
+     */
+    public static final int VERSION = 5;
+
+    private static final Resource[] RESOURCES = Resource.values();
+    private static final GameState[] STATES = GameState.values();
+    private static final int OFFSET = 2;
+    private static final int SIDE = 2 * OFFSET + 1;
+    private static final int SLOTS = SIDE * SIDE;
+    private static final int CENTER = OFFSET * SIDE + OFFSET;
+
+    /**
+     * Cards of one part of a pile read at most; real decks hold far fewer.
+     */
+    private static final int MAX_PILE = 1 << 16;
+
+    /**
+     * Levels of nested {@link EffectOr}s read at most; real cards nest at most once.
+     */
+    private static final int MAX_EFFECT_DEPTH = 8;
+
+    private static final int NO_EFFECT = 0, TRANSFORMATION = 1, ARBITRARY_BASIC = 2, ARBITRARY_IN_OUT = 3,
+            ARBITRARY_OUTPUT = 4, OR = 5;
+
+    private final DefinitionTable definitions;
+
+    public SnapshotCodec(DefinitionTable definitions) {
+        this.definitions = definitions;
+    }
+
+    public void writeHeader(ByteBuffer out) {
+        out.putShort(MAGIC);
+        out.put((byte) VERSION);
+    }
+
+    /**
+     * @return format version of the snapshot
+     * @throws IllegalArgumentException if the buffer does not hold a snapshot of a supported version
+     */
+    public int readHeader(ByteBuffer in) {
+        if (in.getShort() != MAGIC) {
+            throw new IllegalArgumentException("Not a snapshot");
+        }
+        int version = in.get() & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported snapshot version " + version);
+        }
+        return version;
+    }
+
+    /**
+     * Writes a header followed by the player.
+     */
+    public void encode(ByteBuffer out, Player player) {
+        writeHeader(out);
+        writePlayer(out, player);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #encode(ByteBuffer, Player)}.
+     */
+    public Player decode(ByteBuffer in) {
+        readHeader(in);
+        return readPlayer(in);
+    }
+
+    /**
+     * @return snapshot of the player in an array of its exact size
+     */
+    public byte[] toBytes(Player player) {
+        for (int capacity = 512; ; capacity *= 2) {
+            ByteBuffer out = ByteBuffer.allocate(capacity);
+            try {
+                encode(out, player);
+                return Arrays.copyOf(out.array(), out.position());
+            } catch (BufferOverflowException e) {
+                // try again with a bigger buffer
+            }
+        }
+    }
+
+    /**
+     * Card: definition id plus one, or 0 followed by the definition if it is not in the table, resource counts,
+     * pollution spaces left and the blocked flag.
+     *
+     * @throws IllegalArgumentException if the definition is not in the table and has an effect of an unknown type
+     */
+    public void writeCard(ByteBuffer out, Card card) {
+        CardDefinition definition = card.getDefinition();
+        if (definitions.contains(definition)) {
+            putVarInt(out, definitions.idOf(definition) + 1);
+        } else {
+            putVarInt(out, 0);
+            writeDefinition(out, definition);
+        }
+        int[] state = new int[Card.STATE_SIZE];
+        card.saveState(state, 0);
+        for (int r = 0; r < RESOURCES.length; r++) {
+            putVarInt(out, state[r]);
+        }
+        putVarInt(out, zigzag(state[RESOURCES.length]));
+        out.put((byte) state[RESOURCES.length + 1]);
+    }
+
+    public Card readCard(ByteBuffer in) {
+        int id = getVarInt(in);
+        CardDefinition definition = id == 0 ? readDefinition(in) : definitions.definition(id - 1);
+        int[] state = new int[Card.STATE_SIZE];
+        for (int r = 0; r < RESOURCES.length; r++) {
+            state[r] = getVarInt(in);
+        }
+        state[RESOURCES.length] = unzigzag(getVarInt(in));
+        state[RESOURCES.length + 1] = in.get() != 0 ? 1 : 0;
+        Card card = definition.newCard();
+        card.restoreState(state, 0);
+        return card;
+    }
+
+    /**
+     * Grid: occupied, pending and activated slots, the cards in slot order and the activations left of pending slots.
+     * Only pending slots holding a card are written; the grid also marks empty slots pending when a card is placed
+     * in their row or column, which has no effect as placing a card there resets its activations.
+     */
+    public void writeGrid(ByteBuffer out, Grid grid) {
+        int[] state = new int[Grid.STATE_SIZE];
+        grid.saveState(state, 0);
+        int occupied = state[0], pending = state[1] & occupied;
+        out.putInt(occupied);
+        out.putInt(pending);
+        out.putInt(state[2]);
+        for (int rest = occupied; rest != 0; rest &= rest - 1) {
+            writeCard(out, grid.getCard(position(Integer.numberOfTrailingZeros(rest))).orElseThrow());
+        }
+        for (int rest = pending; rest != 0; rest &= rest - 1) {
+            putVarInt(out, state[3 + Integer.numberOfTrailingZeros(rest)]);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cards are not connected or do not fit into 3x3, or if pending or
+     *                                  activated slots hold no card
+     */
+    public Grid readGrid(ByteBuffer in) {
+        int[] state = new int[Grid.STATE_SIZE];
+        int occupied = in.getInt(), pending = in.getInt();
+        state[0] = occupied;
+        state[1] = pending;
+        state[2] = in.getInt();
+        if ((occupied & (1 << CENTER)) == 0 || (occupied >>> SLOTS) != 0) {
+            throw new IllegalArgumentException("Grid without a starting card");
+        }
+        if ((pending & ~occupied) != 0 || (state[2] & ~occupied) != 0) {
+            throw new IllegalArgumentException("Activations of empty grid slots");
+        }
+        Card[] cards = new Card[SLOTS];
+        for (int rest = occupied; rest != 0; rest &= rest - 1) {
+            cards[Integer.numberOfTrailingZeros(rest)] = readCard(in);
+        }
+        for (int rest = pending; rest != 0; rest &= rest - 1) {
+            state[3 + Integer.numberOfTrailingZeros(rest)] = getVarInt(in);
+        }
+
+        // every card touches one placed before it, so placing them outwards from the start is always legal
+        Grid grid = new Grid(cards[CENTER]);
+        int placed = 1 << CENTER;
+        while (placed != occupied) {
+            int next = touching(occupied & ~placed, placed);
+            if (next < 0) {
+                throw new IllegalArgumentException("Grid cards are not connected");
+            }
+            try {
+                grid.putCard(position(next), cards[next]);
+            } catch (IllegalStateException e) {
+                throw new IllegalArgumentException("Grid cards do not fit into 3x3", e);
+            }
+            placed |= 1 << next;
+        }
+        grid.restoreState(state, 0);
+        return grid;
+    }
+
+    /**
+     * Pattern: positions and the selected flag.
+     */
+    public void writePattern(ByteBuffer out, ActivationPattern pattern) {
+        List<SimpleEntry<Integer, Integer>> positions = pattern.getPattern();
+        putVarInt(out, positions.size());
+        for (SimpleEntry<Integer, Integer> position : positions) {
+            putVarInt(out, zigzag(position.getKey()));
+            putVarInt(out, zigzag(position.getValue()));
+        }
+        out.put((byte) (pattern.isSelected() ? 1 : 0));
+    }
+
+    /**
+     * @param grid grid the pattern activates
+     */
+    public ActivationPattern readPattern(ByteBuffer in, InterfaceActivateGrid grid) {
+        int size = getVarInt(in);
+        List<SimpleEntry<Integer, Integer>> positions = new ArrayList<>(Math.min(size, SLOTS));
+        for (int i = 0; i < size; i++) {
+            positions.add(new SimpleEntry<>(unzigzag(getVarInt(in)), unzigzag(getVarInt(in))));
+        }
+        return new ActivationPattern(grid, positions, in.get() != 0);
+    }
+
+    /**
+     * Scoring method: combination, points per combination and the calculated total.
+     */
+    public void writeScoring(ByteBuffer out, ScoringMethod method) {
+        writeResources(out, method.getResources());
+        putVarInt(out, zigzag(method.getPointsPerCombination().getValue()));
+        putVarInt(out, zigzag(method.getCalculatedTotal().getValue()));
+    }
+
+    public ScoringMethod readScoring(ByteBuffer in) {
+        List<Resource> resources = readResources(in);
+        Points points = new Points(unzigzag(getVarInt(in)));
+        return new ScoringMethod(resources, points, new Points(unzigzag(getVarInt(in))));
+    }
+
+    /**
+     * Pile: slots, the visible, face-down and discarded cards and the state of its generator.
+     */
+    public void writePile(ByteBuffer out, Pile pile) {
+        Pile.Contents contents = pile.contents();
+        putVarInt(out, contents.slots());
+        writeCards(out, contents.visible());
+        writeCards(out, contents.hidden());
+        writeCards(out, contents.discarded());
+        out.putLong(contents.random());
+    }
+
+    /**
+     * @return pile that deals the same as the written one
+     */
+    public Pile readPile(ByteBuffer in) {
+        int slots = getVarInt(in);
+        List<Card> visible = readCards(in);
+        List<Card> hidden = readCards(in);
+        List<Card> discarded = readCards(in);
+        return new Pile(new Pile.Contents(slots, visible, hidden, discarded, in.getLong()));
+    }
+
+    /**
+     * Game progress: state, index of the player on turn, turn number and the final activation flag.
+     */
+    public void writeProgress(ByteBuffer out, Game.Progress progress) {
+        out.put((byte) progress.state().ordinal());
+        putVarInt(out, progress.onTurn());
+        putVarInt(out, progress.turnNumber());
+        out.put((byte) (progress.finalActivation() ? 1 : 0));
+    }
+
+    public Game.Progress readProgress(ByteBuffer in) {
+        int state = in.get() & 0xFF;
+        if (state >= STATES.length) {
+            throw new IllegalArgumentException("Unknown game state " + state);
+        }
+        return new Game.Progress(STATES[state], getVarInt(in), getVarInt(in), in.get() != 0);
+    }
+
+    /**
+     * Player: id, both scoring methods, the grid and both activation patterns.
+     */
+    public void writePlayer(ByteBuffer out, Player player) {
+        putVarInt(out, zigzag(player.id));
+        writeScoring(out, player.s1);
+        writeScoring(out, player.s2);
+        writeGrid(out, player.g);
+        writePattern(out, player.a1);
+        writePattern(out, player.a2);
+    }
+
+    public Player readPlayer(ByteBuffer in) {
+        int id = unzigzag(getVarInt(in));
+        ScoringMethod s1 = readScoring(in);
+        ScoringMethod s2 = readScoring(in);
+        Grid grid = readGrid(in);
+        return new Player(id, s1, s2, readPattern(in, grid), readPattern(in, grid), grid);
+    }
+
+    /**
+     * Definition: name, pollution capacity and both effects.
+     */
+    private static void writeDefinition(ByteBuffer out, CardDefinition definition) {
+        byte[] name = definition.getName().getBytes(StandardCharsets.UTF_8);
+        putVarInt(out, name.length);
+        out.put(name);
+        putVarInt(out, definition.getPollutionSpaces());
+        writeEffect(out, definition.getEffect().orElse(null));
+        writeEffect(out, definition.getLowerEffect().orElse(null));
+    }
+
+    private static CardDefinition readDefinition(ByteBuffer in) {
+        int length = getVarInt(in);
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Card name longer than the snapshot");
+        }
+        byte[] name = new byte[length];
+        in.get(name);
+        int pollutionSpaces = getVarInt(in);
+        Optional<Effect> effect = Optional.ofNullable(readEffect(in, 0));
+        Optional<Effect> lowerEffect = Optional.ofNullable(readEffect(in, 0));
+        return new CardDefinition(new String(name, StandardCharsets.UTF_8), pollutionSpaces, effect, lowerEffect);
+    }
+
+    /**
+     * Effect: its type followed by its parameters, the pollution it makes and the assistance flag;
+     * an {@link EffectOr} is followed by its children instead.
+     *
+     * @param effect the effect, null for none
+     */
+    private static void writeEffect(ByteBuffer out, Effect effect) {
+        switch (effect) {
+            case null -> out.put((byte) NO_EFFECT);
+            case TransformationFixed e -> {
+                out.put((byte) TRANSFORMATION);
+                writeResources(out, e.from());
+                writeResources(out, e.to());
+                writeEffectTail(out, e.pollution(), e.hasAssistance());
+            }
+            case ArbitraryBasic e -> {
+                out.put((byte) ARBITRARY_BASIC);
+                putVarInt(out, e.minInputSize());
+                writeResources(out, e.to());
+                writeEffectTail(out, e.pollution(), e.hasAssistance());
+            }
+            case ArbitraryInOut e -> {
+                out.put((byte) ARBITRARY_IN_OUT);
+                putVarInt(out, e.inputSize());
+                putVarInt(out, e.outputSize());
+                writeEffectTail(out, e.pollution(), e.hasAssistance());
+            }
+            case ArbitraryOutput e -> {
+                out.put((byte) ARBITRARY_OUTPUT);
+                writeResources(out, e.from());
+                putVarInt(out, e.outputSize());
+                writeEffectTail(out, e.pollution(), e.hasAssistance());
+            }
+            case EffectOr e -> {
+                out.put((byte) OR);
+                putVarInt(out, e.getChildren().size());
+                for (Effect child : e.getChildren()) {
+                    writeEffect(out, child);
+                }
+            }
+            default -> throw new IllegalArgumentException("Cannot write effect " + effect.state());
+        }
+    }
+
+    private static void writeEffectTail(ByteBuffer out, int pollution, boolean assistance) {
+        putVarInt(out, zigzag(pollution));
+        out.put((byte) (assistance ? 1 : 0));
+    }
+
+    /**
+     * @return the effect, null for none
+     */
+    private static Effect readEffect(ByteBuffer in, int depth) {
+        int type = in.get() & 0xFF;
+        return switch (type) {
+            case NO_EFFECT -> null;
+            case TRANSFORMATION -> {
+                List<Resource> from = readResources(in);
+                List<Resource> to = readResources(in);
+                int pollution = unzigzag(getVarInt(in));
+                yield new TransformationFixed(from, to, pollution, in.get() != 0, pollution);
+            }
+            case ARBITRARY_BASIC -> {
+                int from = getVarInt(in);
+                List<Resource> to = readResources(in);
+                int pollution = unzigzag(getVarInt(in));
+                yield new ArbitraryBasic(from, to, pollution, in.get() != 0);
+            }
+            case ARBITRARY_IN_OUT -> {
+                int input = getVarInt(in), output = getVarInt(in);
+                int pollution = unzigzag(getVarInt(in));
+                yield new ArbitraryInOut(input, output, in.get() != 0, pollution);
+            }
+            case ARBITRARY_OUTPUT -> {
+                List<Resource> from = readResources(in);
+                int to = getVarInt(in);
+                int pollution = unzigzag(getVarInt(in));
+                yield new ArbitraryOutput(from, to, in.get() != 0, pollution);
+            }
+            case OR -> {
+                int size = getVarInt(in);
+                if (depth == MAX_EFFECT_DEPTH || size > in.remaining()) {
+                    throw new IllegalArgumentException("Malformed effect alternatives");
+                }
+                List<Effect> children = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    Effect child = readEffect(in, depth + 1);
+                    if (child == null) {
+                        throw new IllegalArgumentException("Missing effect alternative");
+                    }
+                    children.add(child);
+                }
+                yield new EffectOr(children);
+            }
+            default -> throw new IllegalArgumentException("Unknown effect type " + type);
+        };
+    }
+
+    private void writeCards(ByteBuffer out, List<Card> cards) {
+        putVarInt(out, cards.size());
+        for (Card card : cards) {
+            writeCard(out, card);
+        }
+    }
+
+    private List<Card> readCards(ByteBuffer in) {
+        int size = getVarInt(in);
+        if (size > MAX_PILE) {
+            throw new IllegalArgumentException("Too many cards in a pile: " + size);
+        }
+        List<Card> cards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            cards.add(readCard(in));
+        }
+        return cards;
+    }
+
+    private static void writeResources(ByteBuffer out, List<Resource> resources) {
+        putVarInt(out, resources.size());
+        for (Resource resource : resources) {
+            out.put((byte) resource.ordinal());
+        }
+    }
+
+    private static List<Resource> readResources(ByteBuffer in) {
+        int size = getVarInt(in);
+        if (size > in.remaining()) {
+            throw new IllegalArgumentException("Resource list longer than the snapshot");
+        }
+        List<Resource> resources = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int ordinal = in.get();
+            if (ordinal < 0 || ordinal >= RESOURCES.length) {
+                throw new IllegalArgumentException("Unknown resource " + ordinal);
+            }
+            resources.add(RESOURCES[ordinal]);
+        }
+        return resources;
+    }
+
+    /**
+     * @return lowest slot of the candidates touching a placed slot, also diagonally, -1 if there is none
+     */
+    private static int touching(int candidates, int placed) {
+        for (int rest = candidates; rest != 0; rest &= rest - 1) {
+            int slot = Integer.numberOfTrailingZeros(rest);
+            int x = slot / SIDE, y = slot % SIDE;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = x + dx, ny = y + dy;
+                    if (nx >= 0 && nx < SIDE && ny >= 0 && ny < SIDE && (placed & (1 << (nx * SIDE + ny))) != 0) {
+                        return slot;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static GridPosition position(int slot) {
+        return GridPosition.of(slot / SIDE - OFFSET, slot % SIDE - OFFSET);
+    }
+
+    /**
+     * Writes a non-negative int in 7-bit groups, low group first.
+     */
+    static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length integer");
+    }
+
+    /**
+     * Maps signed ints to non-negative ones so small negative numbers stay short.
+     */
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
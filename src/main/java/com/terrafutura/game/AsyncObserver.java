@@ -0,0 +1,240 @@
+package main.java.com.terrafutura.game;
+
+import main.java.com.terrafutura.api.TerraFuturaObserverInterface;
+
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Observer that hands states over to another observer on its own virtual thread,
+ * so the game thread never waits for a slow client.
+ * States wait in a bounded queue; what happens when it is full is decided by the {@link Backpressure} policy.
+ * <p>
+ * Coalescing and dropping lose messages, so with {@link GameObserver} in delta mode the client sees a gap
+ * in the versions and has to ask for a resync.
+ */
+public final class AsyncObserver implements TerraFuturaObserverInterface, AutoCloseable {
+
+    /**
+     * What to do with a new state when the queue is full.
+     */
+    public enum Backpressure {
+        /**
+         * Discard every queued state and keep only the new one; fits observers that only need the latest state.
+         */
+        COALESCE,
+        /**
+         * Discard the new state.
+         */
+        DROP,
+        /**
+         * Wait until the observer catches up; the caller is blocked meanwhile.
+         */
+        BLOCK
+    }
+
+    /**
+     * Counters of one observer at some moment. Latencies are measured from queueing a state until
+     * the wrapped observer returned.
+     */
+    public record Metrics(int queueDepth, int maxQueueDepth, long delivered, long dropped, long coalesced,
+                          long failed, long averageLatencyNanos, long maxLatencyNanos) {
+    }
+
+    private record Pending(String state, long queuedAt) {
+    }
+
+    private final TerraFuturaObserverInterface target;
+    private final int capacity;
+    private final Backpressure backpressure;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final ArrayDeque<Pending> queue;
+    private final Thread drainer;
+    private boolean closed;
+
+    /**
+     * Whether the drainer is currently inside the wrapped observer.
+     */
+    private boolean inFlight;
+
+    // metrics, guarded by lock
+    private int maxQueueDepth;
+    private long delivered, dropped, coalesced, failed;
+    private long totalLatencyNanos, maxLatencyNanos;
+
+    /**
+     * @param target observer to deliver to
+     * @param capacity maximum number of queued states, at least 1
+     * @param backpressure policy for a full queue
+     */
+    public AsyncObserver(TerraFuturaObserverInterface target, int capacity, Backpressure backpressure) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive: " + capacity);
+        }
+        this.target = target;
+        this.capacity = capacity;
+        this.backpressure = backpressure;
+        this.queue = new ArrayDeque<>(capacity);
+        this.drainer = Thread.ofVirtual().name("observer-drainer").start(this::drain);
+    }
+
+    /**
+     * Wraps every observer of the map, keeping the player ids.
+     */
+    public static Map<Integer, TerraFuturaObserverInterface> wrapAll(
+            Map<Integer, TerraFuturaObserverInterface> observers, int capacity, Backpressure backpressure) {
+        Map<Integer, TerraFuturaObserverInterface> wrapped = new LinkedHashMap<>();
+        for (Map.Entry<Integer, TerraFuturaObserverInterface> entry : observers.entrySet()) {
+            wrapped.put(entry.getKey(), new AsyncObserver(entry.getValue(), capacity, backpressure));
+        }
+        return wrapped;
+    }
+
+    /**
+     * Queues the state for delivery. Returns immediately unless the queue is full and the policy is
+     * {@link Backpressure#BLOCK}. States arriving after {@link #close()}, or while blocked when it is called,
+     * are counted as dropped, so a closed observer never fails the game.
+     */
+    @Override
+    public void notify(String gameState) {
+        lock.lock();
+        try {
+            if (closed) {
+                dropped++;
+                return;
+            }
+            if (queue.size() == capacity) {
+                switch (backpressure) {
+                    case COALESCE -> {
+                        coalesced += queue.size();
+                        queue.clear();
+                    }
+                    case DROP -> {
+                        dropped++;
+                        return;
+                    }
+                    case BLOCK -> {
+                        while (queue.size() == capacity && !closed) {
+                            notFull.awaitUninterruptibly();
+                        }
+                        if (closed) {
+                            dropped++;
+                            return;
+                        }
+                    }
+                }
+            }
+            queue.addLast(new Pending(gameState, System.nanoTime()));
+            maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Metrics metrics() {
+        lock.lock();
+        try {
+            long finished = delivered + failed;
+            return new Metrics(queue.size(), maxQueueDepth, delivered, dropped, coalesced, failed,
+                    finished == 0 ? 0 : totalLatencyNanos / finished, maxLatencyNanos);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting states and waits until the queued ones are delivered.
+     * If the calling thread is interrupted, it stops waiting with its interrupt flag set,
+     * and the queued states are still delivered in the background.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until every queued state was delivered.
+     *
+     * @return false if the timeout elapsed first
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lock();
+        try {
+            while (!queue.isEmpty() || inFlight) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                notFull.awaitNanos(left);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Pending next;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                next = queue.pollFirst();
+                inFlight = true;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            boolean ok = true;
+            try {
+                target.notify(next.state());
+            } catch (Throwable e) {
+                // errors too, or the drainer would die and the queue would fill up for good
+                ok = false;
+            }
+            long latency = System.nanoTime() - next.queuedAt();
+
+            lock.lock();
+            try {
+                inFlight = false;
+                if (ok) {
+                    delivered++;
+                } else {
+                    failed++;
+                }
+                totalLatencyNanos += latency;
+                maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package main.java.com.terrafutura.game;
+
+import main.java.com.terrafutura.api.TerraFuturaInterface;
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.MoveCard;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.ProcessActionAssistance;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import org.json.JSONObject;
+
+import java.util.*;
+
+/**
+ * One game of Terra Futura. Players take turns in the given order: each turn a player may discard the last card
+ * of a deck, takes one card onto their grid, activates cards and finishes the turn.
+ * After {@link #TURNS} turns every player selects an activation pattern for a final activation,
+ * and then a scoring method.
+ * The game is not thread safe; every command has to come from the same thread, or be otherwise serialized.
+ */
+public class Game implements TerraFuturaInterface {
+    /**
+     * Turns of every player, one card each until the 3x3 grid is full.
+     */
+    public static final int TURNS = 8;
+
+    private final List<Player> players;
+    private final Map<Deck, Pile> piles;
+    private final MoveCard moveCard;
+    private final ProcessAction processAction;
+    private final ProcessActionAssistance processActionAssistance;
+    private final GameObserver observer;
+
+    private GameState state = GameState.TakeCardNoCardDiscarded;
+    private int onTurn;
+    private int turnNumber = 1;
+
+    /**
+     * Whether the final activation after the last turn is running.
+     */
+    private boolean finalActivation;
+
+    /**
+     * Id of the assisting player who selects the pending reward, while the state is {@link GameState#SelectReward}.
+     */
+    private int rewardPlayerId;
+
+    /**
+     * Told about every accepted move, null if nobody listens.
+     */
+    private MoveListener moveListener;
+
+    /**
+     * Where a game is between moves, apart from the players and piles.
+     * A pending reward is not part of it, so a game waiting for {@link GameState#SelectReward} cannot be restored.
+     *
+     * @param onTurn index of the player on turn in the player order
+     */
+    public record Progress(GameState state, int onTurn, int turnNumber, boolean finalActivation) {
+    }
+
+    public Game(List<Player> players, Map<Deck, Pile> piles, MoveCard moveCard, ProcessAction processAction,
+                ProcessActionAssistance processActionAssistance, GameObserver observer) {
+        if (players.isEmpty()) {
+            throw new IllegalArgumentException("Game needs at least one player");
+        }
+        this.players = List.copyOf(players);
+        this.piles = new EnumMap<>(piles);
+        this.moveCard = moveCard;
+        this.processAction = processAction;
+        this.processActionAssistance = processActionAssistance;
+        this.observer = observer;
+    }
+
+    /**
+     * Sets who is told about every move the game accepts from now on. The listener is told last, after the move
+     * is fully applied and the observer notified, and also when notifying the observer threw, so it never misses
+     * a move the game made. A listener that throws, e.g. a closed or failing
+     * {@link main.java.com.terrafutura.journal.MoveJournal}, never leaves the game half changed: the move stays
+     * made and the exception reaches the caller, who must treat the listener as missing that move.
+     *
+     * @param moveListener the listener, null to stop telling
+     */
+    public void setMoveListener(MoveListener moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * @return id of the player whose move it is
+     */
+    public int getOnTurn() {
+        return players.get(onTurn).id;
+    }
+
+    public int getTurnNumber() {
+        return turnNumber;
+    }
+
+    /**
+     * @return true during the final activation after the last turn
+     */
+    public boolean isFinalActivation() {
+        return finalActivation;
+    }
+
+    public Progress getProgress() {
+        return new Progress(state, onTurn, turnNumber, finalActivation);
+    }
+
+    /**
+     * Continues the game from a saved progress, e.g. after its players were restored from a snapshot.
+     * Nobody is notified.
+     *
+     * @throws IllegalArgumentException if the progress does not fit the players or turns of this game,
+     *                                  or waits for a reward
+     */
+    public void restoreProgress(Progress progress) {
+        if (progress.onTurn() < 0 || progress.onTurn() >= players.size()
+                || progress.turnNumber() < 1 || progress.turnNumber() > TURNS
+                || progress.state() == GameState.SelectReward) {
+            throw new IllegalArgumentException("Progress does not fit the game: " + progress);
+        }
+        state = progress.state();
+        onTurn = progress.onTurn();
+        turnNumber = progress.turnNumber();
+        finalActivation = progress.finalActivation();
+    }
+
+    /**
+     * @return pile of the given deck, empty if the game has none
+     */
+    public Optional<Pile> getPile(Deck deck) {
+        return Optional.ofNullable(piles.get(deck));
+    }
+
+    @Override
+    public boolean takeCard(int playerId, CardSource source, GridPosition destination) {
+        if (!onTurn(playerId)
+                || (state != GameState.TakeCardNoCardDiscarded && state != GameState.TakeCardCardDiscarded)) {
+            return false;
+        }
+        Pile pile = piles.get(source.deck);
+        if (pile == null || !moveCard.moveCard(pile, source.index, destination, current().g)) {
+            return false;
+        }
+        state = GameState.ActivateCard;
+        accepted(new Move.TakeCard(playerId, source.deck, source.index, destination));
+        return true;
+    }
+
+    @Override
+    public boolean discardLastCardFromDeck(int playerId, Deck deck) {
+        Pile pile = piles.get(deck);
+        if (!onTurn(playerId) || state != GameState.TakeCardNoCardDiscarded || pile == null) {
+            return false;
+        }
+        pile.removeLastCard();
+        state = GameState.TakeCardCardDiscarded;
+        accepted(new Move.Discard(playerId, deck));
+        return true;
+    }
+
+    @Override
+    public void activateCard(int playerId, GridPosition card,
+                             List<Pair<Resource, GridPosition>> inputs,
+                             List<Pair<Resource, GridPosition>> outputs,
+                             List<GridPosition> pollution,
+                             Optional<Integer> otherPlayerId,
+                             Optional<GridPosition> otherCard) {
+        Grid grid = current().g;
+        if (!onTurn(playerId) || state != GameState.ActivateCard || !grid.canBeActivated(card)) {
+            return;
+        }
+        Card activated = grid.getCard(card).orElseThrow();
+        if (otherPlayerId.isPresent() && otherCard.isPresent()) {
+            Optional<Card> assisting = player(otherPlayerId.get()).flatMap(other -> other.g.getCard(otherCard.get()));
+            if (assisting.isEmpty() || !processActionAssistance.activateCard(activated, grid, otherPlayerId.get(),
+                    assisting.get(), inputs, outputs, pollution)) {
+                return;
+            }
+            state = GameState.SelectReward;
+            rewardPlayerId = otherPlayerId.get();
+            grid.setActivated(card);
+            accepted(new Move.AssistedActivate(playerId, card, ActionBuffer.of(inputs, outputs, pollution),
+                    otherPlayerId.get(), otherCard.get()));
+        } else if (processAction.activateCard(activated, grid, inputs, outputs, pollution)) {
+            grid.setActivated(card);
+            accepted(new Move.Activate(playerId, card, ActionBuffer.of(inputs, outputs, pollution)));
+        }
+    }
+
+    /**
+     * Activates a card without assistance, described by an encoded action.
+     *
+     * @return true if the activation was valid and executed
+     */
+    public boolean activateCard(int playerId, GridPosition card, ActionBuffer action) {
+        Grid grid = current().g;
+        if (!onTurn(playerId) || state != GameState.ActivateCard || !grid.canBeActivated(card)
+                || !processAction.activateCard(grid.getCard(card).orElseThrow(), grid, action)) {
+            return false;
+        }
+        grid.setActivated(card);
+        accepted(new Move.Activate(playerId, card, action.copy()));
+        return true;
+    }
+
+    @Override
+    public void selectReward(int playerId, Resource resource) {
+        if (state != GameState.SelectReward || playerId != rewardPlayerId
+                || !processActionAssistance.canSelectReward(resource)) {
+            return;
+        }
+        processActionAssistance.selectReward(resource);
+        state = GameState.ActivateCard;
+        accepted(new Move.SelectReward(playerId, resource));
+    }
+
+    @Override
+    public boolean turnFinished(int playerId) {
+        if (!onTurn(playerId) || state != GameState.ActivateCard) {
+            return false;
+        }
+        current().g.endTurn();
+        boolean lastPlayer = onTurn == players.size() - 1;
+        onTurn = (onTurn + 1) % players.size();
+        if (finalActivation) {
+            state = lastPlayer ? GameState.SelectScoringMethod : GameState.SelectActivationPattern;
+        } else if (lastPlayer && turnNumber == TURNS) {
+            finalActivation = true;
+            state = GameState.SelectActivationPattern;
+        } else {
+            if (lastPlayer) {
+                turnNumber++;
+            }
+            state = GameState.TakeCardNoCardDiscarded;
+        }
+        accepted(new Move.TurnFinished(playerId));
+        return true;
+    }
+
+    @Override
+    public boolean selectActivationPattern(int playerId, int card) {
+        if (!onTurn(playerId) || state != GameState.SelectActivationPattern || (card != 0 && card != 1)) {
+            return false;
+        }
+        Player player = current();
+        (card == 0 ? player.a1 : player.a2).select();
+        state = GameState.ActivateCard;
+        accepted(new Move.SelectPattern(playerId, card));
+        return true;
+    }
+
+    @Override
+    public boolean selectScoring(int playerId, int card) {
+        if (!onTurn(playerId) || state != GameState.SelectScoringMethod || (card != 0 && card != 1)) {
+            return false;
+        }
+        Player player = current();
+        (card == 0 ? player.s1 : player.s2).selectThisMethodAndCalculate(player.score.counts());
+        boolean lastPlayer = onTurn == players.size() - 1;
+        onTurn = (onTurn + 1) % players.size();
+        if (lastPlayer) {
+            state = GameState.Finish;
+        }
+        accepted(new Move.SelectScoring(playerId, card));
+        return true;
+    }
+
+    private boolean onTurn(int playerId) {
+        return state != GameState.Finish && current().id == playerId;
+    }
+
+    private Player current() {
+        return players.get(onTurn);
+    }
+
+    private Optional<Player> player(int playerId) {
+        for (Player player : players) {
+            if (player.id == playerId) {
+                return Optional.of(player);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Notifies the observers of a move just applied and tells the listener about it, even if an observer throws.
+     */
+    private void accepted(Move move) {
+        try {
+            notifyObservers();
+        } finally {
+            if (moveListener != null) {
+                moveListener.accepted(move);
+            }
+        }
+    }
+
+    private void notifyObservers() {
+        if (observer == null) {
+            return;
+        }
+        StringBuilder pileStates = new StringBuilder("{");
+        for (Map.Entry<Deck, Pile> pile : piles.entrySet()) {
+            if (pileStates.length() > 1) {
+                pileStates.append(',');
+            }
+            pileStates.append(JSONObject.quote(pile.getKey().name())).append(':')
+                    .append(JSONObject.quote(pile.getValue().state()));
+        }
+        pileStates.append('}');
+
+        Map<Integer, String> states = new HashMap<>();
+        for (Player player : players) {
+            states.put(player.id, "{\"gameState\":" + JSONObject.quote(state.name())
+                    + ",\"onTurn\":" + getOnTurn()
+                    + ",\"turn\":" + turnNumber
+                    + ",\"grid\":" + player.g.state()
+                    + ",\"piles\":" + pileStates + "}");
+        }
+        observer.notifyAll(states);
+    }
+}
@@ -0,0 +1,200 @@
+package main.java.com.terrafutura.game;
+
+import main.java.com.terrafutura.api.TerraFuturaInterface;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs many independent games in one JVM.
+ * Games are spread over a fixed number of shards by their id. Every shard is a single thread owning its games,
+ * so a game is only ever touched by one thread and needs no locking, while different games run in parallel.
+ * Commands are queued to the owning shard and their results are returned as futures;
+ * commands for one game are executed in the order they were sent.
+ */
+public class GameHost implements AutoCloseable {
+
+    private static final class Shard {
+        final ExecutorService executor;
+
+        /**
+         * Games of this shard, only accessed from its thread.
+         */
+        final Map<Long, TerraFuturaInterface> games = new HashMap<>();
+
+        Shard(int index) {
+            this.executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "game-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private final Shard[] shards;
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger gameCount = new AtomicInteger();
+
+    /**
+     * Creates a host with one shard per available processor.
+     */
+    public GameHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public GameHost(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive: " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return number of games currently hosted
+     */
+    public int gameCount() {
+        return gameCount.get();
+    }
+
+    /**
+     * Creates a game on its shard. The id is known immediately, so commands may be sent before the future completes;
+     * they run after the game is created.
+     *
+     * @param factory creates the game, called on the shard thread
+     * @return future completed with the id of the new game
+     */
+    public CompletableFuture<Long> createGame(Supplier<? extends TerraFuturaInterface> factory) {
+        long id = nextId.incrementAndGet();
+        Shard shard = shard(id);
+        return submit(shard, () -> {
+            shard.games.put(id, factory.get());
+            gameCount.incrementAndGet();
+            return id;
+        });
+    }
+
+    /**
+     * @return future completed with false if there was no such game
+     */
+    public CompletableFuture<Boolean> removeGame(long gameId) {
+        Shard shard = shard(gameId);
+        return submit(shard, () -> {
+            boolean removed = shard.games.remove(gameId) != null;
+            if (removed) {
+                gameCount.decrementAndGet();
+            }
+            return removed;
+        });
+    }
+
+    /**
+     * Runs a command on the thread owning the game.
+     *
+     * @return future with the result of the command, failed with {@link IllegalArgumentException} if there is
+     * no such game
+     */
+    public <T> CompletableFuture<T> execute(long gameId, Function<? super TerraFuturaInterface, T> command) {
+        Shard shard = shard(gameId);
+        return submit(shard, () -> {
+            TerraFuturaInterface game = shard.games.get(gameId);
+            if (game == null) {
+                throw new IllegalArgumentException("Unknown game " + gameId);
+            }
+            return command.apply(game);
+        });
+    }
+
+    public CompletableFuture<Boolean> takeCard(long gameId, int playerId, CardSource source, GridPosition destination) {
+        return execute(gameId, game -> game.takeCard(playerId, source, destination));
+    }
+
+    public CompletableFuture<Boolean> discardLastCardFromDeck(long gameId, int playerId, Deck deck) {
+        return execute(gameId, game -> game.discardLastCardFromDeck(playerId, deck));
+    }
+
+    public CompletableFuture<Void> activateCard(long gameId, int playerId, GridPosition card,
+                                                List<Pair<Resource, GridPosition>> inputs,
+                                                List<Pair<Resource, GridPosition>> outputs,
+                                                List<GridPosition> pollution,
+                                                Optional<Integer> otherPlayerId,
+                                                Optional<GridPosition> otherCard) {
+        return execute(gameId, game -> {
+            game.activateCard(playerId, card, inputs, outputs, pollution, otherPlayerId, otherCard);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> selectReward(long gameId, int playerId, Resource resource) {
+        return execute(gameId, game -> {
+            game.selectReward(playerId, resource);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Boolean> turnFinished(long gameId, int playerId) {
+        return execute(gameId, game -> game.turnFinished(playerId));
+    }
+
+    public CompletableFuture<Boolean> selectActivationPattern(long gameId, int playerId, int card) {
+        return execute(gameId, game -> game.selectActivationPattern(playerId, card));
+    }
+
+    public CompletableFuture<Boolean> selectScoring(long gameId, int playerId, int card) {
+        return execute(gameId, game -> game.selectScoring(playerId, card));
+    }
+
+    /**
+     * Stops accepting commands and waits until the queued ones are done.
+     * If the calling thread is interrupted, it stops waiting with its interrupt flag set,
+     * and the queued commands still run.
+     */
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.executor.shutdown();
+        }
+        try {
+            for (Shard shard : shards) {
+                shard.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Shard shard(long gameId) {
+        // ids are handed out consecutively, so this deals new games round robin
+        return shards[(int) Long.remainderUnsigned(gameId, shards.length)];
+    }
+
+    private static <T> CompletableFuture<T> submit(Shard shard, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, shard.executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Host is closed", e));
+        }
+    }
+}
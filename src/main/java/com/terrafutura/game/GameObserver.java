@@ -2,13 +2,49 @@ package main.java.com.terrafutura.game;
 
 import main.java.com.terrafutura.api.TerraFuturaObserverInterface;
 
+import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Sends every player its state after each change.
+ * By default each notification is the full state string. In delta mode the states go through a
+ * {@link StateDeltaEncoder} per player, so observers receive versioned keyframes and deltas instead,
+ * and unchanged states are not sent at all.
+ * Observers wrapped by {@link AsyncObserver#wrapAll} are notified without waiting for their clients.
+ */
 public class GameObserver {
     private final Map<Integer, TerraFuturaObserverInterface> observers;
 
+    /**
+     * Encoder of every player in delta mode, null in full mode.
+     */
+    private final Map<Integer, StateDeltaEncoder> encoders;
+    private final int keyframeInterval;
+    private final boolean autoAcknowledge;
+
     public GameObserver(Map<Integer, TerraFuturaObserverInterface> observers) {
         this.observers = observers;
+        this.encoders = null;
+        this.keyframeInterval = 0;
+        this.autoAcknowledge = true;
+    }
+
+    /**
+     * Creates an observer in delta mode.
+     *
+     * @param keyframeInterval how many versions may pass between two full states
+     * @param autoAcknowledge whether every notification counts as received; if not, deltas are based on
+     *                        the versions passed to {@link #acknowledge}
+     */
+    public GameObserver(Map<Integer, TerraFuturaObserverInterface> observers,
+                        int keyframeInterval, boolean autoAcknowledge) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive: " + keyframeInterval);
+        }
+        this.observers = observers;
+        this.encoders = new HashMap<>();
+        this.keyframeInterval = keyframeInterval;
+        this.autoAcknowledge = autoAcknowledge;
     }
 
     public void notifyAll(Map<Integer, String> newState) {
@@ -16,9 +52,45 @@ public class GameObserver {
             Integer playerId = entry.getKey();
             TerraFuturaObserverInterface observer = entry.getValue();
             String state = newState.get(playerId); // každý hráč dostane svoj stav
-            if (state != null) {
+            if (state == null) {
+                continue;
+            }
+            if (encoders == null) {
                 observer.notify(state);
+                continue;
             }
+            String message = encoder(playerId).encode(state);
+            if (message != null) {
+                observer.notify(message);
+            }
+        }
+    }
+
+    /**
+     * Records that the player's client has applied the given version. Only used in delta mode.
+     */
+    public void acknowledge(int playerId, long version) {
+        if (encoders != null) {
+            encoder(playerId).acknowledge(version);
+        }
+    }
+
+    /**
+     * Sends the player's latest state as a full keyframe, e.g. after the client reconnected.
+     * Does nothing in full mode or before the player's first notification.
+     */
+    public void resync(int playerId) {
+        TerraFuturaObserverInterface observer = observers.get(playerId);
+        if (encoders == null || observer == null) {
+            return;
+        }
+        String message = encoder(playerId).resync();
+        if (message != null) {
+            observer.notify(message);
         }
     }
+
+    private StateDeltaEncoder encoder(int playerId) {
+        return encoders.computeIfAbsent(playerId, id -> new StateDeltaEncoder(keyframeInterval, autoAcknowledge));
+    }
 }
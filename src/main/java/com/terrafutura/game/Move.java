@@ -0,0 +1,114 @@
+package main.java.com.terrafutura.game;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One accepted move of a player, as reported to a {@link MoveListener}. Applying the moves of a game
+ * to a game set up the same way plays it again.
+ */
+public sealed interface Move {
+
+    int playerId();
+
+    /**
+     * Makes the move in the game.
+     *
+     * @return true if the game accepted it
+     */
+    boolean applyTo(Game game);
+
+    record TakeCard(int playerId, Deck deck, int index, GridPosition destination) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            return game.takeCard(playerId, new CardSource(deck, index), destination);
+        }
+    }
+
+    record Discard(int playerId, Deck deck) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            return game.discardLastCardFromDeck(playerId, deck);
+        }
+    }
+
+    /**
+     * @param action owned by the move, never changed after it is created
+     */
+    record Activate(int playerId, GridPosition card, ActionBuffer action) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            return game.activateCard(playerId, card, action);
+        }
+    }
+
+    /**
+     * Activation assisted by a card of another player, which is followed by a {@link SelectReward}.
+     */
+    record AssistedActivate(int playerId, GridPosition card, ActionBuffer action,
+                            int otherPlayerId, GridPosition otherCard) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            List<Pair<Resource, GridPosition>> inputs = new ArrayList<>();
+            for (int i = 0; i < action.inputCount(); i++) {
+                inputs.add(new Pair<>(ActionBuffer.resource(action.input(i)), ActionBuffer.position(action.input(i))));
+            }
+            List<Pair<Resource, GridPosition>> outputs = new ArrayList<>();
+            for (int i = 0; i < action.outputCount(); i++) {
+                outputs.add(new Pair<>(ActionBuffer.resource(action.output(i)), ActionBuffer.position(action.output(i))));
+            }
+            List<GridPosition> pollution = new ArrayList<>();
+            for (int i = 0; i < action.pollutionCount(); i++) {
+                pollution.add(ActionBuffer.position(action.pollution(i)));
+            }
+            game.activateCard(playerId, card, inputs, outputs, pollution, Optional.of(otherPlayerId), Optional.of(otherCard));
+            return game.getState() == GameState.SelectReward;
+        }
+    }
+
+    record SelectReward(int playerId, Resource resource) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            if (game.getState() != GameState.SelectReward) {
+                return false;
+            }
+            game.selectReward(playerId, resource);
+            return game.getState() != GameState.SelectReward;
+        }
+    }
+
+    record TurnFinished(int playerId) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            return game.turnFinished(playerId);
+        }
+    }
+
+    /**
+     * @param pattern 0 for {@link Player#a1}, 1 for {@link Player#a2}
+     */
+    record SelectPattern(int playerId, int pattern) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            return game.selectActivationPattern(playerId, pattern);
+        }
+    }
+
+    /**
+     * @param scoring 0 for {@link Player#s1}, 1 for {@link Player#s2}
+     */
+    record SelectScoring(int playerId, int scoring) implements Move {
+        @Override
+        public boolean applyTo(Game game) {
+            return game.selectScoring(playerId, scoring);
+        }
+    }
+}
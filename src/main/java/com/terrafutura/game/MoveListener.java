@@ -0,0 +1,11 @@
+package main.java.com.terrafutura.game;
+
+/**
+ * Receives every move a {@link Game} accepted, in the order they were made, e.g. to persist the game.
+ * A move is passed on only after the game has fully applied it, so the listener cannot reject it; what it throws
+ * reaches the player who made the move, see {@link Game#setMoveListener}.
+ */
+@FunctionalInterface
+public interface MoveListener {
+    void accepted(Move move);
+}
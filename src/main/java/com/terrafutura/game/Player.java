@@ -2,14 +2,23 @@ package main.java.com.terrafutura.game;
 
 import main.java.com.terrafutura.board.ActivationPattern;
 import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.scoring.RunningScore;
 import main.java.com.terrafutura.scoring.ScoringMethod;
 
+import java.util.List;
+
 public class Player {
     public final int id;
     public final ScoringMethod s1, s2;
     public final ActivationPattern a1, a2;
     public final Grid g;
 
+    /**
+     * Score of the grid with {@link #s1} (index 0) and {@link #s2} (index 1), kept up to date as resources change;
+     * null if the player has no grid or is missing a scoring method.
+     */
+    public final RunningScore score;
+
     public Player(int id, ScoringMethod s1, ScoringMethod s2,
                   ActivationPattern a1, ActivationPattern a2, Grid g) {
         this.id = id;
@@ -18,5 +27,6 @@ public class Player {
         this.a1 = a1;
         this.a2 = a2;
         this.g = g;
+        this.score = g == null || s1 == null || s2 == null ? null : new RunningScore(g, List.of(s1, s2));
     }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+package main.java.com.terrafutura.game;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Turns the successive full states of one player into versioned notifications.
+ * Every message is a JSON object with a {@code version}, and is either a keyframe
+ * <pre>{"type":"full","version":7,"state":{...}}</pre>
+ * or a delta against an earlier version the client already has
+ * <pre>{"type":"delta","version":8,"base":7,"changes":[{"path":"/grid/cards/2","value":{...}},{"path":"/x","remove":true}]}</pre>
+ * Paths are JSON pointers into the state. Objects are compared field by field and arrays of the same
+ * length element by element; an array that changed its length is replaced as a whole.
+ * States that are not JSON objects are always sent as keyframes.
+ * <p>
+ * With automatic acknowledgement every sent message is assumed to arrive, so each delta is based on the previous
+ * version. Otherwise deltas are based on the last version passed to {@link #acknowledge}, and keyframes are sent
+ * until the client acknowledges one or whenever it falls more than {@code keyframeInterval} versions behind.
+ * In both modes a keyframe is sent every {@code keyframeInterval} versions, and {@link #resync} produces one
+ * on demand for clients that reconnect or lost track.
+ */
+public final class StateDeltaEncoder {
+    private final int keyframeInterval;
+    private final boolean autoAcknowledge;
+
+    private long version;
+    private long lastKeyframe;
+    private String latestState;
+    private JSONObject latest;
+
+    /**
+     * State the next delta is computed against, null if the next message has to be a keyframe.
+     */
+    private JSONObject base;
+    private long baseVersion;
+
+    /**
+     * States sent since the last acknowledgement, by version, at most {@code keyframeInterval} of them;
+     * only used without automatic acknowledgement.
+     */
+    private final NavigableMap<Long, JSONObject> unacknowledged = new TreeMap<>();
+
+    /**
+     * @param keyframeInterval how many versions may pass between two keyframes, at least 1
+     * @param autoAcknowledge whether every sent message counts as received
+     */
+    public StateDeltaEncoder(int keyframeInterval, boolean autoAcknowledge) {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive: " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.autoAcknowledge = autoAcknowledge;
+    }
+
+    /**
+     * @return version of the last produced message, 0 before the first one
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Produces the message bringing the client to the given state.
+     *
+     * @param state full state of the player
+     * @return message to send, or null if the state did not change
+     */
+    public String encode(String state) {
+        if (state.equals(latestState)) {
+            return null;
+        }
+        JSONObject next = parse(state);
+        JSONArray changes = null;
+        if (next != null && latest != null && latest.similar(next)) {
+            latestState = state;
+            return null;
+        }
+        boolean keyframe = next == null || base == null
+                || version + 1 - lastKeyframe >= keyframeInterval
+                || version + 1 - baseVersion > keyframeInterval;
+        if (!keyframe) {
+            changes = new JSONArray();
+            diff("", base, next, changes);
+        }
+        version++;
+        latestState = state;
+        latest = next;
+
+        String message = keyframe ? keyframe() : delta(changes);
+        remember(keyframe);
+        return message;
+    }
+
+    /**
+     * Records that the client has applied the given version; later deltas are based on it.
+     * Versions that were not sent, or are older than the current base, are ignored.
+     */
+    public void acknowledge(long acknowledged) {
+        if (autoAcknowledge) {
+            return;
+        }
+        JSONObject state = unacknowledged.get(acknowledged);
+        if (state == null) {
+            return;
+        }
+        base = state;
+        baseVersion = acknowledged;
+        unacknowledged.headMap(acknowledged, true).clear();
+    }
+
+    /**
+     * Without automatic acknowledgement the client is assumed to have only this keyframe, so keyframes are sent
+     * until it acknowledges this or a later version.
+     *
+     * @return keyframe of the latest state, or null if nothing was encoded yet
+     */
+    public String resync() {
+        if (latestState == null) {
+            return null;
+        }
+        if (!autoAcknowledge) {
+            base = null;
+            unacknowledged.clear();
+        }
+        String message = keyframe();
+        remember(true);
+        return message;
+    }
+
+    private void remember(boolean keyframe) {
+        if (keyframe) {
+            lastKeyframe = version;
+        }
+        if (autoAcknowledge) {
+            base = latest;
+            baseVersion = version;
+        } else {
+            if (latest != null) {
+                unacknowledged.put(version, latest);
+            }
+            // a client further behind gets keyframes anyway
+            unacknowledged.headMap(version - keyframeInterval, true).clear();
+        }
+    }
+
+    private String keyframe() {
+        JSONObject message = new JSONObject();
+        message.put("type", "full");
+        message.put("version", version);
+        message.put("state", latest != null ? latest : latestState);
+        return message.toString();
+    }
+
+    private String delta(JSONArray changes) {
+        JSONObject message = new JSONObject();
+        message.put("type", "delta");
+        message.put("version", version);
+        message.put("base", baseVersion);
+        message.put("changes", changes);
+        return message.toString();
+    }
+
+    private static JSONObject parse(String state) {
+        try {
+            return new JSONObject(state);
+        } catch (JSONException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Appends the changes turning {@code before} into {@code after} at the given path.
+     */
+    private static void diff(String path, Object before, Object after, JSONArray changes) {
+        if (before instanceof JSONObject from && after instanceof JSONObject to) {
+            for (Iterator<String> keys = from.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                if (!to.has(key)) {
+                    changes.put(new JSONObject().put("path", path + "/" + escape(key)).put("remove", true));
+                }
+            }
+            for (Iterator<String> keys = to.keys(); keys.hasNext(); ) {
+                String key = keys.next();
+                String child = path + "/" + escape(key);
+                if (from.has(key)) {
+                    diff(child, from.get(key), to.get(key), changes);
+                } else {
+                    changes.put(new JSONObject().put("path", child).put("value", to.get(key)));
+                }
+            }
+        } else if (before instanceof JSONArray from && after instanceof JSONArray to && from.length() == to.length()) {
+            for (int i = 0; i < to.length(); i++) {
+                diff(path + "/" + i, from.get(i), to.get(i), changes);
+            }
+        } else if (!same(before, after)) {
+            changes.put(new JSONObject().put("path", path).put("value", after));
+        }
+    }
+
+    private static boolean same(Object before, Object after) {
+        if (before instanceof JSONObject from) {
+            return from.similar(after);
+        }
+        if (before instanceof JSONArray from) {
+            return from.similar(after);
+        }
+        if (before instanceof Number from && after instanceof Number to) {
+            return from.toString().equals(to.toString());
+        }
+        return before.equals(after);
+    }
+
+    private static String escape(String key) {
+        return key.replace("~", "~0").replace("/", "~1");
+    }
+}
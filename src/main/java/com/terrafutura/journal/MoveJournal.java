@@ -0,0 +1,464 @@
+package main.java.com.terrafutura.journal;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.Move;
+import main.java.com.terrafutura.game.MoveListener;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the moves of many games, stored as fixed size records in memory-mapped segment files.
+ * Appending only copies the record into the mapping; the dirty part is forced to disk by a background thread
+ * every sync interval (group commit), so a crash loses at most the moves of the last interval.
+ * <p>
+ * Record layout, {@value #RECORD_SIZE} bytes, big endian:
+ * <pre>
+ *  0 long  sequence number, counting from 0 over all segments
+ *  8 long  game id
+ * 16 byte  move type
+ * 17 byte  inputs, 18 byte outputs, 19 byte pollution of an activation
+ * 20 int   player id
+ * 24 int   deck, pattern, scoring method, resource or other player id, depending on the type
+ * 28 int   index of the taken card
+ * 32 byte  x, 33 byte y of the destination or activated card
+ * 34 byte  x, 35 byte y of the assisting card
+ * 36       activation entries, one byte each, see {@link ActionBuffer#encode}
+ * 60 int   CRC32C of bytes 0 to 59
+ * </pre>
+ * On opening, the records are read up to the first one that is torn or out of sequence; everything after it,
+ * including later segments, is erased and appending continues there. A missing segment is an error.
+ */
+public final class MoveJournal implements AutoCloseable {
+
+    public static final int RECORD_SIZE = 64;
+
+    /**
+     * Most resource movements one activation record holds.
+     */
+    public static final int MAX_ENTRIES = 24;
+
+    private static final int TYPE = 16, PLAYER = 20, VALUE = 24, INDEX = 28, POSITION = 32, OTHER = 34,
+            ENTRIES = 36, CHECKSUM = 60;
+
+    private static final int TAKE_CARD = 1, DISCARD = 2, ACTIVATE = 3, ASSISTED_ACTIVATE = 4, SELECT_REWARD = 5,
+            TURN_FINISHED = 6, SELECT_PATTERN = 7, SELECT_SCORING = 8;
+
+    private static final Deck[] DECKS = Deck.values();
+    private static final Resource[] RESOURCES = Resource.values();
+
+    /**
+     * A journaled move.
+     */
+    public record Entry(long sequence, long gameId, Move move) {
+    }
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final ScheduledExecutorService syncer;
+    private final byte[] scratch = new byte[RECORD_SIZE];
+    private final ByteBuffer record = ByteBuffer.wrap(scratch);
+    private final CRC32C crc = new CRC32C();
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    /**
+     * Records of the current segment written but not yet forced: [syncedRecords, writtenRecords).
+     */
+    private int syncedRecords, writtenRecords;
+    private boolean closed;
+
+    private MoveJournal(Path directory, int segmentRecords, Duration syncInterval) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        if (syncInterval.isZero()) {
+            this.syncer = null;
+        } else {
+            this.syncer = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long nanos = syncInterval.toNanos();
+            syncer.scheduleWithFixedDelay(this::syncQuietly, nanos, nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Opens the journal in the directory, creating it if needed, and positions it after the last intact record.
+     *
+     * @param segmentRecords records per segment file
+     * @param syncInterval   how often written records are forced to disk, zero to force every append
+     */
+    public static MoveJournal open(Path directory, int segmentRecords, Duration syncInterval) throws IOException {
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("Segments must hold at least one record");
+        }
+        Files.createDirectories(directory);
+        MoveJournal journal = new MoveJournal(directory, segmentRecords, syncInterval);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Reads every intact record of the journal in the directory, in order.
+     */
+    public static void replay(Path directory, Consumer<Entry> consumer) throws IOException {
+        long expected = 0;
+        for (Path file : segments(directory)) {
+            if (segmentStart(file) != expected) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int records = (int) (channel.size() / RECORD_SIZE);
+                for (int i = 0; i < records; i++, expected++) {
+                    if (!intact(buffer, i * RECORD_SIZE, expected)) {
+                        return;
+                    }
+                    consumer.accept(read(buffer, i * RECORD_SIZE));
+                }
+            }
+        }
+    }
+
+    /**
+     * Plays every journaled game again.
+     *
+     * @param newGame creates the game with the given id, set up exactly as when it was journaled
+     * @return the games by id, in the order of their first move
+     * @throws IllegalStateException if a game refuses one of its journaled moves
+     */
+    public static Map<Long, Game> rebuild(Path directory, LongFunction<Game> newGame) throws IOException {
+        Map<Long, Game> games = new LinkedHashMap<>();
+        replay(directory, entry -> {
+            Game game = games.computeIfAbsent(entry.gameId(), newGame::apply);
+            if (!entry.move().applyTo(game)) {
+                throw new IllegalStateException("Game " + entry.gameId() + " refused journaled move "
+                        + entry.sequence() + ": " + entry.move());
+            }
+        });
+        return games;
+    }
+
+    /**
+     * Reads the moves of every journaled game, e.g. to {@link Replay} them.
+     *
+     * @return moves by game id, in the order of the games' first moves
+     */
+    public static Map<Long, List<Move>> games(Path directory) throws IOException {
+        Map<Long, List<Move>> games = new LinkedHashMap<>();
+        replay(directory, entry -> games.computeIfAbsent(entry.gameId(), id -> new ArrayList<>()).add(entry.move()));
+        return games;
+    }
+
+    /**
+     * @return listener appending every move of the game to this journal
+     */
+    public MoveListener listener(long gameId) {
+        return move -> append(gameId, move);
+    }
+
+    /**
+     * Appends a move. It is durable after the next sync.
+     *
+     * @return sequence number of the record
+     * @throws IllegalArgumentException if the move does not fit into a record
+     * @throws IllegalStateException    if the journal is closed
+     */
+    public synchronized long append(long gameId, Move move) {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed");
+        }
+        encode(nextSequence, gameId, move);
+        try {
+            if (writtenRecords == segmentRecords) {
+                force();
+                openSegment(nextSequence);
+            }
+            segment.put(writtenRecords * RECORD_SIZE, scratch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writtenRecords++;
+        if (syncer == null) {
+            force();
+        }
+        return nextSequence++;
+    }
+
+    /**
+     * Forces all appended records to disk now.
+     */
+    public synchronized void sync() {
+        force();
+    }
+
+    /**
+     * @return number of records in the journal
+     */
+    public synchronized long size() {
+        return nextSequence;
+    }
+
+    /**
+     * Forces the appended records to disk and closes the journal.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+        if (segment != null) {
+            force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private void syncQuietly() {
+        synchronized (this) {
+            if (!closed) {
+                force();
+            }
+        }
+    }
+
+    private void force() {
+        if (writtenRecords > syncedRecords) {
+            segment.force(syncedRecords * RECORD_SIZE, (writtenRecords - syncedRecords) * RECORD_SIZE);
+            syncedRecords = writtenRecords;
+        }
+    }
+
+    /**
+     * Finds the end of the intact records, erases whatever follows them and maps the segment to append to.
+     */
+    private void recover() throws IOException {
+        long expected = 0;
+        List<Path> stale = new ArrayList<>();
+        Path last = null;
+        int lastRecords = 0;
+        boolean ended = false;
+        for (Path file : segments(directory)) {
+            if (ended) {
+                stale.add(file);
+                continue;
+            }
+            if (segmentStart(file) != expected) {
+                throw new IOException("Journal segment starting at record " + expected + " is missing");
+            }
+            last = file;
+            lastRecords = 0;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                int records = (int) (channel.size() / RECORD_SIZE);
+                while (lastRecords < records && intact(buffer, lastRecords * RECORD_SIZE, expected)) {
+                    lastRecords++;
+                    expected++;
+                }
+                ended = lastRecords < segmentRecords;
+            }
+        }
+        for (Path file : stale) {
+            Files.delete(file);
+        }
+
+        nextSequence = expected;
+        if (last == null) {
+            openSegment(0);
+            return;
+        }
+        map(last);
+        // a crash may leave later pages written before earlier ones; nothing after the first bad record counts
+        int end = (int) Math.min(segment.capacity(), (long) segmentRecords * RECORD_SIZE);
+        for (int i = lastRecords * RECORD_SIZE; i < end; i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.force();
+        writtenRecords = lastRecords;
+        syncedRecords = lastRecords;
+    }
+
+    private void openSegment(long start) throws IOException {
+        map(directory.resolve(String.format("segment-%019d.journal", start)));
+        writtenRecords = 0;
+        syncedRecords = 0;
+    }
+
+    private void map(Path file) throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("segment-\\d{19}\\.journal"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long segmentStart(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".journal".length()));
+    }
+
+    private static boolean intact(ByteBuffer buffer, int offset, long expectedSequence) {
+        if (buffer.getLong(offset) != expectedSequence) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, CHECKSUM));
+        return (int) crc.getValue() == buffer.getInt(offset + CHECKSUM);
+    }
+
+    private void encode(long sequence, long gameId, Move move) {
+        record.clear();
+        Arrays.fill(scratch, (byte) 0);
+        record.putLong(0, sequence);
+        record.putLong(8, gameId);
+        record.putInt(PLAYER, move.playerId());
+        switch (move) {
+            case Move.TakeCard take -> {
+                record.put(TYPE, (byte) TAKE_CARD);
+                record.putInt(VALUE, take.deck().ordinal());
+                record.putInt(INDEX, take.index());
+                putPosition(POSITION, take.destination());
+            }
+            case Move.Discard discard -> {
+                record.put(TYPE, (byte) DISCARD);
+                record.putInt(VALUE, discard.deck().ordinal());
+            }
+            case Move.Activate activate -> {
+                record.put(TYPE, (byte) ACTIVATE);
+                putPosition(POSITION, activate.card());
+                putAction(activate.action());
+            }
+            case Move.AssistedActivate assisted -> {
+                record.put(TYPE, (byte) ASSISTED_ACTIVATE);
+                record.putInt(VALUE, assisted.otherPlayerId());
+                putPosition(POSITION, assisted.card());
+                putPosition(OTHER, assisted.otherCard());
+                putAction(assisted.action());
+            }
+            case Move.SelectReward reward -> {
+                record.put(TYPE, (byte) SELECT_REWARD);
+                record.putInt(VALUE, reward.resource().ordinal());
+            }
+            case Move.TurnFinished finished -> record.put(TYPE, (byte) TURN_FINISHED);
+            case Move.SelectPattern pattern -> {
+                record.put(TYPE, (byte) SELECT_PATTERN);
+                record.putInt(VALUE, pattern.pattern());
+            }
+            case Move.SelectScoring scoring -> {
+                record.put(TYPE, (byte) SELECT_SCORING);
+                record.putInt(VALUE, scoring.scoring());
+            }
+        }
+        crc.reset();
+        crc.update(scratch, 0, CHECKSUM);
+        record.putInt(CHECKSUM, (int) crc.getValue());
+    }
+
+    private void putPosition(int offset, GridPosition position) {
+        record.put(offset, (byte) position.getX());
+        record.put(offset + 1, (byte) position.getY());
+    }
+
+    private void putAction(ActionBuffer action) {
+        int entries = action.inputCount() + action.outputCount() + action.pollutionCount();
+        if (entries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Activation with " + entries + " resource movements does not fit a record");
+        }
+        record.put(17, (byte) action.inputCount());
+        record.put(18, (byte) action.outputCount());
+        record.put(19, (byte) action.pollutionCount());
+        int offset = ENTRIES;
+        for (int i = 0; i < action.inputCount(); i++) {
+            record.put(offset++, (byte) action.input(i));
+        }
+        for (int i = 0; i < action.outputCount(); i++) {
+            record.put(offset++, (byte) action.output(i));
+        }
+        for (int i = 0; i < action.pollutionCount(); i++) {
+            record.put(offset++, (byte) action.pollution(i));
+        }
+    }
+
+    private static Entry read(ByteBuffer buffer, int offset) {
+        long sequence = buffer.getLong(offset);
+        long gameId = buffer.getLong(offset + 8);
+        int player = buffer.getInt(offset + PLAYER);
+        int value = buffer.getInt(offset + VALUE);
+        GridPosition position = GridPosition.of(buffer.get(offset + POSITION), buffer.get(offset + POSITION + 1));
+        Move move = switch (buffer.get(offset + TYPE)) {
+            case TAKE_CARD -> new Move.TakeCard(player, DECKS[value], buffer.getInt(offset + INDEX), position);
+            case DISCARD -> new Move.Discard(player, DECKS[value]);
+            case ACTIVATE -> new Move.Activate(player, position, readAction(buffer, offset));
+            case ASSISTED_ACTIVATE -> new Move.AssistedActivate(player, position, readAction(buffer, offset), value,
+                    GridPosition.of(buffer.get(offset + OTHER), buffer.get(offset + OTHER + 1)));
+            case SELECT_REWARD -> new Move.SelectReward(player, RESOURCES[value]);
+            case TURN_FINISHED -> new Move.TurnFinished(player);
+            case SELECT_PATTERN -> new Move.SelectPattern(player, value);
+            case SELECT_SCORING -> new Move.SelectScoring(player, value);
+            default -> throw new IllegalStateException("Unknown move type in record " + sequence);
+        };
+        return new Entry(sequence, gameId, move);
+    }
+
+    private static ActionBuffer readAction(ByteBuffer buffer, int offset) {
+        ActionBuffer action = new ActionBuffer();
+        int entry = offset + ENTRIES;
+        for (int i = buffer.get(offset + 17); i > 0; i--) {
+            action.addInput(buffer.get(entry++) & 0xFF);
+        }
+        for (int i = buffer.get(offset + 18); i > 0; i--) {
+            action.addOutput(buffer.get(entry++) & 0xFF);
+        }
+        for (int i = buffer.get(offset + 19); i > 0; i--) {
+            action.addPollution(buffer.get(entry++) & 0xFF);
+        }
+        return action;
+    }
+}
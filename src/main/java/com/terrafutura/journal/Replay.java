@@ -0,0 +1,269 @@
+package main.java.com.terrafutura.journal;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.MoveCard;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.ProcessActionAssistance;
+import main.java.com.terrafutura.codec.DefinitionTable;
+import main.java.com.terrafutura.codec.SnapshotCodec;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.Move;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays a recorded game again and jumps to any point of it. The moves go through {@link Game}, so every one
+ * is checked and executed by {@link MoveCard}, {@link ProcessAction} and the activation patterns as when it was
+ * first made.
+ * <p>
+ * Whenever the replay passes the end of every {@code snapshotInterval}-th turn, it keeps a {@link SnapshotCodec}
+ * snapshot of the players, the piles and the game progress. Seeking backwards restores the last snapshot before
+ * the target and replays only the moves after it; seeking forwards just continues. Snapshots hold what
+ * {@link Pile#contents()} reports, so subclasses of {@link Pile} dealing cards some other way are restored
+ * as plain piles.
+ * <p>
+ * A replay is not thread safe.
+ */
+public final class Replay {
+
+    /**
+     * Players and piles of a game before its first move.
+     */
+    public record Start(List<Player> players, Map<Deck, Pile> piles) {
+    }
+
+    /**
+     * Creates the start of the replayed game. Every call must create new players and piles set up the same way,
+     * with piles dealing the same cards for the same takes and discards.
+     */
+    @FunctionalInterface
+    public interface Setup {
+        Start create();
+    }
+
+    private static final Deck[] DECKS = Deck.values();
+
+    private final List<Move> moves;
+    private final Setup setup;
+    private final int snapshotInterval;
+    private final DefinitionTable definitions = new DefinitionTable();
+    private final SnapshotCodec codec = new SnapshotCodec(definitions);
+
+    /**
+     * Number of moves made when each turn ended.
+     */
+    private final int[] turnEnds;
+
+    /**
+     * Snapshot at the end of turn {@code i * snapshotInterval} at index i, null until the replay passes it.
+     * Index 0, the start of the game, is never used.
+     */
+    private final byte[][] snapshots;
+
+    private List<Player> players;
+    private Map<Deck, Pile> piles;
+    private Game game;
+    private int position;
+    private int turn;
+
+    /**
+     * @param moves            moves of the game in the order they were made
+     * @param snapshotInterval turns between snapshots
+     */
+    public Replay(List<Move> moves, Setup setup, int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least one turn");
+        }
+        this.moves = List.copyOf(moves);
+        this.setup = setup;
+        this.snapshotInterval = snapshotInterval;
+        int[] ends = new int[this.moves.size()];
+        int turns = 0;
+        for (int i = 0; i < this.moves.size(); i++) {
+            if (this.moves.get(i) instanceof Move.TurnFinished) {
+                ends[turns++] = i + 1;
+            }
+        }
+        this.turnEnds = Arrays.copyOf(ends, turns);
+        this.snapshots = new byte[turns / snapshotInterval + 1][];
+    }
+
+    /**
+     * @return number of moves of the game
+     */
+    public int size() {
+        return moves.size();
+    }
+
+    /**
+     * @return number of turns the game finished
+     */
+    public int turns() {
+        return turnEnds.length;
+    }
+
+    /**
+     * @return number of moves made in the current game
+     */
+    public int position() {
+        return position;
+    }
+
+    /**
+     * @return the game at the current position, null before the first seek
+     */
+    public Game game() {
+        return game;
+    }
+
+    /**
+     * @return players of the current game, in turn order
+     */
+    public List<Player> players() {
+        return players;
+    }
+
+    /**
+     * Brings the game to the point after the given number of moves. The returned game is owned by the replay;
+     * it changes on the next seek.
+     *
+     * @throws IndexOutOfBoundsException if the game has fewer moves
+     * @throws IllegalStateException     if the game refuses one of the recorded moves
+     */
+    public Game seek(int moves) {
+        if (moves < 0 || moves > this.moves.size()) {
+            throw new IndexOutOfBoundsException("Move " + moves + " of " + this.moves.size());
+        }
+        int snapshot = Math.min(turnsEndedBy(moves) / snapshotInterval, snapshots.length - 1);
+        while (snapshot > 0 && snapshots[snapshot] == null) {
+            snapshot--;
+        }
+        int restorable = snapshot == 0 ? 0 : turnEnds[snapshot * snapshotInterval - 1];
+        if (game == null || position > moves || position < restorable) {
+            if (snapshot == 0) {
+                start();
+            } else {
+                restore(snapshot);
+            }
+        }
+        while (position < moves) {
+            apply();
+        }
+        return game;
+    }
+
+    /**
+     * Brings the game to the end of the given turn, counting the turns of all players and of the final
+     * activation; turn 0 is the start of the game.
+     *
+     * @throws IndexOutOfBoundsException if the game has fewer turns
+     */
+    public Game seekTurn(int turn) {
+        if (turn < 0 || turn > turnEnds.length) {
+            throw new IndexOutOfBoundsException("Turn " + turn + " of " + turnEnds.length);
+        }
+        return seek(turn == 0 ? 0 : turnEnds[turn - 1]);
+    }
+
+    /**
+     * @return number of turns ended within the first moves
+     */
+    private int turnsEndedBy(int moves) {
+        int turns = Arrays.binarySearch(turnEnds, moves);
+        return turns >= 0 ? turns + 1 : -turns - 1;
+    }
+
+    private void apply() {
+        Move move = moves.get(position);
+        if (!move.applyTo(game)) {
+            throw new IllegalStateException("Game refused recorded move " + position + ": " + move);
+        }
+        position++;
+        if (move instanceof Move.TurnFinished) {
+            turn++;
+            if (turn % snapshotInterval == 0 && snapshots[turn / snapshotInterval] == null) {
+                snapshots[turn / snapshotInterval] = snapshot();
+            }
+        }
+    }
+
+    private void start() {
+        Start start = setup.create();
+        players = List.copyOf(start.players());
+        piles = new EnumMap<>(Deck.class);
+        piles.putAll(start.piles());
+        game = newGame(players, piles);
+        position = 0;
+        turn = 0;
+    }
+
+    private void restore(int snapshot) {
+        ByteBuffer in = ByteBuffer.wrap(snapshots[snapshot]);
+        codec.readHeader(in);
+        Game.Progress progress = codec.readProgress(in);
+        List<Player> decoded = new ArrayList<>();
+        for (int count = in.get() & 0xFF; decoded.size() < count; ) {
+            decoded.add(codec.readPlayer(in));
+        }
+        players = List.copyOf(decoded);
+        piles = new EnumMap<>(Deck.class);
+        for (int count = in.get() & 0xFF; piles.size() < count; ) {
+            piles.put(DECKS[in.get()], codec.readPile(in));
+        }
+        game = newGame(players, piles);
+        game.restoreProgress(progress);
+        position = turnEnds[snapshot * snapshotInterval - 1];
+        turn = snapshot * snapshotInterval;
+    }
+
+    private byte[] snapshot() {
+        for (Player player : players) {
+            for (GridPosition position : player.g.getCardPositions()) {
+                register(player.g.getCard(position).orElseThrow());
+            }
+        }
+        for (Pile pile : piles.values()) {
+            Pile.Contents contents = pile.contents();
+            contents.visible().forEach(this::register);
+            contents.hidden().forEach(this::register);
+            contents.discarded().forEach(this::register);
+        }
+        for (int capacity = 256 * players.size(); ; capacity *= 2) {
+            ByteBuffer out = ByteBuffer.allocate(capacity);
+            try {
+                codec.writeHeader(out);
+                codec.writeProgress(out, game.getProgress());
+                out.put((byte) players.size());
+                for (Player player : players) {
+                    codec.writePlayer(out, player);
+                }
+                out.put((byte) piles.size());
+                for (Map.Entry<Deck, Pile> pile : piles.entrySet()) {
+                    out.put((byte) pile.getKey().ordinal());
+                    codec.writePile(out, pile.getValue());
+                }
+                return Arrays.copyOf(out.array(), out.position());
+            } catch (BufferOverflowException e) {
+                // try again with a bigger buffer
+            }
+        }
+    }
+
+    private void register(Card card) {
+        definitions.register(card.getDefinition());
+    }
+
+    private static Game newGame(List<Player> players, Map<Deck, Pile> piles) {
+        return new Game(players, piles, new MoveCard(), new ProcessAction(), new ProcessActionAssistance(), null);
+    }
+}
@@ -1,12 +1,209 @@
 package main.java.com.terrafutura.piles;
 
 import main.java.com.terrafutura.cards.Card;
+import org.json.JSONArray;
+import org.json.JSONObject;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+/**
+ * Pile of one deck: a few cards lie face up in a row, the rest are face down and refill the row.
+ * Index 0 is the newest visible card, the highest index the oldest one. A taken card is replaced by drawing
+ * a new card to index 0, and {@link #removeLastCard()} discards the oldest card and draws a new one the same way.
+ * When the face-down cards run out, the discarded cards become the new face-down cards.
+ * <p>
+ * The visible cards are kept in a ring buffer, so drawing and discarding move no cards; only a card taken from
+ * the middle of the row moves the newer cards, at most {@link #VISIBLE} - 1 of them. The face-down cards are never
+ * shuffled as a whole: every draw picks a random one of the remaining cards with a seeded SplitMix64 generator,
+ * which is a lazy Fisher-Yates shuffle. The same cards and seed always deal the same way.
+ */
 public class Pile {
-    public Optional<Card> getCard(int index) { return Optional.empty(); }
-    public void takeCard(int index) {}
-    public void removeLastCard() {}
-    public String state() { return ""; }
-}
\ No newline at end of file
+    /**
+     * Visible cards of a pile in the rules.
+     */
+    public static final int VISIBLE = 4;
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Everything a pile holds, e.g. to snapshot it.
+     *
+     * @param slots     how many cards are visible when there are enough cards
+     * @param visible   visible cards from the newest
+     * @param hidden    face-down cards not drawn yet, in the order the generator picks from
+     * @param discarded discarded cards, in the order they were discarded
+     * @param random    state of the generator
+     */
+    public record Contents(int slots, List<Card> visible, List<Card> hidden, List<Card> discarded, long random) {
+    }
+
+    private final Card[] ring;
+    private final int mask;
+    private final int slots;
+    private int newest;
+    private int visibleCount;
+
+    private Card[] hidden;
+    private int hiddenCount;
+    private Card[] discarded;
+    private int discardedCount;
+
+    private long random;
+
+    /**
+     * Pile without cards.
+     */
+    public Pile() {
+        this(List.of(), 0);
+    }
+
+    /**
+     * Pile of the cards with {@link #VISIBLE} of them drawn face up.
+     *
+     * @param seed seed of the generator drawing the cards
+     */
+    public Pile(List<Card> cards, long seed) {
+        this(new Contents(VISIBLE, List.of(), cards, List.of(), seed));
+        while (visibleCount < slots && draw()) {
+            // fill the row
+        }
+    }
+
+    /**
+     * Pile holding exactly the given contents, without drawing.
+     *
+     * @throws IllegalArgumentException if there are more visible cards than slots
+     */
+    public Pile(Contents contents) {
+        if (contents.slots() < 1 || contents.visible().size() > contents.slots()) {
+            throw new IllegalArgumentException("Pile with " + contents.slots() + " slots cannot show "
+                    + contents.visible().size() + " cards");
+        }
+        this.slots = contents.slots();
+        this.ring = new Card[Integer.highestOneBit(slots * 2 - 1)];
+        this.mask = ring.length - 1;
+        for (Card card : contents.visible()) {
+            ring[visibleCount++] = card;
+        }
+        int total = contents.visible().size() + contents.hidden().size() + contents.discarded().size();
+        this.hidden = Arrays.copyOf(contents.hidden().toArray(new Card[0]), total);
+        this.hiddenCount = contents.hidden().size();
+        this.discarded = Arrays.copyOf(contents.discarded().toArray(new Card[0]), total);
+        this.discardedCount = contents.discarded().size();
+        this.random = contents.random();
+    }
+
+    /**
+     * @param index 0 for the newest visible card
+     * @return the visible card, empty if there is none at the index
+     */
+    public Optional<Card> getCard(int index) {
+        if (index < 0 || index >= visibleCount) {
+            return Optional.empty();
+        }
+        return Optional.of(ring[(newest + index) & mask]);
+    }
+
+    /**
+     * Removes the visible card at the index, e.g. when it is moved to a grid, and draws a new one.
+     * Does nothing if there is no card at the index.
+     */
+    public void takeCard(int index) {
+        if (index < 0 || index >= visibleCount) {
+            return;
+        }
+        for (int i = index; i > 0; i--) {
+            ring[(newest + i) & mask] = ring[(newest + i - 1) & mask];
+        }
+        ring[newest] = null;
+        newest = (newest + 1) & mask;
+        visibleCount--;
+        draw();
+    }
+
+    /**
+     * Discards the oldest visible card and draws a new one.
+     */
+    public void removeLastCard() {
+        if (visibleCount == 0) {
+            return;
+        }
+        int oldest = (newest + visibleCount - 1) & mask;
+        discarded[discardedCount++] = ring[oldest];
+        ring[oldest] = null;
+        visibleCount--;
+        draw();
+    }
+
+    /**
+     * @return number of face-down cards left before the discarded cards are reused
+     */
+    public int hiddenCount() {
+        return hiddenCount;
+    }
+
+    public int discardedCount() {
+        return discardedCount;
+    }
+
+    public Contents contents() {
+        List<Card> visible = new ArrayList<>(visibleCount);
+        for (int i = 0; i < visibleCount; i++) {
+            visible.add(ring[(newest + i) & mask]);
+        }
+        return new Contents(slots, visible, List.of(Arrays.copyOf(hidden, hiddenCount)),
+                List.of(Arrays.copyOf(discarded, discardedCount)), random);
+    }
+
+    public String state() {
+        JSONArray visible = new JSONArray();
+        for (int i = 0; i < visibleCount; i++) {
+            visible.put(ring[(newest + i) & mask].state());
+        }
+        JSONObject result = new JSONObject();
+        result.put("visible", visible);
+        result.put("hidden", hiddenCount);
+        result.put("discarded", discardedCount);
+        return result.toString();
+    }
+
+    /**
+     * Draws a random face-down card to index 0.
+     *
+     * @return false if there are no cards to draw
+     */
+    private boolean draw() {
+        if (hiddenCount == 0) {
+            if (discardedCount == 0) {
+                return false;
+            }
+            Card[] empty = hidden;
+            hidden = discarded;
+            hiddenCount = discardedCount;
+            discarded = empty;
+            discardedCount = 0;
+        }
+        int picked = nextInt(hiddenCount);
+        Card card = hidden[picked];
+        hidden[picked] = hidden[--hiddenCount];
+        hidden[hiddenCount] = null;
+        newest = (newest - 1) & mask;
+        ring[newest] = card;
+        visibleCount++;
+        return true;
+    }
+
+    /**
+     * @return uniform random number from 0 to bound - 1, by SplitMix64 and Lemire's multiply-shift reduction
+     */
+    private int nextInt(int bound) {
+        long z = (random += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z ^= z >>> 31;
+        return (int) (((z >>> 32) * bound) >>> 32);
+    }
+}
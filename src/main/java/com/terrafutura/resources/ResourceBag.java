@@ -0,0 +1,100 @@
+package main.java.com.terrafutura.resources;
+
+import java.util.List;
+
+/**
+ * Multiset of resources packed into a single long, one 8-bit counter per {@link Resource} type.
+ * Bags are plain long values, so building and comparing them never allocates.
+ * Counters saturate at {@link #LANE_MAX}, which is far above anything a single card or effect holds.
+ */
+public final class ResourceBag {
+
+    /**
+     * Bag containing no resources.
+     */
+    public static final long EMPTY = 0L;
+
+    /**
+     * Bag holding {@link #LANE_MAX} of every resource type; it contains every other bag.
+     */
+    public static final long ANY = 0x7F7F7F7F7F7F7F7FL;
+
+    /**
+     * Largest count a single resource type can hold in a bag.
+     */
+    public static final int LANE_MAX = 127;
+
+    private static final int LANE_BITS = 8;
+    private static final long LANE_MASK = 0xFFL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    static {
+        if (Resource.values().length * LANE_BITS > Long.SIZE) {
+            throw new ExceptionInInitializerError("Too many resource types for a packed ResourceBag");
+        }
+    }
+
+    private ResourceBag() {}
+
+    /**
+     * Builds a bag from a list of resources.
+     *
+     * @param resources resources to count
+     * @return packed bag
+     */
+    public static long of(List<Resource> resources) {
+        long bag = EMPTY;
+        for (Resource resource : resources) {
+            bag = add(bag, resource);
+        }
+        return bag;
+    }
+
+    /**
+     * Adds one resource to the bag, saturating at {@link #LANE_MAX}.
+     *
+     * @param bag bag to add to
+     * @param resource resource to add
+     * @return bag with the resource added
+     */
+    public static long add(long bag, Resource resource) {
+        int shift = resource.ordinal() * LANE_BITS;
+        if (((bag >>> shift) & LANE_MASK) == LANE_MAX) {
+            return bag;
+        }
+        return bag + (1L << shift);
+    }
+
+    /**
+     * @param bag bag to read
+     * @param resource resource type to count
+     * @return how many resources of that type the bag holds
+     */
+    public static int count(long bag, Resource resource) {
+        return (int) ((bag >>> (resource.ordinal() * LANE_BITS)) & LANE_MASK);
+    }
+
+    /**
+     * @param bag bag to read
+     * @return total number of resources in the bag
+     */
+    public static int size(long bag) {
+        int size = 0;
+        for (long rest = bag; rest != 0; rest >>>= LANE_BITS) {
+            size += (int) (rest & LANE_MASK);
+        }
+        return size;
+    }
+
+    /**
+     * Checks multiset inclusion: every resource type occurs in {@code bag} at least as often as in {@code other}.
+     * All lanes are compared at once with a single subtraction.
+     *
+     * @param bag bag that should contain the other one
+     * @param other bag that should be contained
+     * @return true if {@code other} is a sub-multiset of {@code bag}
+     */
+    public static boolean containsAll(long bag, long other) {
+        return (((bag | HIGH_BITS) - other) & HIGH_BITS) == HIGH_BITS;
+    }
+}
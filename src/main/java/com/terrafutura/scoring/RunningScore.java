@@ -0,0 +1,176 @@
+package main.java.com.terrafutura.scoring;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.CardListener;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Score of one player's grid kept up to date as resources change, so the projected score never needs a scan.
+ * Listens to the grid and its cards and keeps the count of every resource on cards not blocked by pollution,
+ * their resource points and the combinations of every candidate scoring method.
+ * Every change costs a constant amount of work and every query is constant time.
+ */
+public final class RunningScore implements CardListener {
+
+    /**
+     * All resource types in ordinal order.
+     */
+    private static final Resource[] TYPES = Resource.values();
+
+    private final List<ScoringMethod> methods;
+
+    /**
+     * Number of every resource on cards that are not blocked, indexed by {@link Resource#ordinal()}.
+     */
+    private final int[] counts = new int[TYPES.length];
+
+    private int resourcePoints;
+
+    /**
+     * Full combinations of every method.
+     */
+    private final int[] combinations;
+
+    /**
+     * Cards on the grid and what each of them adds to {@link #counts}, in parallel arrays.
+     * A grid holds at most nine cards, so cards are looked up linearly.
+     */
+    private Card[] cards = new Card[9];
+    private int[][] contributions = new int[9][];
+    private int cardCount;
+
+    /**
+     * Starts listening to the grid, next to its other listeners.
+     *
+     * @param grid    grid to score
+     * @param methods candidate scoring methods
+     */
+    public RunningScore(Grid grid, List<ScoringMethod> methods) {
+        this.methods = List.copyOf(methods);
+        this.combinations = new int[methods.size()];
+        grid.addCardListener(this);
+    }
+
+    @Override
+    public void cardChanged(Card card) {
+        int slot = slot(card);
+        int[] contribution = contributions[slot];
+        boolean scored = !card.isBlockedByPollution();
+        boolean affected = false;
+        for (int r = 0; r < TYPES.length; r++) {
+            int delta = (scored ? card.getResourceCount(TYPES[r]) : 0) - contribution[r];
+            if (delta != 0) {
+                add(r, delta);
+                contribution[r] += delta;
+                affected = true;
+            }
+        }
+        if (affected) {
+            updateCombinations();
+        }
+    }
+
+    @Override
+    public void cardRemoved(Card card) {
+        for (int i = 0; i < cardCount; i++) {
+            if (cards[i] == card) {
+                int[] contribution = contributions[i];
+                for (int r = 0; r < TYPES.length; r++) {
+                    add(r, -contribution[r]);
+                }
+                cardCount--;
+                cards[i] = cards[cardCount];
+                contributions[i] = contributions[cardCount];
+                cards[cardCount] = null;
+                contributions[cardCount] = null;
+                updateCombinations();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return number of the resource on cards that are not blocked
+     */
+    public int count(Resource resource) {
+        return counts[resource.ordinal()];
+    }
+
+    /**
+     * @return copy of the counts, in the form {@link ScoringMethod#calculate(int[])} takes
+     */
+    public int[] counts() {
+        return counts.clone();
+    }
+
+    /**
+     * @return points for the resources themselves, the same for every method
+     */
+    public int resourcePoints() {
+        return resourcePoints;
+    }
+
+    /**
+     * @return full combinations of the method with the given index
+     */
+    public int combinations(int method) {
+        return combinations[method];
+    }
+
+    /**
+     * @return score the method with the given index would give now
+     */
+    public int score(int method) {
+        return combinations[method] * methods.get(method).getPointsPerCombination().getValue() + resourcePoints;
+    }
+
+    /**
+     * @return index of the method scoring the most now, ties going to the earlier method
+     */
+    public int best() {
+        int best = 0;
+        for (int i = 1; i < combinations.length; i++) {
+            if (score(i) > score(best)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return score of the best method now
+     */
+    public int projected() {
+        return score(best());
+    }
+
+    private int slot(Card card) {
+        for (int i = 0; i < cardCount; i++) {
+            if (cards[i] == card) {
+                return i;
+            }
+        }
+        if (cardCount == cards.length) {
+            cards = Arrays.copyOf(cards, cardCount * 2);
+            contributions = Arrays.copyOf(contributions, cardCount * 2);
+        }
+        cards[cardCount] = card;
+        contributions[cardCount] = new int[TYPES.length];
+        return cardCount++;
+    }
+
+    private void add(int resource, int delta) {
+        counts[resource] += delta;
+        resourcePoints += delta * ScoringMethod.resourcePoints(TYPES[resource]);
+    }
+
+    private void updateCombinations() {
+        for (int i = 0; i < combinations.length; i++) {
+            combinations[i] = methods.get(i).combinations(counts);
+        }
+    }
+}
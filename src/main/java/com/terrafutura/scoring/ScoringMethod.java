@@ -10,11 +10,37 @@ import java.util.*;
  */
 public class ScoringMethod {
 
+    /**
+     * All resource types in ordinal order.
+     */
+    private static final Resource[] TYPES = Resource.values();
+
+    /**
+     * Score value for each resource type according to game rules, indexed by {@link Resource#ordinal()}
+     */
+    private static final int[] RESOURCE_POINTS = new int[TYPES.length];
+
+    static {
+        RESOURCE_POINTS[Resource.Green.ordinal()] = 1;
+        RESOURCE_POINTS[Resource.Red.ordinal()] = 1;
+        RESOURCE_POINTS[Resource.Yellow.ordinal()] = 1;
+        RESOURCE_POINTS[Resource.Bulb.ordinal()] = 5;
+        RESOURCE_POINTS[Resource.Gear.ordinal()] = 5;
+        RESOURCE_POINTS[Resource.Car.ordinal()] = 6;
+        RESOURCE_POINTS[Resource.Pollution.ordinal()] = -1;
+    }
+
     /**
      * Required resources to form one scoring combination
      */
     private final List<Resource> resources;
 
+    /**
+     * Resource types of one combination and how many of each it needs, in parallel arrays
+     */
+    private final int[] requiredTypes;
+    private final int[] requiredCounts;
+
     /**
      * Points awarded for one complete combination
      */
@@ -25,19 +51,6 @@ public class ScoringMethod {
      */
     private Points calculatedTotal = new Points(0);
 
-    /**
-     * Score value for each resource type according to game rules
-     */
-    private final Map<Resource, Integer> RESOURCE_POINTS = Map.of(
-            Resource.Green, 1,
-            Resource.Red, 1,
-            Resource.Yellow, 1,
-            Resource.Bulb, 5,
-            Resource.Gear, 5,
-            Resource.Car, 6,
-            Resource.Pollution, -1
-    );
-
     /**
      * Creates a specific scoring method.
      *
@@ -47,6 +60,39 @@ public class ScoringMethod {
     public ScoringMethod(List<Resource> resources, Points pointsPerCombination) {
         this.resources = new ArrayList<>(resources);
         this.pointsPerCombination = pointsPerCombination;
+
+        int[] needed = count(resources);
+        int types = 0;
+        for (int n : needed) {
+            if (n > 0) types++;
+        }
+        requiredTypes = new int[types];
+        requiredCounts = new int[types];
+        for (int r = 0, i = 0; r < needed.length; r++) {
+            if (needed[r] > 0) {
+                requiredTypes[i] = r;
+                requiredCounts[i++] = needed[r];
+            }
+        }
+    }
+
+    /**
+     * Restores a scoring method whose total may already be calculated, e.g. from a snapshot.
+     *
+     * @param resources list of resources that form one scoring combination
+     * @param pointsPerCombination points gained per full matching combination
+     * @param calculatedTotal total calculated by {@link #selectThisMethodAndCalculate}, zero if not selected
+     */
+    public ScoringMethod(List<Resource> resources, Points pointsPerCombination, Points calculatedTotal) {
+        this(resources, pointsPerCombination);
+        this.calculatedTotal = calculatedTotal;
+    }
+
+    /**
+     * @return resources forming one combination
+     */
+    public List<Resource> getResources() {
+        return Collections.unmodifiableList(resources);
     }
 
     /**
@@ -56,48 +102,156 @@ public class ScoringMethod {
      * @param playerResources list of all resources a player has on their grid
      */
     public void selectThisMethodAndCalculate(List<Resource> playerResources) {
-        int combinationPoints = calculateCombinationPoints(playerResources);
-        int resourcePoints = calculateResourcePoints(playerResources);
+        selectThisMethodAndCalculate(count(playerResources));
+    }
 
-        calculatedTotal = new Points(combinationPoints + resourcePoints);
+    /**
+     * Calculates and stores the final total score after using this method.
+     *
+     * @param counts number of every resource the player has, as returned by {@link #count}
+     */
+    public void selectThisMethodAndCalculate(int[] counts) {
+        calculatedTotal = new Points(calculate(counts));
     }
 
-    //calculate points obtained by this scoring method
-    private int calculateCombinationPoints(List<Resource> playerResources) {
-        // Count occurrences of each resource the player owns
-        Map<Resource, Integer> counts = count(playerResources);
-        // Count occurrences needed for each resource in the scoring method
-        Map<Resource, Integer> needed = count(resources);
+    /**
+     * Calculates the score the resources would get with this method, without selecting it.
+     *
+     * @param playerResources list of all resources a player has on their grid
+     * @return combination points plus resource points
+     */
+    public int calculate(List<Resource> playerResources) {
+        return calculate(count(playerResources));
+    }
 
-        // Determine how many full combinations the player can form
+    /**
+     * Calculates the score of already counted resources with this method, without selecting it.
+     *
+     * @param counts number of every resource the player has, as returned by {@link #count}
+     * @return combination points plus resource points
+     */
+    public int calculate(int[] counts) {
+        return combinations(counts) * pointsPerCombination.getValue() + resourcePoints(counts);
+    }
+
+    /**
+     * @return how many full combinations of this method the counted resources form
+     */
+    public int combinations(int[] counts) {
+        if (requiredTypes.length == 0) return 0;
         int combinations = Integer.MAX_VALUE;
+        for (int i = 0; i < requiredTypes.length; i++) {
+            combinations = Math.min(combinations, counts[requiredTypes[i]] / requiredCounts[i]);
+        }
+        return combinations;
+    }
 
-        for (Map.Entry<Resource, Integer> entry : needed.entrySet()) {
-            int available = counts.getOrDefault(entry.getKey(), 0);
-            int required = entry.getValue();
-            int possible = available / required;
-            combinations = Math.min(combinations, possible);
+    /**
+     * @return points for one complete combination
+     */
+    public Points getPointsPerCombination() {
+        return pointsPerCombination;
+    }
+
+    /**
+     * @return how many of the resource one combination needs
+     */
+    public int required(Resource resource) {
+        for (int i = 0; i < requiredTypes.length; i++) {
+            if (requiredTypes[i] == resource.ordinal()) return requiredCounts[i];
         }
+        return 0;
+    }
+
+    /**
+     * Counts resources by type.
+     *
+     * @param resources resources to count
+     * @return number of every resource, indexed by {@link Resource#ordinal()}
+     */
+    public static int[] count(Collection<Resource> resources) {
+        int[] counts = new int[TYPES.length];
+        for (Resource r : resources) {
+            counts[r.ordinal()]++;
+        }
+        return counts;
+    }
 
-        if (combinations == Integer.MAX_VALUE) combinations = 0;
-        return combinations * pointsPerCombination.getValue();
+    /**
+     * @return score value of a single resource according to game rules
+     */
+    public static int resourcePoints(Resource resource) {
+        return RESOURCE_POINTS[resource.ordinal()];
     }
 
-    //calculate points for resources on non-blocked cards in the player's grid
-    private int calculateResourcePoints(List<Resource> resources) {
+    /**
+     * Points for resources on non-blocked cards in the player's grid, the same for every scoring method.
+     *
+     * @param counts number of every resource, as returned by {@link #count}
+     */
+    public static int resourcePoints(int[] counts) {
         int sum = 0;
-        for (Resource r : resources) {
-            sum += RESOURCE_POINTS.getOrDefault(r, 0);
+        for (int r = 0; r < RESOURCE_POINTS.length; r++) {
+            sum += counts[r] * RESOURCE_POINTS[r];
         }
         return sum;
     }
 
-    private Map<Resource, Integer> count(List<Resource> list) {
-        Map<Resource, Integer> map = new HashMap<>();
-        for (Resource r : list) {
-            map.put(r, map.getOrDefault(r, 0) + 1);
+    /**
+     * Picks the method scoring the most for the counted resources; ties go to the earlier method.
+     *
+     * @param methods candidate methods, at least one
+     * @param counts  number of every resource the player has, as returned by {@link #count}
+     * @return index of the best method
+     */
+    public static int best(List<ScoringMethod> methods, int[] counts) {
+        int best = 0;
+        int bestPoints = Integer.MIN_VALUE;
+        // resource points are the same for every method, only combinations make a difference
+        for (int i = 0; i < methods.size(); i++) {
+            int points = methods.get(i).combinations(counts) * methods.get(i).pointsPerCombination.getValue();
+            if (points > bestPoints) {
+                best = i;
+                bestPoints = points;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Selects the best of the methods for the player's resources and calculates its total.
+     *
+     * @param methods candidate methods, at least one
+     * @param playerResources list of all resources a player has on their grid
+     * @return the selected method
+     */
+    public static ScoringMethod selectBestAndCalculate(List<ScoringMethod> methods, List<Resource> playerResources) {
+        int[] counts = count(playerResources);
+        ScoringMethod best = methods.get(best(methods, counts));
+        best.selectThisMethodAndCalculate(counts);
+        return best;
+    }
+
+    /**
+     * Finds the best method of many players at once, e.g. of every seat of thousands of simulated games,
+     * without selecting anything.
+     *
+     * @param methods    candidate methods of every player
+     * @param counts     counted resources of every player, as returned by {@link #count}
+     * @param bestIndex  receives the index of every player's best method
+     * @param bestPoints receives the total every player's best method scores
+     */
+    public static void best(List<? extends List<ScoringMethod>> methods, int[][] counts,
+                            int[] bestIndex, int[] bestPoints) {
+        if (methods.size() != counts.length || bestIndex.length < counts.length || bestPoints.length < counts.length) {
+            throw new IllegalArgumentException("Every player needs methods, counts and result slots");
+        }
+        for (int p = 0; p < counts.length; p++) {
+            List<ScoringMethod> candidates = methods.get(p);
+            int best = best(candidates, counts[p]);
+            bestIndex[p] = best;
+            bestPoints[p] = candidates.get(best).calculate(counts[p]);
         }
-        return map;
     }
 
     /**
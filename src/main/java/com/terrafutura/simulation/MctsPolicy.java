@@ -0,0 +1,460 @@
+package main.java.com.terrafutura.simulation;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.ActivationJournal;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.LegalActivationGenerator;
+import main.java.com.terrafutura.cards.MoveCard;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.scoring.RunningScore;
+
+import java.time.Duration;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Monte Carlo tree search player. Every decision is searched over the player's own choices until the end of
+ * the current turn: which visible card to take and where to put it, which activations to make before finishing
+ * the turn, and in the final activation which activation pattern to select and which scoring method to use.
+ * Leaves are evaluated by random playouts scored by the better scoring method, or by the chosen one in the
+ * final activation; cards not drawn yet and the other players are not modelled, so the policy never discards.
+ * Playouts therefore end with the current turn, and a card is only searched with the first
+ * {@link #SAMPLED_ACTIVATIONS} legal activations the {@link LegalActivationGenerator} yields for it,
+ * which favours the generator's early rows and input choices.
+ * <p>
+ * Nodes hold moves only, never cards: every worker copies the player's grid and the visible cards once per
+ * decision and walks its tree by applying moves to that copy and reverting them, activations through an
+ * {@link ActivationJournal}, placements through {@link MoveCard} on piles of the copied visible cards, and
+ * placements and patterns are reverted through {@link Grid#saveState}.
+ * Workers search independent trees (root parallelism); their visit counts of the root moves are summed.
+ */
+public class MctsPolicy implements PlayerPolicy {
+
+    /**
+     * Search budget of one decision; the search stops at whichever limit comes first.
+     *
+     * @param iterations playouts of all workers together
+     * @param nanos      wall time of the search
+     */
+    public record Budget(int iterations, long nanos) {
+        public static Budget iterations(int iterations) {
+            return new Budget(iterations, Long.MAX_VALUE);
+        }
+
+        public static Budget time(Duration time) {
+            return new Budget(Integer.MAX_VALUE, time.toNanos());
+        }
+    }
+
+    /**
+     * UCT exploration constant, for values normalized to [0, 1].
+     */
+    private static final double EXPLORATION = Math.sqrt(2);
+
+    /**
+     * Legal activations of one card, in generator order, considered as moves; enumerating all of them
+     * can be costly.
+     */
+    private static final int SAMPLED_ACTIVATIONS = 8;
+
+    private final Budget budget;
+    private final int workers;
+
+    public MctsPolicy() {
+        this(Budget.iterations(200), 1);
+    }
+
+    /**
+     * @param budget  search budget of every decision
+     * @param workers number of independent trees, searched in parallel on the common fork-join pool
+     */
+    public MctsPolicy(Budget budget, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed");
+        }
+        this.budget = budget;
+        this.workers = workers;
+    }
+
+    @Override
+    public Optional<Deck> discard(Game game, Player self, SplittableRandom random) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Placement place(Game game, Player self, SplittableRandom random) {
+        List<Candidate> candidates = candidates(game);
+        return decide(self, Phase.TAKE, candidates, random)
+                .map(move -> {
+                    Candidate candidate = candidates.get(move.index());
+                    return new Placement(new CardSource(candidate.deck(), candidate.index()), move.position());
+                })
+                // nothing can be taken: the starting position, which the game refuses
+                .orElseGet(() -> new Placement(new CardSource(Deck.I, 0), GridPosition.of(0, 0)));
+    }
+
+    @Override
+    public Optional<Activation> activate(Game game, Player self, SplittableRandom random) {
+        Phase phase = game.isFinalActivation() ? Phase.FINAL_ACTIVATE : Phase.ACTIVATE;
+        return decide(self, phase, List.of(), random)
+                .filter(move -> move.kind() == Kind.ACTIVATE)
+                .map(move -> new Activation(move.position(), move.action()));
+    }
+
+    @Override
+    public int selectActivationPattern(Game game, Player self, SplittableRandom random) {
+        return decide(self, Phase.PATTERN, List.of(), random).map(Move::index).orElse(0);
+    }
+
+    /**
+     * Scoring is the last decision and has no randomness left, so both methods are simply evaluated.
+     */
+    @Override
+    public int selectScoring(Game game, Player self, SplittableRandom random) {
+        return self.score.best();
+    }
+
+    /**
+     * Searches the given phase of the player's turn.
+     *
+     * @return most visited root move, empty if there is no legal move
+     */
+    private Optional<Move> decide(Player self, Phase phase, List<Candidate> candidates, SplittableRandom random) {
+        // copies are made on the calling thread, the only one allowed to read the game
+        Search[] searches = new Search[workers];
+        for (int i = 0; i < workers; i++) {
+            searches[i] = new Search(self, phase, candidates, random.split());
+        }
+        List<Move> moves = searches[0].rootMoves;
+        if (moves.size() <= 1) {
+            return moves.stream().findFirst();
+        }
+
+        long start = System.nanoTime();
+        int iterations = (budget.iterations() + workers - 1) / workers;
+        List<CompletableFuture<int[]>> others = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            Search search = searches[i];
+            others.add(CompletableFuture.supplyAsync(() -> search.run(iterations, start, budget.nanos()),
+                    ForkJoinPool.commonPool()));
+        }
+        int[] visits = searches[0].run(iterations, start, budget.nanos());
+        for (CompletableFuture<int[]> other : others) {
+            int[] otherVisits = other.join();
+            for (int i = 0; i < visits.length; i++) {
+                visits[i] += otherVisits[i];
+            }
+        }
+
+        int best = 0;
+        for (int i = 1; i < visits.length; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        return Optional.of(moves.get(best));
+    }
+
+    /**
+     * @return visible cards of every deck
+     */
+    private static List<Candidate> candidates(Game game) {
+        List<Candidate> candidates = new ArrayList<>();
+        for (Deck deck : Deck.values()) {
+            Optional<Pile> pile = game.getPile(deck);
+            for (int i = 0; pile.isPresent() && i < RandomPolicy.VISIBLE_CARDS; i++) {
+                Optional<Card> card = pile.get().getCard(i);
+                if (card.isPresent()) {
+                    candidates.add(new Candidate(deck, i, card.get()));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Searched part of a turn, in the order the phases follow each other.
+     */
+    private enum Phase {
+        TAKE, ACTIVATE, PATTERN, FINAL_ACTIVATE, SCORING, DONE
+    }
+
+    private enum Kind {
+        PLACE, ACTIVATE, END_TURN, PATTERN, SCORING
+    }
+
+    /**
+     * @param index    visible card to place, or the selected pattern or scoring method
+     * @param position where to place the card, or the card to activate
+     */
+    private record Move(Kind kind, int index, GridPosition position, ActionBuffer action) {
+    }
+
+    private record Candidate(Deck deck, int index, Card card) {
+    }
+
+    private static final class Node {
+        final Move move;
+        final Node parent;
+        final List<Node> children = new ArrayList<>();
+        final List<Move> untried;
+        int visits;
+        double total;
+
+        Node(Move move, Node parent, List<Move> untried) {
+            this.move = move;
+            this.parent = parent;
+            this.untried = untried;
+        }
+    }
+
+    /**
+     * One worker's tree and the private copy of the player's board it is searched on.
+     */
+    private static final class Search {
+        private final Grid grid;
+        private final List<Candidate> candidates;
+
+        /**
+         * Copied visible cards of every deck, and the piles placements take them from.
+         */
+        private final Map<Deck, Pile.Contents> visible = new EnumMap<>(Deck.class);
+        private final Map<Deck, Pile> piles = new EnumMap<>(Deck.class);
+        private final MoveCard moveCard = new MoveCard();
+
+        /**
+         * Deck the applied placement took its card from; a turn places at most one card.
+         */
+        private Deck placedFrom;
+        private final List<List<SimpleEntry<Integer, Integer>>> patterns;
+        private final RunningScore score;
+        private final ProcessAction processAction = new ProcessAction(new ActivationJournal());
+        private final LegalActivationGenerator generator = new LegalActivationGenerator();
+        private final SplittableRandom random;
+        private final List<Move> rootMoves;
+
+        private Phase phase;
+        private int scoring = -1;
+
+        /**
+         * Undo stack of the applied moves: their kind, the phase before them and the grid state before them.
+         */
+        private Kind[] kinds = new Kind[16];
+        private Phase[] phases = new Phase[16];
+        private int[] gridStates = new int[16 * Grid.STATE_SIZE];
+        private int depth;
+
+        /**
+         * Lowest and highest playout value seen, to normalize values for UCT.
+         */
+        private double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+        Search(Player self, Phase phase, List<Candidate> candidates, SplittableRandom random) {
+            this.grid = self.g.copy();
+            this.candidates = new ArrayList<>(candidates.size());
+            Map<Deck, List<Card>> cards = new EnumMap<>(Deck.class);
+            for (Candidate candidate : candidates) {
+                Card copy = candidate.card().copy();
+                this.candidates.add(new Candidate(candidate.deck(), candidate.index(), copy));
+                // visible cards are listed from index 0 without gaps
+                cards.computeIfAbsent(candidate.deck(), deck -> new ArrayList<>()).add(copy);
+            }
+            cards.forEach((deck, list) -> {
+                Pile.Contents contents = new Pile.Contents(Pile.VISIBLE, list, List.of(), List.of(), 0);
+                visible.put(deck, contents);
+                piles.put(deck, new Pile(contents));
+            });
+            this.patterns = List.of(self.a1.getPattern(), self.a2.getPattern());
+            this.score = new RunningScore(grid, List.of(self.s1, self.s2));
+            this.random = random;
+            this.phase = phase;
+            this.rootMoves = moves();
+        }
+
+        /**
+         * Runs playouts until either budget is used up.
+         *
+         * @return visits of every root move
+         */
+        int[] run(int iterations, long start, long nanos) {
+            Node root = new Node(null, null, new ArrayList<>(rootMoves));
+            for (int i = 0; i < iterations && System.nanoTime() - start < nanos; i++) {
+                iterate(root);
+            }
+            int[] visits = new int[rootMoves.size()];
+            for (Node child : root.children) {
+                visits[rootMoves.indexOf(child.move)] = child.visits;
+            }
+            return visits;
+        }
+
+        private void iterate(Node root) {
+            Node node = root;
+            while (node.untried.isEmpty() && !node.children.isEmpty()) {
+                node = select(node);
+                apply(node.move);
+            }
+            if (!node.untried.isEmpty()) {
+                int last = node.untried.size() - 1;
+                int pick = random.nextInt(last + 1);
+                Move move = node.untried.get(pick);
+                node.untried.set(pick, node.untried.get(last));
+                node.untried.remove(last);
+                apply(move);
+                Node child = new Node(move, node, moves());
+                node.children.add(child);
+                node = child;
+            }
+            while (phase != Phase.DONE) {
+                List<Move> moves = moves();
+                if (moves.isEmpty()) {
+                    break;
+                }
+                apply(moves.get(random.nextInt(moves.size())));
+            }
+
+            double value = evaluate();
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            while (depth > 0) {
+                undo();
+            }
+            for (; node != null; node = node.parent) {
+                node.visits++;
+                node.total += value;
+            }
+        }
+
+        private Node select(Node node) {
+            double log = Math.log(node.visits);
+            double range = max - min;
+            Node best = null;
+            double bestScore = Double.NEGATIVE_INFINITY;
+            for (Node child : node.children) {
+                double mean = child.total / child.visits;
+                double exploitation = range > 0 ? (mean - min) / range : 0.5;
+                double score = exploitation + EXPLORATION * Math.sqrt(log / child.visits);
+                if (score > bestScore) {
+                    best = child;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * @return legal moves in the current state, in a fixed order
+         */
+        private List<Move> moves() {
+            List<Move> moves = new ArrayList<>();
+            switch (phase) {
+                case TAKE -> {
+                    List<GridPosition> free = grid.getPlaceablePositions();
+                    for (int i = 0; i < candidates.size(); i++) {
+                        for (GridPosition position : free) {
+                            moves.add(new Move(Kind.PLACE, i, position, null));
+                        }
+                    }
+                }
+                case ACTIVATE, FINAL_ACTIVATE -> {
+                    moves.add(new Move(Kind.END_TURN, 0, null, null));
+                    for (GridPosition position : grid.getCardPositions()) {
+                        if (!grid.canBeActivated(position)) {
+                            continue;
+                        }
+                        Iterator<ActionBuffer> activations = generator.iterator(grid.getCard(position).orElseThrow(), grid);
+                        for (int seen = 0; seen < SAMPLED_ACTIVATIONS && activations.hasNext(); seen++) {
+                            moves.add(new Move(Kind.ACTIVATE, 0, position, activations.next()));
+                        }
+                    }
+                }
+                case PATTERN -> {
+                    moves.add(new Move(Kind.PATTERN, 0, null, null));
+                    moves.add(new Move(Kind.PATTERN, 1, null, null));
+                }
+                case SCORING -> {
+                    moves.add(new Move(Kind.SCORING, 0, null, null));
+                    moves.add(new Move(Kind.SCORING, 1, null, null));
+                }
+                case DONE -> {
+                }
+            }
+            return moves;
+        }
+
+        private void apply(Move move) {
+            if (depth == kinds.length) {
+                kinds = Arrays.copyOf(kinds, depth * 2);
+                phases = Arrays.copyOf(phases, depth * 2);
+                gridStates = Arrays.copyOf(gridStates, depth * 2 * Grid.STATE_SIZE);
+            }
+            kinds[depth] = move.kind();
+            phases[depth] = phase;
+            grid.saveState(gridStates, depth * Grid.STATE_SIZE);
+            switch (move.kind()) {
+                case PLACE -> {
+                    Candidate candidate = candidates.get(move.index());
+                    if (!moveCard.moveCard(piles.get(candidate.deck()), candidate.index(), move.position(), grid)) {
+                        throw new IllegalStateException("Searched placement is not legal");
+                    }
+                    placedFrom = candidate.deck();
+                    phase = Phase.ACTIVATE;
+                }
+                case ACTIVATE -> {
+                    // moves were generated legal for the very same state
+                    if (!processAction.activateCard(grid.getCard(move.position()).orElseThrow(), grid, move.action())) {
+                        throw new IllegalStateException("Searched activation is not legal");
+                    }
+                    grid.setActivated(move.position());
+                }
+                case END_TURN -> phase = phase == Phase.FINAL_ACTIVATE ? Phase.SCORING : Phase.DONE;
+                case PATTERN -> {
+                    grid.setActivationPattern(patterns.get(move.index()));
+                    phase = Phase.FINAL_ACTIVATE;
+                }
+                case SCORING -> {
+                    scoring = move.index();
+                    phase = Phase.DONE;
+                }
+            }
+            depth++;
+        }
+
+        private void undo() {
+            depth--;
+            switch (kinds[depth]) {
+                case ACTIVATE -> processAction.undo();
+                // the pile has no face-down cards, so taking only shifted its visible ones
+                case PLACE -> piles.put(placedFrom, new Pile(visible.get(placedFrom)));
+                case SCORING -> scoring = -1;
+                default -> {
+                }
+            }
+            grid.restoreState(gridStates, depth * Grid.STATE_SIZE);
+            phase = phases[depth];
+        }
+
+        /**
+         * @return points of the chosen scoring method, or of the better one before it is chosen
+         */
+        private double evaluate() {
+            return scoring >= 0 ? score.score(scoring) : score.projected();
+        }
+    }
+}
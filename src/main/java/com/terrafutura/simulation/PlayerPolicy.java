@@ -0,0 +1,55 @@
+package main.java.com.terrafutura.simulation;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Decisions of one simulated player. The simulator asks the policy of the player on turn whenever the game
+ * needs a decision; the random generator is the game's own, so a seeded game plays out the same every time.
+ * A policy instance plays only one game and is only called from one thread.
+ */
+public interface PlayerPolicy {
+
+    /**
+     * Where to take a card from and where to put it.
+     */
+    record Placement(CardSource source, GridPosition destination) {
+    }
+
+    /**
+     * Activation of the card on the given position.
+     */
+    record Activation(GridPosition card, ActionBuffer action) {
+    }
+
+    /**
+     * @return deck whose last card to discard before taking a card, empty to keep both
+     */
+    Optional<Deck> discard(Game game, Player self, SplittableRandom random);
+
+    Placement place(Game game, Player self, SplittableRandom random);
+
+    /**
+     * Called repeatedly during an activation phase until it returns empty, which finishes the turn.
+     *
+     * @return next activation, empty to finish the turn
+     */
+    Optional<Activation> activate(Game game, Player self, SplittableRandom random);
+
+    /**
+     * @return 0 for {@link Player#a1}, 1 for {@link Player#a2}
+     */
+    int selectActivationPattern(Game game, Player self, SplittableRandom random);
+
+    /**
+     * @return 0 for {@link Player#s1}, 1 for {@link Player#s2}
+     */
+    int selectScoring(Game game, Player self, SplittableRandom random);
+}
@@ -0,0 +1,59 @@
+package main.java.com.terrafutura.simulation;
+
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.cards.effects.ArbitraryBasic;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.cards.effects.TransformationFixed;
+import main.java.com.terrafutura.resources.Resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Random cards of the default simulator setup.
+ */
+final class RandomCards {
+    private static final Resource[] GOODS = {
+            Resource.Green, Resource.Red, Resource.Yellow, Resource.Bulb, Resource.Gear, Resource.Car
+    };
+
+    private RandomCards() {
+    }
+
+    /**
+     * @return the given number of random cards
+     */
+    static List<Card> cards(SplittableRandom random, int count) {
+        List<Card> cards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cards.add(card(random));
+        }
+        return cards;
+    }
+
+    /**
+     * @return card producing resources for free, or transforming some resources into others
+     */
+    static Card card(SplittableRandom random) {
+        int pollutionSpaces = random.nextInt(3);
+        Effect upper = switch (random.nextInt(3)) {
+            case 0 -> new TransformationFixed(List.of(), goods(random, 1), 0);
+            case 1 -> new TransformationFixed(goods(random, 1 + random.nextInt(2)), goods(random, 1), random.nextInt(2));
+            default -> new ArbitraryBasic(1 + random.nextInt(2), goods(random, 1), 0);
+        };
+        if (random.nextInt(4) == 0) {
+            return new Card(pollutionSpaces, upper, new ArbitraryInOut(2, 2, 1));
+        }
+        return new Card(pollutionSpaces, upper);
+    }
+
+    private static List<Resource> goods(SplittableRandom random, int count) {
+        List<Resource> resources = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            resources.add(GOODS[random.nextInt(GOODS.length)]);
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,87 @@
+package main.java.com.terrafutura.simulation;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.LegalActivationGenerator;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * Plays random moves: takes a random visible card to a random free position, sometimes discards first,
+ * and activates cards, starting from a random one, until no card can be activated.
+ * The activation of a card is drawn uniformly from all its legal activations by {@link LegalActivationGenerator}.
+ */
+public class RandomPolicy implements PlayerPolicy {
+    /**
+     * Visible cards of each deck to choose from.
+     */
+    public static final int VISIBLE_CARDS = Pile.VISIBLE;
+
+    private final LegalActivationGenerator generator = new LegalActivationGenerator();
+    private final double discardProbability;
+
+    public RandomPolicy() {
+        this(0.25);
+    }
+
+    /**
+     * @param discardProbability chance to discard the last card of a random deck before taking a card
+     */
+    public RandomPolicy(double discardProbability) {
+        this.discardProbability = discardProbability;
+    }
+
+    @Override
+    public Optional<Deck> discard(Game game, Player self, SplittableRandom random) {
+        return random.nextDouble() < discardProbability ? Optional.of(randomDeck(random)) : Optional.empty();
+    }
+
+    @Override
+    public Placement place(Game game, Player self, SplittableRandom random) {
+        List<GridPosition> free = self.g.getPlaceablePositions();
+        GridPosition destination = free.get(random.nextInt(free.size()));
+        return new Placement(new CardSource(randomDeck(random), random.nextInt(VISIBLE_CARDS)), destination);
+    }
+
+    @Override
+    public Optional<Activation> activate(Game game, Player self, SplittableRandom random) {
+        Grid grid = self.g;
+        List<GridPosition> positions = grid.getCardPositions();
+        // visit the cards in grid order, starting at a random one
+        int start = random.nextInt(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            GridPosition position = positions.get((start + i) % positions.size());
+            if (!grid.canBeActivated(position)) {
+                continue;
+            }
+            Optional<ActionBuffer> chosen = generator.sample(grid.getCard(position).orElseThrow(), grid, random);
+            if (chosen.isPresent()) {
+                return Optional.of(new Activation(position, chosen.get()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public int selectActivationPattern(Game game, Player self, SplittableRandom random) {
+        return random.nextInt(2);
+    }
+
+    @Override
+    public int selectScoring(Game game, Player self, SplittableRandom random) {
+        return random.nextInt(2);
+    }
+
+    private static Deck randomDeck(SplittableRandom random) {
+        Deck[] decks = Deck.values();
+        return decks[random.nextInt(decks.length)];
+    }
+}
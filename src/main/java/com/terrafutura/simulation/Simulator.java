@@ -0,0 +1,363 @@
+package main.java.com.terrafutura.simulation;
+
+import main.java.com.terrafutura.board.ActivationPattern;
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.MoveCard;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.ProcessActionAssistance;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.GameState;
+import main.java.com.terrafutura.game.MoveListener;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.scoring.Points;
+import main.java.com.terrafutura.scoring.ScoringMethod;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays complete games without observers, each seat driven by a {@link PlayerPolicy}.
+ * Every game gets its own random generator derived from the run seed and the game's index, so a run is
+ * reproducible regardless of how the games are spread over threads. Games run in parallel on a fork-join pool.
+ */
+public class Simulator implements AutoCloseable {
+
+    /**
+     * Creates the players and piles of one game, using the game's random generator.
+     */
+    @FunctionalInterface
+    public interface Setup {
+        Table create(SplittableRandom random);
+    }
+
+    public record Table(List<Player> players, Map<Deck, Pile> piles) {
+    }
+
+    /**
+     * @param scores final points of every seat, empty if the game was aborted
+     */
+    public record GameResult(boolean finished, int[] scores) {
+    }
+
+    /**
+     * @param averageScores average points of every seat over the finished games
+     * @param wins finished games every seat won, ties count for all tied seats
+     */
+    public record Report(int games, int finished, long nanos, double[] averageScores, int[] wins) {
+        public double gamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("games=%d finished=%d seconds=%.3f games/sec=%.1f averageScores=%s wins=%s",
+                    games, finished, nanos / 1e9, gamesPerSecond(),
+                    Arrays.toString(averageScores), Arrays.toString(wins));
+        }
+    }
+
+    /**
+     * Steps after which a game is considered stuck, far above any real game.
+     */
+    private static final int MAX_STEPS = 10_000;
+
+    /**
+     * Games one fork-join task plays without splitting further.
+     */
+    private static final int GAMES_PER_TASK = 16;
+
+    private final Setup setup;
+    private final List<Supplier<? extends PlayerPolicy>> seats;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param setup creates the table of every game
+     * @param seats creates the policy of every seat, in the order of the players of the table
+     * @param parallelism number of threads playing games
+     */
+    public Simulator(Setup setup, List<Supplier<? extends PlayerPolicy>> seats, int parallelism) {
+        this.setup = setup;
+        this.seats = List.copyOf(seats);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Plays the given number of games.
+     *
+     * @param seed seed of the whole run
+     */
+    public Report run(int games, long seed) {
+        long start = System.nanoTime();
+        Tally tally = pool.invoke(new Batch(seed, 0, games));
+        long nanos = System.nanoTime() - start;
+        double[] averages = new double[seats.size()];
+        for (int i = 0; i < averages.length; i++) {
+            averages[i] = tally.finished == 0 ? 0 : (double) tally.scoreSums[i] / tally.finished;
+        }
+        return new Report(games, tally.finished, nanos, averages, tally.wins);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /**
+     * Plays the game with the given index of a run, on the calling thread.
+     */
+    public GameResult play(long seed, int index) {
+        return play(seed, index, null);
+    }
+
+    /**
+     * Plays the game with the given index of a run, on the calling thread.
+     *
+     * @param listener told about every move of the game, null for none
+     */
+    public GameResult play(long seed, int index, MoveListener listener) {
+        SplittableRandom random = new SplittableRandom(mix(seed + mix(index)));
+        Table table = setup.create(random);
+        List<Player> players = table.players();
+        if (players.size() != seats.size()) {
+            throw new IllegalArgumentException("Setup created " + players.size() + " players for "
+                    + seats.size() + " seats");
+        }
+        PlayerPolicy[] policies = new PlayerPolicy[players.size()];
+        for (int i = 0; i < policies.length; i++) {
+            policies[i] = seats.get(i).get();
+        }
+        Game game = newGame(table);
+        game.setMoveListener(listener);
+
+        int[] scoring = new int[players.size()];
+        for (int steps = 0; game.getState() != GameState.Finish; steps++) {
+            int seat = seat(players, game.getOnTurn());
+            if (steps == MAX_STEPS || !step(game, players.get(seat), policies[seat], random, scoring, seat)) {
+                return new GameResult(false, new int[0]);
+            }
+        }
+
+        int[] scores = new int[players.size()];
+        for (int i = 0; i < scores.length; i++) {
+            Player player = players.get(i);
+            scores[i] = (scoring[i] == 0 ? player.s1 : player.s2).getCalculatedTotal().getValue();
+        }
+        return new GameResult(true, scores);
+    }
+
+    /**
+     * Creates the table the game with the given index of a run starts from, the same {@link #play} uses.
+     * Together with the moves of the game this is enough to play it again, as long as the setup's piles
+     * draw from their own random generators.
+     */
+    public Table table(long seed, int index) {
+        return setup.create(new SplittableRandom(mix(seed + mix(index))));
+    }
+
+    /**
+     * @return game without observers on the table
+     */
+    public static Game newGame(Table table) {
+        return new Game(table.players(), table.piles(), new MoveCard(), new ProcessAction(),
+                new ProcessActionAssistance(), null);
+    }
+
+    /**
+     * Makes one decision of the player on turn.
+     *
+     * @return false if the policy chose an illegal move the game cannot continue without
+     */
+    private static boolean step(Game game, Player self, PlayerPolicy policy, SplittableRandom random,
+                                int[] scoring, int seat) {
+        switch (game.getState()) {
+            case TakeCardNoCardDiscarded -> {
+                Optional<Deck> discard = policy.discard(game, self, random);
+                if (discard.isPresent() && game.discardLastCardFromDeck(self.id, discard.get())) {
+                    return true;
+                }
+                return take(game, self, policy, random);
+            }
+            case TakeCardCardDiscarded -> {
+                return take(game, self, policy, random);
+            }
+            case ActivateCard -> {
+                Optional<PlayerPolicy.Activation> activation = policy.activate(game, self, random);
+                if (activation.isEmpty()
+                        || !game.activateCard(self.id, activation.get().card(), activation.get().action())) {
+                    return game.turnFinished(self.id);
+                }
+                return true;
+            }
+            case SelectActivationPattern -> {
+                return game.selectActivationPattern(self.id, policy.selectActivationPattern(game, self, random));
+            }
+            case SelectScoringMethod -> {
+                scoring[seat] = policy.selectScoring(game, self, random);
+                return game.selectScoring(self.id, scoring[seat]);
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private static boolean take(Game game, Player self, PlayerPolicy policy, SplittableRandom random) {
+        PlayerPolicy.Placement placement = policy.place(game, self, random);
+        return game.takeCard(self.id, placement.source(), placement.destination());
+    }
+
+    private static int seat(List<Player> players, int playerId) {
+        for (int i = 0; i < players.size(); i++) {
+            if (players.get(i).id == playerId) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("No player " + playerId);
+    }
+
+    /**
+     * Stafford's mix13 finalizer, spreading neighbouring seeds over the whole range.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Results of a range of games, merged up the fork-join tree.
+     */
+    private final class Tally {
+        int finished;
+        final long[] scoreSums = new long[seats.size()];
+        final int[] wins = new int[seats.size()];
+
+        void add(GameResult result) {
+            if (!result.finished()) {
+                return;
+            }
+            finished++;
+            int best = Integer.MIN_VALUE;
+            for (int i = 0; i < result.scores().length; i++) {
+                scoreSums[i] += result.scores()[i];
+                best = Math.max(best, result.scores()[i]);
+            }
+            for (int i = 0; i < result.scores().length; i++) {
+                if (result.scores()[i] == best) {
+                    wins[i]++;
+                }
+            }
+        }
+
+        Tally merge(Tally other) {
+            finished += other.finished;
+            for (int i = 0; i < wins.length; i++) {
+                scoreSums[i] += other.scoreSums[i];
+                wins[i] += other.wins[i];
+            }
+            return this;
+        }
+    }
+
+    private final class Batch extends RecursiveTask<Tally> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int from, to;
+
+        Batch(long seed, int from, int to) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                Tally tally = new Tally();
+                for (int i = from; i < to; i++) {
+                    tally.add(play(seed, i));
+                }
+                return tally;
+            }
+            int middle = (from + to) >>> 1;
+            Batch left = new Batch(seed, from, middle);
+            left.fork();
+            Tally right = new Batch(seed, middle, to).compute();
+            return right.merge(left.join());
+        }
+    }
+
+    /**
+     * Setup of random players with two random scoring methods and activation patterns each,
+     * drawing cards from piles of random cards. Every pile holds enough cards for all players to take all their
+     * cards from it; discarded cards are reused.
+     */
+    public static Setup randomSetup(int playerCount) {
+        return random -> {
+            List<Player> players = new ArrayList<>(playerCount);
+            for (int id = 1; id <= playerCount; id++) {
+                Grid grid = new Grid(RandomCards.card(random));
+                players.add(new Player(id, randomScoring(random), randomScoring(random),
+                        new ActivationPattern(grid, randomPattern(random)),
+                        new ActivationPattern(grid, randomPattern(random)), grid));
+            }
+            Map<Deck, Pile> piles = new EnumMap<>(Deck.class);
+            for (Deck deck : Deck.values()) {
+                // own generators, so the cards drawn do not depend on the policies' decisions
+                List<Card> cards = RandomCards.cards(random, Pile.VISIBLE + Game.TURNS * playerCount);
+                piles.put(deck, new Pile(cards, random.nextLong()));
+            }
+            return new Table(players, piles);
+        };
+    }
+
+    private static ScoringMethod randomScoring(SplittableRandom random) {
+        Resource[] resources = Resource.values();
+        List<Resource> combination = new ArrayList<>();
+        for (int i = 2 + random.nextInt(2); i > 0; i--) {
+            combination.add(resources[random.nextInt(resources.length - 1)]); // anything but pollution
+        }
+        return new ScoringMethod(combination, new Points(3 + random.nextInt(8)));
+    }
+
+    private static List<SimpleEntry<Integer, Integer>> randomPattern(SplittableRandom random) {
+        List<SimpleEntry<Integer, Integer>> pattern = new ArrayList<>();
+        for (int i = 3 + random.nextInt(3); i > 0; i--) {
+            pattern.add(new SimpleEntry<>(random.nextInt(3) - 1, random.nextInt(3) - 1));
+        }
+        return pattern;
+    }
+
+    /**
+     * Plays random games and prints the report.
+     * Arguments: number of games, number of threads, seed, number of players.
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        int playerCount = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        List<Supplier<? extends PlayerPolicy>> seats = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            seats.add(RandomPolicy::new);
+        }
+        try (Simulator simulator = new Simulator(randomSetup(playerCount), seats, threads)) {
+            System.out.println(simulator.run(games, seed));
+        }
+    }
+}
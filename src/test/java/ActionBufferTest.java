@@ -0,0 +1,59 @@
+package test.java;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.resources.Resource;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ActionBufferTest {
+
+    @Test
+    public void testEncodeRoundTrip() {
+        for (Resource resource : Resource.values()) {
+            for (int x = -2; x <= 2; x++) {
+                for (int y = -2; y <= 2; y++) {
+                    int entry = ActionBuffer.encode(resource, x, y);
+                    assertTrue(ActionBuffer.validCell(entry));
+                    assertEquals(resource, ActionBuffer.resource(entry));
+                    assertEquals(new GridPosition(x, y), ActionBuffer.position(entry));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOffBoardPositionIsInvalid() {
+        int entry = ActionBuffer.encode(Resource.Car, 3, 0);
+
+        assertFalse(ActionBuffer.validCell(entry));
+        assertEquals(Resource.Car, ActionBuffer.resource(entry));
+    }
+
+    @Test
+    public void testSetFromListsAndViews() {
+        ActionBuffer buffer = ActionBuffer.of(
+                List.of(new Pair<>(Resource.Green, new GridPosition(1, 0)),
+                        new Pair<>(Resource.Red, new GridPosition(0, 1))),
+                List.of(new Pair<>(Resource.Bulb, new GridPosition(-1, 0))),
+                List.of(new GridPosition(0, 0)));
+
+        assertEquals(List.of(Resource.Green, Resource.Red), buffer.inputResources());
+        assertEquals(List.of(Resource.Bulb), buffer.outputResources());
+        assertEquals(1, buffer.pollutionCount());
+        assertEquals(Resource.Pollution, ActionBuffer.resource(buffer.pollution(0)));
+
+        for (int i = 0; i < 20; i++) {
+            buffer.addInput(Resource.Gear, new GridPosition(0, 0));
+        }
+        assertEquals(22, buffer.inputResources().size());
+
+        buffer.clear();
+        assertTrue(buffer.inputResources().isEmpty());
+        assertEquals(0, buffer.outputCount());
+    }
+}
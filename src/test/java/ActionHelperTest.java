@@ -2,6 +2,7 @@ package test.java;
 
 import main.java.com.terrafutura.board.Grid;
 import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
 import main.java.com.terrafutura.cards.ActionHelper;
 import main.java.com.terrafutura.cards.Card;
 import main.java.com.terrafutura.cards.Pair;
@@ -513,4 +514,48 @@ public class ActionHelperTest {
 
         assertTrue("Valid distribution of pollution should return true", result);
     }
-}
\ No newline at end of file
+
+    // validateAction: fused single-pass validation
+    @Test
+    public void validateAction_ValidMovements_ReturnsTrue() {
+        validCard1.addResource(Resource.Green);
+        ActionBuffer action = new ActionBuffer()
+                .addInput(Resource.Green, new GridPosition(1, 0))
+                .addOutput(Resource.Red, new GridPosition(1, 1))
+                .addPollution(new GridPosition(1, 1));
+
+        assertTrue(actionHelper.validateAction(action, fakeGrid));
+    }
+
+    @Test
+    public void validateAction_SameResourceTakenTwice_ReturnsFalse() {
+        validCard1.addResource(Resource.Green);
+        ActionBuffer action = new ActionBuffer()
+                .addInput(Resource.Green, new GridPosition(1, 0))
+                .addInput(Resource.Green, new GridPosition(1, 0));
+
+        assertFalse("Both inputs must be available on the card together",
+                actionHelper.validateAction(action, fakeGrid));
+
+        validCard1.addResource(Resource.Green);
+        assertTrue(actionHelper.validateAction(action, fakeGrid));
+    }
+
+    @Test
+    public void validateAction_EmptyOrInvalidPosition_ReturnsFalse() {
+        assertFalse(actionHelper.validateAction(
+                new ActionBuffer().addOutput(Resource.Red, new GridPosition(2, 2)), fakeGrid));
+        assertFalse(actionHelper.validateAction(
+                new ActionBuffer().addPollution(new GridPosition(3, 0)), fakeGrid));
+        // scratch is cleared after an early exit
+        assertTrue(actionHelper.validateAction(
+                new ActionBuffer().addOutput(Resource.Red, new GridPosition(1, 1)), fakeGrid));
+    }
+
+    @Test
+    public void validateAction_FullPollutionCard_ReturnsFalse() {
+        ActionBuffer action = new ActionBuffer().addPollution(new GridPosition(-1, -1));
+
+        assertFalse(actionHelper.validateAction(action, fakeGrid));
+    }
+}
@@ -0,0 +1,89 @@
+package test.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.ActivationJournal;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.resources.Resource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ActivationJournalTest {
+
+    private ActivationJournal journal;
+    private ProcessAction processAction;
+    private Grid grid;
+    private Card active;
+    private Card source;
+
+    private final GridPosition activePos = new GridPosition(0, 0);
+    private final GridPosition sourcePos = new GridPosition(1, 0);
+
+    @Before
+    public void setUp() {
+        journal = new ActivationJournal();
+        processAction = new ProcessAction(journal);
+        active = new Card(0, new ArbitraryInOut(1, 1, 1));
+        source = new Card(1, new ArbitraryInOut(0, 1, 0));
+        grid = new Grid(active);
+        grid.putCard(sourcePos, source);
+        source.putResources(List.of(Resource.Green, Resource.Green));
+    }
+
+    private ActionBuffer greenToRedWithPollution() {
+        return new ActionBuffer()
+                .addInput(Resource.Green, sourcePos)
+                .addOutput(Resource.Red, activePos)
+                .addPollution(activePos);
+    }
+
+    @Test
+    public void testUndoRestoresResourcesAndBlockedFlag() {
+        String activeBefore = active.state();
+        String sourceBefore = source.state();
+
+        assertTrue(processAction.activateCard(active, grid, greenToRedWithPollution()));
+        assertTrue(active.state().contains("isBlockedByPollution=true"));
+        assertEquals(1, journal.depth());
+
+        assertTrue(processAction.undo());
+        assertEquals(activeBefore, active.state());
+        assertEquals(sourceBefore, source.state());
+        assertEquals(0, journal.depth());
+        assertFalse(processAction.undo());
+    }
+
+    @Test
+    public void testUndoRevertsLatestActivationOnly() {
+        ActionBuffer produce = new ActionBuffer().addOutput(Resource.Car, sourcePos);
+        assertTrue(processAction.activateCard(source, grid, produce));
+        String afterFirst = source.state();
+        assertTrue(processAction.activateCard(source, grid, produce));
+        assertEquals(2, source.getResourceCount(Resource.Car));
+
+        processAction.undo();
+        assertEquals(afterFirst, source.state());
+        processAction.undo();
+        assertEquals(0, source.getResourceCount(Resource.Car));
+    }
+
+    @Test
+    public void testRejectedActivationIsNotJournaled() {
+        ActionBuffer impossible = new ActionBuffer().addInput(Resource.Car, sourcePos).addOutput(Resource.Red, activePos);
+
+        assertFalse(processAction.activateCard(active, grid, impossible));
+        assertEquals(0, journal.depth());
+    }
+
+    @Test
+    public void testUndoWithoutJournalThrows() {
+        assertThrows(IllegalStateException.class, () -> new ProcessAction().undo());
+    }
+}
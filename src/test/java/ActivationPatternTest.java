@@ -74,6 +74,15 @@ public class ActivationPatternTest {
     }
 
 
+    @Test
+    public void testStateCachedUntilSelected() {
+        String before = activationPattern.state();
+        assertSame(before, activationPattern.state());
+        activationPattern.select();
+        assertNotSame(before, activationPattern.state());
+        checkStateString("(0,0)(0,0)(-1,1)", true);
+    }
+
     @Test
     public void testPatternCannotBeActivatedTwice() {
         activationPattern.select();
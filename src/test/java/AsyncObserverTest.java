@@ -0,0 +1,213 @@
+package test.java;
+
+import main.java.com.terrafutura.api.TerraFuturaObserverInterface;
+import main.java.com.terrafutura.game.AsyncObserver;
+import main.java.com.terrafutura.game.AsyncObserver.Backpressure;
+import main.java.com.terrafutura.game.GameObserver;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncObserverTest {
+
+    /**
+     * Records states, optionally waiting on a gate before returning.
+     */
+    private static class SlowObserver implements TerraFuturaObserverInterface {
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate;
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        SlowObserver(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void notify(String gameState) {
+            entered.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(gameState);
+        }
+    }
+
+    @Test
+    public void testDeliversInOrder() throws InterruptedException {
+        SlowObserver target = new SlowObserver(new CountDownLatch(0));
+        AsyncObserver observer = new AsyncObserver(target, 8, Backpressure.BLOCK);
+        for (int i = 0; i < 5; i++) {
+            observer.notify("s" + i);
+        }
+        observer.close();
+        assertEquals(List.of("s0", "s1", "s2", "s3", "s4"), target.received);
+        AsyncObserver.Metrics metrics = observer.metrics();
+        assertEquals(5, metrics.delivered());
+        assertEquals(0, metrics.queueDepth());
+        assertTrue(metrics.maxLatencyNanos() >= metrics.averageLatencyNanos());
+    }
+
+    @Test
+    public void testSlowObserverDoesNotBlockCaller() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        SlowObserver target = new SlowObserver(gate);
+        AsyncObserver observer = new AsyncObserver(target, 2, Backpressure.DROP);
+
+        observer.notify("first");
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+        observer.notify("second");
+        observer.notify("third");
+        observer.notify("fourth");
+
+        AsyncObserver.Metrics metrics = observer.metrics();
+        assertEquals(2, metrics.queueDepth());
+        assertEquals(1, metrics.dropped());
+
+        gate.countDown();
+        assertTrue(observer.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second", "third"), target.received);
+        observer.close();
+    }
+
+    @Test
+    public void testCoalesceKeepsLatest() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        SlowObserver target = new SlowObserver(gate);
+        AsyncObserver observer = new AsyncObserver(target, 2, Backpressure.COALESCE);
+
+        observer.notify("first");
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+        observer.notify("second");
+        observer.notify("third");
+        observer.notify("fourth");
+
+        gate.countDown();
+        observer.close();
+        assertEquals(List.of("first", "fourth"), target.received);
+        assertEquals(2, observer.metrics().coalesced());
+    }
+
+    @Test
+    public void testBlockWaitsForSpace() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        SlowObserver target = new SlowObserver(gate);
+        AsyncObserver observer = new AsyncObserver(target, 1, Backpressure.BLOCK);
+
+        observer.notify("first");
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+        observer.notify("second");
+
+        CountDownLatch sent = new CountDownLatch(1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            observer.notify("third");
+            sent.countDown();
+        });
+        assertFalse(sent.await(100, TimeUnit.MILLISECONDS));
+
+        gate.countDown();
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        producer.join();
+        observer.close();
+        assertEquals(List.of("first", "second", "third"), target.received);
+    }
+
+    @Test
+    public void testCloseDropsBlockedState() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        SlowObserver target = new SlowObserver(gate);
+        AsyncObserver observer = new AsyncObserver(target, 1, Backpressure.BLOCK);
+
+        observer.notify("first");
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+        observer.notify("second");
+
+        CountDownLatch sent = new CountDownLatch(1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            observer.notify("third");
+            sent.countDown();
+        });
+        assertFalse(sent.await(100, TimeUnit.MILLISECONDS));
+
+        Thread closer = Thread.ofVirtual().start(observer::close);
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+        gate.countDown();
+        producer.join();
+        closer.join();
+        assertEquals(List.of("first", "second"), target.received);
+        assertEquals(1, observer.metrics().dropped());
+    }
+
+    @Test
+    public void testFailingObserverKeepsDraining() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        AsyncObserver observer = new AsyncObserver(state -> {
+            if (state.equals("bad")) {
+                throw new IllegalStateException("client gone");
+            }
+            received.add(state);
+        }, 4, Backpressure.BLOCK);
+
+        observer.notify("bad");
+        observer.notify("good");
+        observer.close();
+        assertEquals(List.of("good"), received);
+        assertEquals(1, observer.metrics().failed());
+        observer.notify("late");
+        assertEquals(List.of("good"), received);
+        assertEquals(1, observer.metrics().dropped());
+    }
+
+    @Test
+    public void testObserverErrorDoesNotStopDraining() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        AsyncObserver observer = new AsyncObserver(state -> {
+            if (state.equals("bad")) {
+                throw new AssertionError("broken observer");
+            }
+            received.add(state);
+        }, 1, Backpressure.BLOCK);
+
+        observer.notify("bad");
+        observer.notify("good");
+        assertTrue(observer.awaitIdle(5, TimeUnit.SECONDS));
+        assertEquals(List.of("good"), received);
+        assertEquals(1, observer.metrics().failed());
+        observer.close();
+    }
+
+    @Test
+    public void testInterruptedCloseKeepsFlag() {
+        CountDownLatch gate = new CountDownLatch(1);
+        SlowObserver target = new SlowObserver(gate);
+        AsyncObserver observer = new AsyncObserver(target, 4, Backpressure.BLOCK);
+        observer.notify("s0");
+
+        Thread.currentThread().interrupt();
+        observer.close();
+        assertTrue(Thread.interrupted());
+        observer.notify("late");
+        assertEquals(1, observer.metrics().dropped());
+
+        gate.countDown();
+        observer.close();
+        assertEquals(List.of("s0"), target.received);
+    }
+
+    @Test
+    public void testGameObserverWithWrappedObservers() throws Exception {
+        SlowObserver target = new SlowObserver(new CountDownLatch(0));
+        Map<Integer, TerraFuturaObserverInterface> wrapped =
+                AsyncObserver.wrapAll(Map.of(1, target), 4, Backpressure.BLOCK);
+        new GameObserver(wrapped).notifyAll(Map.of(1, "state"));
+        ((AsyncObserver) wrapped.get(1)).close();
+        assertEquals(List.of("state"), target.received);
+    }
+}
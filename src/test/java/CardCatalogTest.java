@@ -0,0 +1,119 @@
+package test.java;
+
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.CardCatalog;
+import main.java.com.terrafutura.cards.CardDefinition;
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.cards.effects.EffectOr;
+import main.java.com.terrafutura.cards.effects.TransformationFixed;
+import main.java.com.terrafutura.codec.DefinitionTable;
+import main.java.com.terrafutura.codec.SnapshotCodec;
+import main.java.com.terrafutura.resources.Resource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class CardCatalogTest {
+
+    private CardCatalog.Builder builder;
+
+    @Before
+    public void setUp() {
+        builder = CardCatalog.builder();
+    }
+
+    @Test
+    public void testEqualEffectsAreInterned() {
+        Effect car = builder.transformation(List.of(Resource.Red), List.of(Resource.Car), 0, false);
+        assertSame(car, builder.transformation(List.of(Resource.Red), List.of(Resource.Car), 0, false));
+        assertNotSame(car, builder.transformation(List.of(Resource.Red), List.of(Resource.Car), 1, false));
+        assertNotSame(car, builder.transformation(List.of(Resource.Red), List.of(Resource.Car), 0, true));
+        assertTrue(builder.transformation(List.of(), List.of(Resource.Car), 0, true).hasAssistance());
+
+        Effect exchange = builder.arbitraryInOut(1, 1, 0, false);
+        assertSame(exchange, builder.arbitraryInOut(1, 1, 0, false));
+        assertSame(builder.arbitraryBasic(2, List.of(Resource.Gear), 0, false),
+                builder.arbitraryBasic(2, List.of(Resource.Gear), 0, false));
+        assertSame(builder.arbitraryOutput(List.of(Resource.Bulb), 2, 1, false),
+                builder.arbitraryOutput(List.of(Resource.Bulb), 2, 1, false));
+
+        Effect or = builder.or(List.of(car, exchange));
+        assertSame(or, builder.or(List.of(car, exchange)));
+        assertNotSame(or, builder.or(List.of(exchange, car)));
+        assertEquals(9, builder.effectCount());
+    }
+
+    @Test
+    public void testCardsShareDefinitionButNotResources() {
+        Effect upper = builder.transformation(List.of(), List.of(Resource.Green), 0, false);
+        Effect lower = builder.arbitraryInOut(2, 2, 1, false);
+        CardDefinition farm = builder.define("farm", 2, Optional.of(upper), Optional.of(lower));
+        builder.define("mill", 1, Optional.of(upper), Optional.empty());
+        CardCatalog catalog = builder.build();
+
+        Card first = catalog.newCard("farm");
+        Card second = farm.newCard();
+        assertSame(farm, first.getDefinition());
+        assertSame(second.getEffect().orElseThrow(), first.getEffect().orElseThrow());
+        assertSame(upper, catalog.newCard("mill").getEffect().orElseThrow());
+
+        first.putResources(List.of(Resource.Green, Resource.Pollution));
+        assertEquals(0, second.getResources().size());
+        assertTrue(first.check(List.of(), List.of(Resource.Green), 0));
+        assertTrue(first.checkLower(List.of(Resource.Red, Resource.Red), List.of(Resource.Car, Resource.Car), 1));
+
+        Card direct = new Card(2, new TransformationFixed(List.of(), List.of(Resource.Green), 0),
+                new ArbitraryInOut(2, 2, 1));
+        assertEquals(direct.state(), second.state());
+        assertEquals(2, first.getDefinition().getPollutionSpaces());
+        assertEquals(List.of("farm", "mill"), catalog.definitions().stream().map(CardDefinition::getName).toList());
+        assertEquals(List.of(upper, lower), catalog.effects());
+    }
+
+    @Test
+    public void testCatalogDefinitionsBuildTheDefinitionTable() {
+        Effect upper = builder.arbitraryBasic(1, List.of(Resource.Car, Resource.Gear), 0, false);
+        Effect lower = builder.or(List.of(upper, builder.arbitraryInOut(1, 2, 0, false)));
+        CardDefinition factory = builder.define("factory", 1, Optional.of(upper), Optional.of(lower));
+        CardCatalog catalog = builder.build();
+        SnapshotCodec codec = new SnapshotCodec(new DefinitionTable(catalog.definitions()));
+
+        Card card = catalog.newCard("factory");
+        card.putResources(List.of(Resource.Car));
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.writeCard(buffer, card);
+        buffer.flip();
+        Card decoded = codec.readCard(buffer);
+        assertSame(factory, decoded.getDefinition());
+        assertSame(upper, decoded.getEffect().orElseThrow());
+        assertSame(lower, decoded.getLowerEffect().orElseThrow());
+        assertEquals(card.state(), decoded.state());
+    }
+
+    @Test
+    public void testRejectsInvalidDefinitions() {
+        Effect own = builder.arbitraryInOut(1, 1, 0, false);
+        builder.define("a", 1, Optional.of(own), Optional.empty());
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.define("a", 1, Optional.of(own), Optional.empty()));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.define("b", -1, Optional.of(own), Optional.empty()));
+        Effect foreign = new ArbitraryInOut(1, 1, 0);
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.define("c", 1, Optional.of(foreign), Optional.empty()));
+        assertThrows(IllegalArgumentException.class, () -> builder.or(List.of(own, foreign)));
+
+        CardCatalog catalog = builder.build();
+        assertEquals(1, catalog.size());
+        assertTrue(catalog.definition("b").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> catalog.newCard("c"));
+        EffectOr or = (EffectOr) CardCatalog.builder().or(List.of());
+        assertThrows(UnsupportedOperationException.class, () -> or.getChildren().add(own));
+    }
+}
@@ -0,0 +1,129 @@
+package test.java;
+
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.CardDefinition;
+import main.java.com.terrafutura.cards.CardLoader;
+import main.java.com.terrafutura.cards.effects.EffectOr;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CardLoaderTest {
+
+    private final CardLoader loader = new CardLoader(Duration.ofSeconds(1));
+
+    private CardLoader.Loaded load(String json) throws IOException {
+        return loader.load(new StringReader(json));
+    }
+
+    private void assertRejected(String json, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> load(json));
+        assertTrue(e.getMessage(), e.getMessage().contains(message));
+    }
+
+    @Test
+    public void testLoadsCardsAndInternsEffects() throws IOException {
+        CardLoader.Loaded loaded = load("""
+                [
+                  {"name": "farm", "pollutionSpaces": 1, "deck": "I", "copies": 2,
+                   "effect": {"type": "transformation", "from": [], "to": ["Green"]}},
+                  {"name": "mill", "pollutionSpaces": 2, "deck": "II",
+                   "effect": {"type": "or", "of": [
+                     {"type": "transformation", "from": [], "to": ["Green"]},
+                     {"type": "arbitraryOutput", "from": ["Red"], "to": 2, "pollution": 1}]},
+                   "lowerEffect": {"type": "arbitraryInOut", "in": 2, "out": 2, "assistance": true}},
+                  {"name": "start", "pollutionSpaces": 0,
+                   "effect": {"type": "arbitraryBasic", "from": 1, "to": ["Car"]}}
+                ]""");
+
+        assertEquals(3, loaded.catalog().size());
+        assertEquals(5, loaded.catalog().effects().size());
+        CardDefinition farm = loaded.catalog().definition("farm").orElseThrow();
+        CardDefinition mill = loaded.catalog().definition("mill").orElseThrow();
+        EffectOr or = (EffectOr) mill.getEffect().orElseThrow();
+        assertSame(farm.getEffect().orElseThrow(), or.getChildren().get(0));
+        assertTrue(mill.hasAssistance());
+        assertEquals(2, mill.getPollutionSpaces());
+
+        assertEquals(List.of(farm, farm), loaded.decks().get(Deck.I));
+        assertEquals(List.of(mill), loaded.decks().get(Deck.II));
+        List<Card> cards = loaded.newCards(Deck.I);
+        assertEquals(2, cards.size());
+        assertNotSame(cards.get(0), cards.get(1));
+        assertTrue(cards.get(0).check(List.of(), List.of(Resource.Green), 0));
+        assertTrue(loaded.catalog().newCard("mill").check(List.of(Resource.Red), List.of(Resource.Car, Resource.Car), 1));
+
+        Pile pile = loaded.newPile(Deck.I, 3);
+        assertTrue(pile.getCard(1).isPresent());
+        assertTrue(pile.getCard(2).isEmpty());
+        assertTrue(loaded.withinBudget());
+        assertTrue(loaded.report(), loaded.report().startsWith("3 cards, 5 effects loaded in "));
+    }
+
+    @Test
+    public void testLoadsBundledCards() throws IOException {
+        CardLoader.Loaded loaded = loader.load(Path.of("src/main/resources/cards.json"));
+        assertTrue(loaded.catalog().size() > 10);
+        assertTrue(loaded.catalog().effects().size() < 3 * loaded.catalog().size());
+        for (Deck deck : Deck.values()) {
+            assertTrue(loaded.newCards(deck).size() >= Pile.VISIBLE + 8);
+        }
+        assertTrue(loaded.catalog().definition("Start").isPresent());
+    }
+
+    @Test
+    public void testRejectsInvalidDefinitions() {
+        assertRejected("{}", "Expected an array of cards");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1}] x", "Unexpected content");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1} {}]", "Expected ',' or ']'");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1", "Card 0");
+        assertRejected("[42]", "Card 0: expected an object");
+        assertRejected("[{\"pollutionSpaces\": 1}]", "name must be");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": -1}]", "Card 0 (a): pollutionSpaces");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1.5}]", "pollutionSpaces");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpace\": 1}]", "unknown key pollutionSpace");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1, \"deck\": \"III\"}]", "unknown deck III");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1, \"copies\": 2}]", "copies without a deck");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1}, {\"name\": \"a\", \"pollutionSpaces\": 1}]",
+                "Card 1 (a): Card a is already defined");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1, \"effect\": {\"type\": \"magic\"}}]",
+                "unknown effect type magic");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1,"
+                + " \"effect\": {\"type\": \"transformation\", \"from\": [\"Gold\"], \"to\": []}}]",
+                "effect: from has unknown resource Gold");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1,"
+                + " \"effect\": {\"type\": \"arbitraryInOut\", \"in\": 1}}]", "effect: out must be");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1,"
+                + " \"lowerEffect\": {\"type\": \"or\", \"of\": [{\"type\": \"arbitraryInOut\", \"in\": 1, \"out\": 1,"
+                + " \"assistance\": \"yes\"}]}}]", "lowerEffect.of[0]: assistance must be true or false");
+        assertRejected("[{\"name\": \"a\", \"pollutionSpaces\": 1,"
+                + " \"effect\": {\"type\": \"or\", \"of\": [], \"pollution\": 1}}]", "unknown key pollution");
+    }
+
+    @Test
+    public void testReadErrorsStayIOExceptions() {
+        Reader failing = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("disk gone");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        IOException e = assertThrows(IOException.class, () -> loader.load(failing));
+        assertEquals("disk gone", e.getMessage());
+        assertThrows(IOException.class, () -> loader.loadResource("/no-such-cards.json"));
+    }
+}
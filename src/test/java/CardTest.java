@@ -113,6 +113,19 @@ public class CardTest {
         assertTrue(card.canPutResources(List.of(Resource.Green)));
     }
 
+    @Test
+    public void testFullOfPollutionIsNotBlocked() {
+        Card card = new Card(2,
+                Optional.of(new AllowEffect()),
+                Optional.empty());
+
+        card.putResources(List.of(Resource.Car, Resource.Pollution, Resource.Pollution));
+        assertFalse(card.isBlockedByPollution());
+
+        card.putResources(List.of(Resource.Pollution));
+        assertTrue(card.isBlockedByPollution());
+    }
+
     @Test
     public void testCheckUpperEffectUsed() {
         Card card = new Card(2,
@@ -139,4 +152,66 @@ public class CardTest {
 
         assertTrue(card.hasAssistance());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testResourceCountsAndView() {
+        Card card = new Card(2,
+                Optional.of(new AllowEffect()),
+                Optional.empty());
+
+        card.putResources(List.of(Resource.Red, Resource.Green, Resource.Red));
+        assertEquals(2, card.getResourceCount(Resource.Red));
+        assertEquals(List.of(Resource.Green, Resource.Red, Resource.Red), card.getResources());
+
+        card.removeResource(Resource.Red);
+        card.removeResource(Resource.Car); // not present, ignored
+        assertEquals(1, card.getResourceCount(Resource.Red));
+        assertEquals(2, card.getResources().size());
+        assertTrue(card.canGetResources(List.of(Resource.Green)));
+        assertFalse(card.canGetResources(List.of(Resource.Car)));
+    }
+
+    @Test
+    public void testCanGetResourcesCountsDuplicates() {
+        Card card = new Card(1,
+                Optional.of(new AllowEffect()),
+                Optional.empty());
+
+        card.putResources(List.of(Resource.Green));
+        assertFalse(card.canGetResources(List.of(Resource.Green, Resource.Green)));
+
+        card.putResources(List.of(Resource.Green));
+        assertTrue(card.canGetResources(List.of(Resource.Green, Resource.Green)));
+    }
+
+    @Test
+    public void testStateCachedUntilCardChanges() {
+        Card card = new Card(1,
+                Optional.of(new AllowEffect()),
+                Optional.empty());
+
+        String before = card.state();
+        assertSame(before, card.state());
+
+        card.putResources(List.of(Resource.Car));
+        String after = card.state();
+        assertNotSame(before, after);
+        assertTrue(after.contains("Car"));
+
+        card.removeResource(Resource.Car);
+        assertEquals(before, card.state());
+    }
+
+    @Test
+    public void testCopyHasOwnResources() {
+        Card card = new Card(1, Optional.of(new AllowEffect()), Optional.empty());
+        card.putResources(List.of(Resource.Car, Resource.Pollution));
+        Card copy = card.copy();
+
+        assertEquals(card.state(), copy.state());
+        assertEquals(card.canPutResources(List.of(Resource.Pollution)), copy.canPutResources(List.of(Resource.Pollution)));
+        copy.removeResource(Resource.Car);
+        assertEquals(1, card.getResourceCount(Resource.Car));
+        assertEquals(0, copy.getResourceCount(Resource.Car));
+    }
+}
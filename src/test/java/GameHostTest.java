@@ -0,0 +1,153 @@
+package test.java;
+
+import main.java.com.terrafutura.api.TerraFuturaInterface;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.game.GameHost;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.resources.Resource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class GameHostTest {
+
+    /**
+     * Game recording its commands and the threads running them, without any synchronization.
+     */
+    private static class RecordingGame implements TerraFuturaInterface {
+        final List<String> commands = new ArrayList<>();
+        final Set<String> threads = new HashSet<>();
+
+        private boolean record(String command) {
+            commands.add(command);
+            threads.add(Thread.currentThread().getName());
+            return true;
+        }
+
+        @Override
+        public boolean takeCard(int playerId, CardSource source, GridPosition destination) {
+            return record("take " + playerId);
+        }
+
+        @Override
+        public boolean discardLastCardFromDeck(int playerId, Deck deck) {
+            return record("discard " + playerId);
+        }
+
+        @Override
+        public void activateCard(int playerId, GridPosition card, List<Pair<Resource, GridPosition>> inputs,
+                                 List<Pair<Resource, GridPosition>> outputs, List<GridPosition> pollution,
+                                 Optional<Integer> otherPlayerId, Optional<GridPosition> otherCard) {
+            record("activate " + playerId);
+        }
+
+        @Override
+        public void selectReward(int playerId, Resource resource) {
+            record("reward " + playerId);
+        }
+
+        @Override
+        public boolean turnFinished(int playerId) {
+            return record("finish " + playerId);
+        }
+
+        @Override
+        public boolean selectActivationPattern(int playerId, int card) {
+            return record("pattern " + playerId);
+        }
+
+        @Override
+        public boolean selectScoring(int playerId, int card) {
+            return record("scoring " + playerId);
+        }
+    }
+
+    private GameHost host;
+
+    @Before
+    public void setUp() {
+        host = new GameHost(4);
+    }
+
+    @After
+    public void tearDown() {
+        host.close();
+    }
+
+    @Test
+    public void testCommandsRunInOrderOnOwningShard() throws Exception {
+        List<RecordingGame> games = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            RecordingGame game = new RecordingGame();
+            games.add(game);
+            ids.add(host.createGame(() -> game).get());
+        }
+        assertEquals(100, host.gameCount());
+
+        List<CompletableFuture<?>> pending = new ArrayList<>();
+        for (long id : ids) {
+            pending.add(host.takeCard(id, 1, new CardSource(Deck.I, 0), new GridPosition(1, 0)));
+            pending.add(host.activateCard(id, 1, new GridPosition(1, 0), List.of(), List.of(), List.of(),
+                    Optional.empty(), Optional.empty()));
+            pending.add(host.turnFinished(id, 1));
+            pending.add(host.selectActivationPattern(id, 2, 0));
+            pending.add(host.selectScoring(id, 2, 1));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).get();
+
+        Set<String> shardThreads = new HashSet<>();
+        for (RecordingGame game : games) {
+            assertEquals(List.of("take 1", "activate 1", "finish 1", "pattern 2", "scoring 2"), game.commands);
+            assertEquals(1, game.threads.size());
+            shardThreads.addAll(game.threads);
+        }
+        assertEquals(4, shardThreads.size());
+    }
+
+    @Test
+    public void testCommandsMayFollowCreationImmediately() throws Exception {
+        RecordingGame game = new RecordingGame();
+        long id = host.createGame(() -> game).get();
+        assertTrue(host.discardLastCardFromDeck(id, 1, Deck.II).get());
+        assertEquals(List.of("discard 1"), game.commands);
+    }
+
+    @Test
+    public void testUnknownAndRemovedGames() throws Exception {
+        long id = host.createGame(RecordingGame::new).get();
+        assertTrue(host.removeGame(id).get());
+        assertFalse(host.removeGame(id).get());
+        assertEquals(0, host.gameCount());
+        try {
+            host.turnFinished(id, 1).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testClosedHostRejectsCommands() throws Exception {
+        long id = host.createGame(RecordingGame::new).get();
+        host.close();
+        try {
+            host.turnFinished(id, 1).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+}
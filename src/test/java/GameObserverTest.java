@@ -0,0 +1,58 @@
+package test.java;
+
+import main.java.com.terrafutura.api.TerraFuturaObserverInterface;
+import main.java.com.terrafutura.game.GameObserver;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class GameObserverTest {
+
+    private static class RecordingObserver implements TerraFuturaObserverInterface {
+        final List<String> received = new ArrayList<>();
+
+        @Override
+        public void notify(String gameState) {
+            received.add(gameState);
+        }
+    }
+
+    @Test
+    public void testFullModeForwardsStates() {
+        RecordingObserver first = new RecordingObserver();
+        RecordingObserver second = new RecordingObserver();
+        GameObserver observer = new GameObserver(Map.of(1, first, 2, second));
+
+        observer.notifyAll(Map.of(1, "a", 2, "b"));
+        observer.notifyAll(Map.of(1, "a"));
+
+        assertEquals(List.of("a", "a"), first.received);
+        assertEquals(List.of("b"), second.received);
+    }
+
+    @Test
+    public void testDeltaModeSendsVersionedMessages() {
+        RecordingObserver player = new RecordingObserver();
+        GameObserver observer = new GameObserver(Map.of(1, player), 10, true);
+
+        observer.notifyAll(Map.of(1, "{\"turn\":1,\"grid\":\"x\"}"));
+        observer.notifyAll(Map.of(1, "{\"turn\":1,\"grid\":\"x\"}"));
+        observer.notifyAll(Map.of(1, "{\"turn\":2,\"grid\":\"x\"}"));
+        observer.resync(1);
+
+        assertEquals(3, player.received.size());
+        assertEquals("full", new JSONObject(player.received.get(0)).getString("type"));
+        JSONObject delta = new JSONObject(player.received.get(1));
+        assertEquals("delta", delta.getString("type"));
+        assertEquals(1, delta.getJSONArray("changes").length());
+        assertEquals("/turn", delta.getJSONArray("changes").getJSONObject(0).getString("path"));
+        JSONObject resync = new JSONObject(player.received.get(2));
+        assertEquals("full", resync.getString("type"));
+        assertEquals(2, resync.getLong("version"));
+    }
+}
@@ -0,0 +1,220 @@
+package test.java;
+
+import main.java.com.terrafutura.api.TerraFuturaObserverInterface;
+import main.java.com.terrafutura.board.ActivationPattern;
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.MoveCard;
+import main.java.com.terrafutura.cards.Pair;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.ProcessActionAssistance;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.GameObserver;
+import main.java.com.terrafutura.game.GameState;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.scoring.Points;
+import main.java.com.terrafutura.scoring.ScoringMethod;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class GameTest {
+
+    /**
+     * Endless pile of cards producing one resource without input.
+     */
+    private static class FakePile extends Pile {
+        int taken;
+        int discarded;
+
+        @Override
+        public Optional<Card> getCard(int index) {
+            return Optional.of(new Card(1, new ArbitraryInOut(0, 1, 0)));
+        }
+
+        @Override
+        public void takeCard(int index) {
+            taken++;
+        }
+
+        @Override
+        public void removeLastCard() {
+            discarded++;
+        }
+    }
+
+    private static final List<GridPosition> FREE = List.of(
+            new GridPosition(-1, -1), new GridPosition(-1, 0), new GridPosition(-1, 1), new GridPosition(0, -1),
+            new GridPosition(0, 1), new GridPosition(1, -1), new GridPosition(1, 0), new GridPosition(1, 1));
+
+    private FakePile pile;
+    private Game game;
+    private Player first, second;
+    private final List<String> firstStates = new ArrayList<>();
+
+    private Player player(int id) {
+        return player(id, new Card(1, new ArbitraryInOut(0, 1, 0)));
+    }
+
+    private Player player(int id, Card startingCard) {
+        Grid grid = new Grid(startingCard);
+        List<SimpleEntry<Integer, Integer>> pattern = List.of(new SimpleEntry<>(0, 0));
+        return new Player(id,
+                new ScoringMethod(List.of(Resource.Green), new Points(3)),
+                new ScoringMethod(List.of(Resource.Red), new Points(3)),
+                new ActivationPattern(grid, pattern), new ActivationPattern(grid, pattern), grid);
+    }
+
+    @Before
+    public void setUp() {
+        pile = new FakePile();
+        first = player(1);
+        second = player(2);
+        Map<Integer, TerraFuturaObserverInterface> observers = Map.of(1, firstStates::add);
+        game = new Game(List.of(first, second), Map.of(Deck.I, pile, Deck.II, pile), new MoveCard(),
+                new ProcessAction(), new ProcessActionAssistance(), new GameObserver(observers));
+    }
+
+    private void activate(int playerId, GridPosition card, Resource output) {
+        game.activateCard(playerId, card, List.of(), List.of(new Pair<>(output, card)), List.of(),
+                Optional.empty(), Optional.empty());
+    }
+
+    @Test
+    public void testTurnSequence() {
+        assertFalse(game.takeCard(2, new CardSource(Deck.I, 0), FREE.get(0)));
+        assertFalse(game.turnFinished(1));
+
+        assertTrue(game.discardLastCardFromDeck(1, Deck.II));
+        assertFalse(game.discardLastCardFromDeck(1, Deck.II));
+        assertEquals(GameState.TakeCardCardDiscarded, game.getState());
+        assertFalse(game.takeCard(1, new CardSource(Deck.I, 0), new GridPosition(2, 2)));
+        assertTrue(game.takeCard(1, new CardSource(Deck.I, 0), FREE.get(0)));
+        assertEquals(GameState.ActivateCard, game.getState());
+        assertEquals(1, pile.taken);
+        assertEquals(1, pile.discarded);
+
+        activate(1, FREE.get(0), Resource.Green);
+        activate(1, FREE.get(0), Resource.Green);
+        assertEquals(List.of(Resource.Green), first.g.getCard(FREE.get(0)).orElseThrow().getResources());
+
+        assertTrue(game.turnFinished(1));
+        assertEquals(2, game.getOnTurn());
+        assertEquals(GameState.TakeCardNoCardDiscarded, game.getState());
+        assertTrue(game.takeCard(2, new CardSource(Deck.II, 0), FREE.get(0)));
+        assertTrue(game.turnFinished(2));
+        assertEquals(2, game.getTurnNumber());
+        assertEquals(1, game.getOnTurn());
+
+        JSONObject state = new JSONObject(firstStates.get(firstStates.size() - 1));
+        assertEquals("TakeCardNoCardDiscarded", state.getString("gameState"));
+        assertEquals(1, state.getInt("onTurn"));
+        assertEquals(2, state.getJSONObject("grid").getJSONArray("cards").length());
+    }
+
+    @Test
+    public void testFullGame() {
+        for (int turn = 0; turn < Game.TURNS; turn++) {
+            for (Player player : List.of(first, second)) {
+                assertTrue(game.takeCard(player.id, new CardSource(Deck.I, 0), FREE.get(turn)));
+                assertTrue(game.turnFinished(player.id));
+            }
+        }
+        assertEquals(GameState.SelectActivationPattern, game.getState());
+        assertFalse(game.takeCard(1, new CardSource(Deck.I, 0), FREE.get(0)));
+
+        assertTrue(game.selectActivationPattern(1, 0));
+        activate(1, new GridPosition(0, 0), Resource.Green);
+        assertTrue(game.turnFinished(1));
+        assertEquals(GameState.SelectActivationPattern, game.getState());
+        assertTrue(game.selectActivationPattern(2, 1));
+        activate(2, new GridPosition(0, 0), Resource.Red);
+        assertTrue(game.turnFinished(2));
+
+        assertEquals(GameState.SelectScoringMethod, game.getState());
+        assertFalse(game.selectScoring(1, 2));
+        assertTrue(game.selectScoring(1, 0));
+        assertTrue(game.selectScoring(2, 0));
+        assertEquals(GameState.Finish, game.getState());
+        assertEquals(4, first.s1.getCalculatedTotal().getValue());
+        assertEquals(1, second.s1.getCalculatedTotal().getValue());
+        assertFalse(game.turnFinished(1));
+    }
+
+    @Test
+    public void testOnlyAssistingPlayerSelectsReward() {
+        List<Resource> rewards = new ArrayList<>();
+        ProcessActionAssistance assistance = new ProcessActionAssistance() {
+            @Override
+            public boolean activateCard(Card card, Grid grid, int assistingPlayer, Card assistingCard,
+                                        List<Pair<Resource, GridPosition>> inputs,
+                                        List<Pair<Resource, GridPosition>> outputs, List<GridPosition> pollution) {
+                return true;
+            }
+
+            @Override
+            public boolean canSelectReward(Resource resource) {
+                return true;
+            }
+
+            @Override
+            public void selectReward(Resource resource) {
+                rewards.add(resource);
+            }
+        };
+        game = new Game(List.of(first, second), Map.of(Deck.I, pile), new MoveCard(), new ProcessAction(),
+                assistance, null);
+        assertTrue(game.takeCard(1, new CardSource(Deck.I, 0), FREE.get(1)));
+        game.activateCard(1, FREE.get(1), List.of(), List.of(), List.of(), Optional.of(2),
+                Optional.of(new GridPosition(0, 0)));
+        assertEquals(GameState.SelectReward, game.getState());
+
+        game.selectReward(1, Resource.Green);
+        assertEquals(GameState.SelectReward, game.getState());
+        game.selectReward(2, Resource.Green);
+        assertEquals(GameState.ActivateCard, game.getState());
+        assertEquals(List.of(Resource.Green), rewards);
+
+        // who selects a pending reward is not part of the progress
+        assertThrows(IllegalArgumentException.class,
+                () -> game.restoreProgress(new Game.Progress(GameState.SelectReward, 0, 1, false)));
+    }
+
+    @Test
+    public void testCardFullOfPollutionIsScored() {
+        Card polluted = new Card(2, new ArbitraryInOut(0, 1, 0));
+        polluted.putResources(List.of(Resource.Car, Resource.Pollution, Resource.Pollution));
+        first = player(1, polluted);
+        game = new Game(List.of(first, second), Map.of(Deck.I, pile), new MoveCard(),
+                new ProcessAction(), new ProcessActionAssistance(), null);
+        for (int turn = 0; turn < Game.TURNS; turn++) {
+            for (Player player : List.of(first, second)) {
+                assertTrue(game.takeCard(player.id, new CardSource(Deck.I, 0), FREE.get(turn)));
+                assertTrue(game.turnFinished(player.id));
+            }
+        }
+        for (Player player : List.of(first, second)) {
+            assertTrue(game.selectActivationPattern(player.id, 0));
+            assertTrue(game.turnFinished(player.id));
+        }
+
+        assertFalse(polluted.isBlockedByPollution());
+        assertTrue(game.selectScoring(1, 0));
+        // a car and two pollution; a third pollution would block the card
+        assertEquals(4, first.s1.getCalculatedTotal().getValue());
+    }
+}
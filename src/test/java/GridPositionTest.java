@@ -0,0 +1,39 @@
+package test.java;
+
+import main.java.com.terrafutura.board.GridPosition;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class GridPositionTest {
+
+    @Test
+    public void testBoardPositionsAreShared() {
+        assertSame(GridPosition.of(-2, 1), GridPosition.of(-2, 1));
+        assertEquals(new GridPosition(-2, 1), GridPosition.of(-2, 1));
+        assertEquals(new GridPosition(-2, 1).hashCode(), GridPosition.of(-2, 1).hashCode());
+    }
+
+    @Test
+    public void testOffBoardPositionsStillWork() {
+        GridPosition far = GridPosition.of(7, -3);
+
+        assertEquals(7, far.getX());
+        assertEquals(-3, far.getY());
+        assertEquals(new GridPosition(7, -3), far);
+    }
+
+    @Test
+    public void testHashSpreadsBoardPositions() {
+        Set<Integer> hashes = new HashSet<>();
+        for (int x = -2; x <= 2; x++) {
+            for (int y = -2; y <= 2; y++) {
+                hashes.add(GridPosition.of(x, y).hashCode());
+            }
+        }
+        assertEquals(25, hashes.size());
+    }
+}
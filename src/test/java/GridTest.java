@@ -0,0 +1,157 @@
+package test.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.resources.Resource;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GridTest {
+
+    private Grid grid;
+    private Card startingCard;
+
+    private static Card card() {
+        return new Card(1, new ArbitraryInOut(1, 1, 0));
+    }
+
+    @Before
+    public void setUp() {
+        startingCard = card();
+        grid = new Grid(startingCard);
+    }
+
+    @Test
+    public void testStartingCardInCenter() {
+        assertSame(startingCard, grid.getCard(new GridPosition(0, 0)).orElseThrow());
+        assertTrue(grid.getCard(new GridPosition(1, 0)).isEmpty());
+        assertTrue(grid.getCard(new GridPosition(5, 0)).isEmpty());
+    }
+
+    @Test
+    public void testPlacementMustTouchAndFitIntoThreeByThree() {
+        assertFalse(grid.canPutCard(new GridPosition(0, 0)));  // occupied
+        assertFalse(grid.canPutCard(new GridPosition(2, 0)));  // not touching
+        assertTrue(grid.canPutCard(new GridPosition(1, 1)));   // diagonal
+
+        grid.putCard(new GridPosition(1, 0), card());
+        assertTrue(grid.canPutCard(new GridPosition(-1, 0)));
+        grid.putCard(new GridPosition(-1, 0), card());
+        assertFalse(grid.canPutCard(new GridPosition(2, 0)));  // row would be 4 wide
+        assertThrows(IllegalStateException.class, () -> grid.putCard(new GridPosition(2, 0), card()));
+    }
+
+    @Test
+    public void testRowAndColumnActivatableOnceAfterPlacement() {
+        GridPosition placed = new GridPosition(0, 1);
+        grid.putCard(placed, card());
+
+        assertTrue(grid.canBeActivated(placed));
+        assertTrue(grid.canBeActivated(new GridPosition(0, 0)));
+        grid.setActivated(placed);
+        assertFalse(grid.canBeActivated(placed));
+        assertThrows(IllegalStateException.class, () -> grid.setActivated(placed));
+
+        grid.endTurn();
+        assertFalse(grid.canBeActivated(new GridPosition(0, 0)));
+    }
+
+    @Test
+    public void testActivationPatternCountsRepeats() {
+        grid.setActivationPattern(List.of(new SimpleEntry<>(0, 0), new SimpleEntry<>(0, 0), new SimpleEntry<>(1, 1)));
+        GridPosition center = new GridPosition(0, 0);
+
+        assertFalse(grid.canBeActivated(new GridPosition(1, 1))); // no card there
+        grid.setActivated(center);
+        assertTrue(grid.canBeActivated(center));
+        grid.setActivated(center);
+        assertFalse(grid.canBeActivated(center));
+    }
+
+    @Test
+    public void testPlaceablePositionsMatchCanPutCard() {
+        grid.putCard(new GridPosition(1, 1), card());
+        grid.putCard(new GridPosition(-1, 0), card());
+
+        List<GridPosition> placeable = grid.getPlaceablePositions();
+        for (int x = -2; x <= 2; x++) {
+            for (int y = -2; y <= 2; y++) {
+                GridPosition position = new GridPosition(x, y);
+                assertEquals(x + "," + y, grid.canPutCard(position), placeable.contains(position));
+            }
+        }
+        assertEquals(8, placeable.size()); // empty cells touching a card within x in [-1,1], y in [-1,2]
+        assertFalse(placeable.contains(new GridPosition(-1, 2))); // fits, but touches no card
+    }
+
+    @Test
+    public void testStateCachedUntilSomethingChanges() {
+        Card placed = card();
+        grid.putCard(new GridPosition(1, 0), placed);
+        String first = grid.state();
+        assertSame(first, grid.state());
+
+        placed.putResources(List.of(Resource.Green));
+        String afterResource = grid.state();
+        assertNotSame(first, afterResource);
+        assertTrue(afterResource.contains("Green"));
+
+        grid.setActivated(new GridPosition(1, 0));
+        JSONArray cells = new JSONObject(grid.state()).getJSONArray("cards");
+        assertEquals(2, cells.length());
+        for (int i = 0; i < cells.length(); i++) {
+            JSONObject cell = cells.getJSONObject(i);
+            boolean isPlaced = cell.getInt("x") == 1;
+            assertEquals(isPlaced, cell.getBoolean("activated"));
+            assertEquals(isPlaced ? 0 : 1, cell.getInt("activations"));
+        }
+
+        grid.endTurn();
+        assertEquals(0, new JSONObject(grid.state()).getJSONArray("cards").getJSONObject(0).getInt("activations"));
+    }
+
+    @Test
+    public void testRestoreStateRemovesLaterCardsAndActivations() {
+        grid.putCard(new GridPosition(1, 0), card());
+        int[] saved = new int[Grid.STATE_SIZE];
+        grid.saveState(saved, 0);
+        String before = grid.state();
+
+        grid.setActivated(new GridPosition(1, 0));
+        grid.putCard(new GridPosition(0, 1), card());
+        grid.setActivationPattern(List.of(new SimpleEntry<>(0, 0)));
+        grid.restoreState(saved, 0);
+
+        assertEquals(before, grid.state());
+        assertTrue(grid.getCard(new GridPosition(0, 1)).isEmpty());
+        assertTrue(grid.canPutCard(new GridPosition(0, 1)));
+        assertTrue(grid.canBeActivated(new GridPosition(1, 0)));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        Card placed = card();
+        grid.putCard(new GridPosition(1, 0), placed);
+        placed.putResources(List.of(Resource.Green));
+        Grid copy = grid.copy();
+
+        assertEquals(grid.state(), copy.state());
+        assertNotSame(placed, copy.getCard(new GridPosition(1, 0)).orElseThrow());
+
+        copy.getCard(new GridPosition(1, 0)).orElseThrow().putResources(List.of(Resource.Red));
+        copy.setActivated(new GridPosition(1, 0));
+        copy.putCard(new GridPosition(-1, 0), card());
+        assertEquals(List.of(Resource.Green), placed.getResources());
+        assertTrue(grid.canBeActivated(new GridPosition(1, 0)));
+        assertTrue(grid.getCard(new GridPosition(-1, 0)).isEmpty());
+    }
+}
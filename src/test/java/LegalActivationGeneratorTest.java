@@ -0,0 +1,212 @@
+package test.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.*;
+import main.java.com.terrafutura.cards.effects.*;
+import main.java.com.terrafutura.resources.Resource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class LegalActivationGeneratorTest {
+
+    private LegalActivationGenerator generator;
+    private Grid grid;
+    private Card start;
+    private Card left;
+    private Card right;
+
+    @Before
+    public void setUp() {
+        generator = new LegalActivationGenerator();
+        start = new Card(1, new ArbitraryBasic(List.of(Resource.Car), 0));
+        left = new Card(1, new ArbitraryInOut(0, 1, 0));
+        right = new Card(2, new TransformationFixed(List.of(Resource.Green, Resource.Green), List.of(Resource.Bulb), 1),
+                new ArbitraryOutput(List.of(Resource.Red), 2, 0));
+        grid = new Grid(start);
+        grid.putCard(new GridPosition(-1, 0), left);
+        grid.putCard(new GridPosition(1, 0), right);
+    }
+
+    /**
+     * @return activation with its entries sorted, equal for activations differing only in their order
+     */
+    private static List<Integer> key(ActionBuffer action) {
+        List<Integer> key = new ArrayList<>();
+        for (int i = 0; i < action.inputCount(); i++) key.add(action.input(i));
+        Collections.sort(key);
+        key.add(-1);
+        List<Integer> outputs = new ArrayList<>();
+        for (int i = 0; i < action.outputCount(); i++) outputs.add(action.output(i));
+        Collections.sort(outputs);
+        key.addAll(outputs);
+        key.add(-1);
+        List<Integer> pollution = new ArrayList<>();
+        for (int i = 0; i < action.pollutionCount(); i++) pollution.add(action.pollution(i));
+        Collections.sort(pollution);
+        key.addAll(pollution);
+        return key;
+    }
+
+    private List<List<Integer>> generated(Card card) {
+        return generator.stream(card, grid).map(LegalActivationGeneratorTest::key).collect(Collectors.toList());
+    }
+
+    /**
+     * Appends every multiset of at most {@code size} entries, each entry at most its cap times, to the prefix.
+     */
+    private static void multisets(List<Integer> entries, List<Integer> caps, int from, int size,
+                                  List<Integer> prefix, List<List<Integer>> into) {
+        if (from == entries.size()) {
+            into.add(new ArrayList<>(prefix));
+            return;
+        }
+        int most = Math.min(caps.get(from), size);
+        for (int n = 0; n <= most; n++) {
+            prefix.addAll(Collections.nCopies(n, entries.get(from)));
+            multisets(entries, caps, from + 1, size - n, prefix, into);
+            prefix.subList(prefix.size() - n, prefix.size()).clear();
+        }
+    }
+
+    /**
+     * @return every activation of the card with at most the given outputs and pollution that ProcessAction
+     * executes, taking any part of the resources on the grid
+     */
+    private Set<List<Integer>> bruteForce(Card card, int maxOutput, int maxPollution) {
+        List<Integer> entries = new ArrayList<>(), onGrid = new ArrayList<>(), cells = new ArrayList<>();
+        int resources = 0;
+        for (GridPosition position : grid.getCardPositions()) {
+            List<Resource> onCard = grid.getCard(position).orElseThrow().getResources();
+            for (Resource resource : Resource.values()) {
+                entries.add(ActionBuffer.encode(resource, position));
+                onGrid.add(Collections.frequency(onCard, resource));
+            }
+            cells.add(ActionBuffer.encode(Resource.Pollution, position));
+            resources += onCard.size();
+        }
+        List<Integer> unlimited = Collections.nCopies(entries.size(), Integer.MAX_VALUE);
+        List<List<Integer>> inputs = new ArrayList<>(), outputs = new ArrayList<>(), pollution = new ArrayList<>();
+        multisets(entries, onGrid, 0, resources, new ArrayList<>(), inputs);
+        multisets(entries, unlimited, 0, maxOutput, new ArrayList<>(), outputs);
+        multisets(cells, unlimited, 0, maxPollution, new ArrayList<>(), pollution);
+
+        ProcessAction processAction = new ProcessAction(new ActivationJournal());
+        Set<List<Integer>> legal = new HashSet<>();
+        for (List<Integer> input : inputs) {
+            for (List<Integer> output : outputs) {
+                for (List<Integer> polluted : pollution) {
+                    ActionBuffer action = new ActionBuffer();
+                    input.forEach(action::addInput);
+                    output.forEach(action::addOutput);
+                    polluted.forEach(action::addPollution);
+                    if (processAction.activateCard(card, grid, action)) {
+                        processAction.undo();
+                        legal.add(key(action));
+                    }
+                }
+            }
+        }
+        return legal;
+    }
+
+    private void assertMatchesBruteForce(Card card, int maxOutput, int maxPollution) {
+        List<List<Integer>> generated = generated(card);
+        assertEquals("no activation is yielded twice", generated.size(), new HashSet<>(generated).size());
+        assertEquals(bruteForce(card, maxOutput, maxPollution), new HashSet<>(generated));
+    }
+
+    @Test
+    public void testArbitraryOutputGoesToEveryCardAndResource() {
+        // any 0 -> any 1: 8 resource types, pollution included, on 3 cards
+        assertEquals(24, generator.stream(left, grid).count());
+    }
+
+    @Test
+    public void testNoResourcesMeansNoInputActivations() {
+        assertEquals(0, generator.stream(start, grid).count());
+        assertEquals(0, generator.stream(right, grid).count());
+        assertTrue(generator.sample(start, grid, new SplittableRandom(1)).isEmpty());
+    }
+
+    @Test
+    public void testFixedInputsAndPollution() {
+        left.putResources(List.of(Resource.Green));
+        start.putResources(List.of(Resource.Green));
+
+        List<ActionBuffer> actions = generator.stream(right, grid).collect(Collectors.toList());
+        // two Greens from two cards, no output or one Bulb on one of 3 cards, one pollution on one of 3 cards
+        assertEquals(12, actions.size());
+        for (ActionBuffer action : actions) {
+            assertEquals(List.of(Resource.Green, Resource.Green), action.inputResources());
+            assertTrue(action.outputResources().size() <= 1);
+            assertEquals(1, action.pollutionCount());
+        }
+    }
+
+    @Test
+    public void testYieldsExactlyTheAcceptedActivations() {
+        start.putResources(List.of(Resource.Red, Resource.Green, Resource.Green));
+        left.putResources(List.of(Resource.Red, Resource.Pollution));
+        assertMatchesBruteForce(start, 1, 0);
+        assertMatchesBruteForce(left, 1, 0);
+        // both effects accept two Greens from the grid with two outputs: one with pollution, one without
+        assertMatchesBruteForce(right, 2, 1);
+    }
+
+    @Test
+    public void testOverlappingRowsAndPollutedCards() {
+        Effect both = new EffectOr(List.of(new ArbitraryInOut(1, 1, 0),
+                new TransformationFixed(List.of(Resource.Red), List.of(Resource.Car, Resource.Gear), 0)));
+        Card overlapping = new Card(2, both, new ArbitraryInOut(1, 1, 0));
+        grid.putCard(new GridPosition(0, 1), overlapping);
+        left.putResources(List.of(Resource.Red, Resource.Pollution, Resource.Pollution)); // blocked
+        start.putResources(List.of(Resource.Pollution)); // full of pollution
+        overlapping.putResources(List.of(Resource.Red));
+
+        assertTrue(left.isBlockedByPollution());
+        assertMatchesBruteForce(overlapping, 2, 0);
+    }
+
+    @Test
+    public void testSamplesUniformly() {
+        left.putResources(List.of(Resource.Green));
+        start.putResources(List.of(Resource.Green));
+        Map<List<Integer>, Integer> counts = new HashMap<>();
+        for (List<Integer> key : generated(right)) {
+            counts.put(key, 0);
+        }
+        SplittableRandom random = new SplittableRandom(5);
+        int draws = 12_000;
+        for (int i = 0; i < draws; i++) {
+            counts.merge(key(generator.sample(right, grid, random).orElseThrow()), 1, Integer::sum);
+        }
+        assertEquals(12, counts.size());
+        for (int count : counts.values()) {
+            assertTrue("drawn " + count + " times", count > 800 && count < 1200);
+        }
+    }
+
+    @Test
+    public void testEveryGeneratedActivationIsAccepted() {
+        start.putResources(List.of(Resource.Red, Resource.Green, Resource.Green));
+        ProcessAction processAction = new ProcessAction(new ActivationJournal());
+
+        for (Card card : List.of(start, left, right)) {
+            Iterator<ActionBuffer> actions = generator.iterator(card, grid);
+            assertTrue(actions.hasNext());
+            while (actions.hasNext()) {
+                assertTrue(processAction.activateCard(card, grid, actions.next()));
+                processAction.undo();
+            }
+            assertTrue(processAction.activateCard(card, grid,
+                    generator.sample(card, grid, new SplittableRandom(3)).orElseThrow()));
+            processAction.undo();
+        }
+    }
+}
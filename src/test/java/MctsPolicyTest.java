@@ -0,0 +1,190 @@
+package test.java;
+
+import main.java.com.terrafutura.board.ActivationPattern;
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.MoveCard;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.ProcessActionAssistance;
+import main.java.com.terrafutura.cards.effects.TransformationFixed;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.scoring.Points;
+import main.java.com.terrafutura.scoring.ScoringMethod;
+import main.java.com.terrafutura.simulation.MctsPolicy;
+import main.java.com.terrafutura.simulation.PlayerPolicy;
+import main.java.com.terrafutura.simulation.RandomPolicy;
+import main.java.com.terrafutura.simulation.Simulator;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class MctsPolicyTest {
+
+    private static final MctsPolicy.Budget BUDGET = MctsPolicy.Budget.iterations(300);
+
+    /**
+     * Fixed visible cards that are never replaced.
+     */
+    private static class FixedPile extends Pile {
+        private final List<Card> cards;
+        int taken;
+
+        FixedPile(Card... cards) {
+            this.cards = List.of(cards);
+        }
+
+        @Override
+        public Optional<Card> getCard(int index) {
+            return index >= 0 && index < cards.size() ? Optional.of(cards.get(index)) : Optional.empty();
+        }
+
+        @Override
+        public void takeCard(int index) {
+            taken++;
+        }
+
+        @Override
+        public void removeLastCard() {
+        }
+    }
+
+    private static Card producer(Resource resource) {
+        return new Card(1, new TransformationFixed(List.of(), List.of(resource), 0));
+    }
+
+    /**
+     * @return card needing a bulb nobody has, so it can never be activated
+     */
+    private static Card useless() {
+        return new Card(1, new TransformationFixed(List.of(Resource.Bulb), List.of(Resource.Green), 0));
+    }
+
+    private static Player player(Grid grid, List<SimpleEntry<Integer, Integer>> a1,
+                                 List<SimpleEntry<Integer, Integer>> a2) {
+        return new Player(1,
+                new ScoringMethod(List.of(Resource.Green), new Points(1)),
+                new ScoringMethod(List.of(Resource.Car), new Points(10)),
+                new ActivationPattern(grid, a1), new ActivationPattern(grid, a2), grid);
+    }
+
+    private static Game game(Player player, Pile pile) {
+        return new Game(List.of(player), Map.of(Deck.I, pile), new MoveCard(), new ProcessAction(),
+                new ProcessActionAssistance(), null);
+    }
+
+    @Test
+    public void testTakesCardWorthActivating() {
+        Grid grid = new Grid(useless());
+        Player self = player(grid, List.of(), List.of());
+        Game game = game(self, new FixedPile(useless(), producer(Resource.Car), useless()));
+
+        PlayerPolicy.Placement placement = new MctsPolicy(BUDGET, 1).place(game, self, new SplittableRandom(1));
+        assertEquals(Deck.I, placement.source().deck);
+        assertEquals(1, placement.source().index);
+        assertTrue(grid.canPutCard(placement.destination()));
+    }
+
+    @Test
+    public void testActivatesBeforeFinishingTurn() {
+        Grid grid = new Grid(producer(Resource.Car));
+        grid.setActivationPattern(List.of(new SimpleEntry<>(0, 0)));
+        Player self = player(grid, List.of(), List.of());
+        Game game = game(self, new FixedPile());
+
+        MctsPolicy policy = new MctsPolicy(BUDGET, 1);
+        Optional<PlayerPolicy.Activation> activation = policy.activate(game, self, new SplittableRandom(2));
+        assertTrue(activation.isPresent());
+        assertEquals(new GridPosition(0, 0), activation.get().card());
+    }
+
+    @Test
+    public void testSelectsPatternActivatingMore() {
+        Grid grid = new Grid(producer(Resource.Car));
+        Player self = player(grid, List.of(new SimpleEntry<>(1, 1)),
+                List.of(new SimpleEntry<>(0, 0), new SimpleEntry<>(0, 0)));
+        Game game = game(self, new FixedPile());
+
+        assertEquals(1, new MctsPolicy(BUDGET, 1).selectActivationPattern(game, self, new SplittableRandom(3)));
+    }
+
+    @Test
+    public void testSelectsBetterScoring() {
+        Card start = producer(Resource.Car);
+        start.putResources(List.of(Resource.Car, Resource.Green));
+        Player self = player(new Grid(start), List.of(), List.of());
+
+        assertEquals(1, new MctsPolicy().selectScoring(game(self, new FixedPile()), self, new SplittableRandom(4)));
+    }
+
+    @Test
+    public void testSearchLeavesGameUntouched() {
+        Card start = producer(Resource.Car);
+        Grid grid = new Grid(start);
+        grid.setActivationPattern(List.of(new SimpleEntry<>(0, 0)));
+        Card visible = producer(Resource.Green);
+        Player self = player(grid, List.of(), List.of());
+        FixedPile pile = new FixedPile(visible);
+        Game game = game(self, pile);
+        String gridState = grid.state();
+        String cardState = visible.state();
+
+        MctsPolicy policy = new MctsPolicy(BUDGET, 2);
+        policy.place(game, self, new SplittableRandom(5));
+        policy.activate(game, self, new SplittableRandom(5));
+        policy.selectActivationPattern(game, self, new SplittableRandom(5));
+
+        assertEquals(gridState, grid.state());
+        assertEquals(cardState, visible.state());
+        assertEquals(0, pile.taken);
+        assertEquals(List.of(), start.getResources());
+        assertFalse(self.a1.isSelected());
+    }
+
+    @Test
+    public void testParallelSearchIsReproducible() {
+        Grid grid = new Grid(useless());
+        Player self = player(grid, List.of(), List.of());
+        Game game = game(self, new FixedPile(useless(), producer(Resource.Green), producer(Resource.Car)));
+
+        PlayerPolicy.Placement first = new MctsPolicy(BUDGET, 3).place(game, self, new SplittableRandom(6));
+        PlayerPolicy.Placement second = new MctsPolicy(BUDGET, 3).place(game, self, new SplittableRandom(6));
+        assertEquals(first.source().index, second.source().index);
+        assertEquals(first.destination(), second.destination());
+    }
+
+    @Test
+    public void testTimeBudgetStopsSearch() {
+        Grid grid = new Grid(useless());
+        Player self = player(grid, List.of(), List.of());
+        Game game = game(self, new FixedPile(useless(), producer(Resource.Car)));
+
+        MctsPolicy policy = new MctsPolicy(MctsPolicy.Budget.time(Duration.ofMillis(50)), 1);
+        long start = System.nanoTime();
+        policy.place(game, self, new SplittableRandom(7));
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+    }
+
+    @Test
+    public void testOutscoresRandomPolicy() {
+        List<Supplier<? extends PlayerPolicy>> seats =
+                List.of(() -> new MctsPolicy(MctsPolicy.Budget.iterations(60), 1), RandomPolicy::new);
+        try (Simulator simulator = new Simulator(Simulator.randomSetup(2), seats, 1)) {
+            Simulator.Report report = simulator.run(6, 11);
+            assertEquals(6, report.finished());
+            assertTrue(report.averageScores()[0] > report.averageScores()[1]);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package test.java;
+
+import main.java.com.terrafutura.api.TerraFuturaObserverInterface;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.MoveCard;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.ProcessActionAssistance;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.GameObserver;
+import main.java.com.terrafutura.game.GameState;
+import main.java.com.terrafutura.game.Move;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.journal.MoveJournal;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.simulation.PlayerPolicy;
+import main.java.com.terrafutura.simulation.RandomPolicy;
+import main.java.com.terrafutura.simulation.Simulator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MoveJournalTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<MoveJournal.Entry> entries(Path directory) throws IOException {
+        List<MoveJournal.Entry> entries = new ArrayList<>();
+        MoveJournal.replay(directory, entries::add);
+        return entries;
+    }
+
+    private static List<Integer> entries(ActionBuffer action) {
+        List<Integer> entries = new ArrayList<>();
+        for (int i = 0; i < action.inputCount(); i++) {
+            entries.add(action.input(i));
+        }
+        entries.add(-1);
+        for (int i = 0; i < action.outputCount(); i++) {
+            entries.add(action.output(i));
+        }
+        entries.add(-1);
+        for (int i = 0; i < action.pollutionCount(); i++) {
+            entries.add(action.pollution(i));
+        }
+        return entries;
+    }
+
+    @Test
+    public void testRebuildsRecordedGames() throws IOException {
+        List<Player> played = new ArrayList<>();
+        Simulator.Setup setup = random -> {
+            Simulator.Table table = Simulator.randomSetup(2).create(random);
+            played.addAll(table.players());
+            return table;
+        };
+        List<Supplier<? extends PlayerPolicy>> seats = List.of(RandomPolicy::new, RandomPolicy::new);
+        try (Simulator simulator = new Simulator(setup, seats, 1);
+             MoveJournal journal = MoveJournal.open(directory, 256, Duration.ofMillis(5))) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(simulator.play(4, i, journal.listener(i)).finished());
+            }
+            assertTrue(journal.size() > 3);
+        }
+
+        List<Player> rebuilt = new ArrayList<>();
+        Map<Long, Game> games;
+        try (Simulator simulator = new Simulator(Simulator.randomSetup(2), seats, 1)) {
+            games = MoveJournal.rebuild(directory, id -> {
+                Simulator.Table table = simulator.table(4, (int) id);
+                rebuilt.addAll(table.players());
+                return Simulator.newGame(table);
+            });
+        }
+        assertEquals(List.of(0L, 1L, 2L), List.copyOf(games.keySet()));
+        for (Game game : games.values()) {
+            assertEquals(GameState.Finish, game.getState());
+        }
+        assertEquals(played.size(), rebuilt.size());
+        for (int i = 0; i < played.size(); i++) {
+            assertEquals(played.get(i).g.state(), rebuilt.get(i).g.state());
+            assertArrayEquals(played.get(i).score.counts(), rebuilt.get(i).score.counts());
+        }
+    }
+
+    @Test
+    public void testMovesRoundTrip() throws IOException {
+        GridPosition card = new GridPosition(-1, 2);
+        ActionBuffer action = new ActionBuffer()
+                .addInput(Resource.Red, new GridPosition(0, 0))
+                .addOutput(Resource.Car, card)
+                .addPollution(new GridPosition(2, -2));
+        List<Move> moves = List.of(
+                new Move.TakeCard(1, Deck.II, 3, new GridPosition(2, -1)),
+                new Move.Discard(0, Deck.I),
+                new Move.Activate(1, card, action),
+                new Move.AssistedActivate(0, card, action, 1, new GridPosition(0, -2)),
+                new Move.SelectReward(0, Resource.Bulb),
+                new Move.TurnFinished(1),
+                new Move.SelectPattern(0, 1),
+                new Move.SelectScoring(1, 0));
+        try (MoveJournal journal = MoveJournal.open(directory, 16, Duration.ZERO)) {
+            for (int i = 0; i < moves.size(); i++) {
+                assertEquals(i, journal.append(7, moves.get(i)));
+            }
+        }
+
+        List<MoveJournal.Entry> entries = entries(directory);
+        assertEquals(moves.size(), entries.size());
+        for (int i = 0; i < moves.size(); i++) {
+            assertEquals(i, entries.get(i).sequence());
+            assertEquals(7, entries.get(i).gameId());
+            if (moves.get(i) instanceof Move.Activate expected) {
+                Move.Activate actual = (Move.Activate) entries.get(i).move();
+                assertEquals(expected.card(), actual.card());
+                assertEquals(entries(expected.action()), entries(actual.action()));
+            } else if (moves.get(i) instanceof Move.AssistedActivate expected) {
+                Move.AssistedActivate actual = (Move.AssistedActivate) entries.get(i).move();
+                assertEquals(expected.otherPlayerId(), actual.otherPlayerId());
+                assertEquals(expected.otherCard(), actual.otherCard());
+                assertEquals(entries(expected.action()), entries(actual.action()));
+            } else {
+                assertEquals(moves.get(i), entries.get(i).move());
+            }
+        }
+    }
+
+    @Test
+    public void testSegmentsRollOver() throws IOException {
+        try (MoveJournal journal = MoveJournal.open(directory, 4, Duration.ZERO)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(i % 2, new Move.TurnFinished(i));
+            }
+        }
+        assertEquals(3, segments().size());
+
+        try (MoveJournal journal = MoveJournal.open(directory, 4, Duration.ZERO)) {
+            assertEquals(10, journal.size());
+            assertEquals(10, journal.append(0, new Move.TurnFinished(10)));
+        }
+        List<MoveJournal.Entry> entries = entries(directory);
+        assertEquals(11, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(new Move.TurnFinished(i), entries.get(i).move());
+        }
+    }
+
+    @Test
+    public void testTornRecordIsDroppedOnRecovery() throws IOException {
+        try (MoveJournal journal = MoveJournal.open(directory, 4, Duration.ZERO)) {
+            for (int i = 0; i < 10; i++) {
+                journal.append(0, new Move.SelectPattern(i, 0));
+            }
+        }
+        // corrupt the seventh record, in the second segment
+        try (FileChannel channel = FileChannel.open(segments().get(1), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x5a}), 2L * MoveJournal.RECORD_SIZE + 40);
+        }
+        assertEquals(6, entries(directory).size());
+
+        try (MoveJournal journal = MoveJournal.open(directory, 4, Duration.ZERO)) {
+            assertEquals(6, journal.size());
+            assertEquals(6, journal.append(0, new Move.SelectScoring(6, 1)));
+        }
+        assertEquals(2, segments().size());
+        List<MoveJournal.Entry> entries = entries(directory);
+        assertEquals(7, entries.size());
+        assertEquals(new Move.SelectPattern(5, 0), entries.get(5).move());
+        assertEquals(new Move.SelectScoring(6, 1), entries.get(6).move());
+    }
+
+    @Test
+    public void testRejectsOversizedMovesAndClosedJournal() throws IOException {
+        ActionBuffer action = new ActionBuffer();
+        for (int i = 0; i <= MoveJournal.MAX_ENTRIES; i++) {
+            action.addOutput(Resource.Green, new GridPosition(0, 0));
+        }
+        MoveJournal journal = MoveJournal.open(directory, 4, Duration.ofSeconds(1));
+        assertThrows(IllegalArgumentException.class,
+                () -> journal.append(0, new Move.Activate(0, new GridPosition(0, 0), action)));
+        assertEquals(0, journal.size());
+        journal.append(0, new Move.TurnFinished(0));
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> journal.append(0, new Move.TurnFinished(0)));
+        assertEquals(1, entries(directory).size());
+    }
+
+    @Test
+    public void testFailingJournalLeavesMovesApplied() throws IOException {
+        MoveJournal journal = MoveJournal.open(directory, 4, Duration.ZERO);
+        journal.close();
+        Simulator.Table table = Simulator.randomSetup(2).create(new SplittableRandom(9));
+        Game game = Simulator.newGame(table);
+        game.setMoveListener(journal.listener(0));
+        Player first = table.players().get(0);
+        GridPosition destination = first.g.getPlaceablePositions().get(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> game.takeCard(first.id, new CardSource(Deck.I, 1), destination));
+        assertEquals(GameState.ActivateCard, game.getState());
+        assertTrue(first.g.getCard(destination).isPresent());
+        assertFalse(game.takeCard(first.id, new CardSource(Deck.I, 1), destination));
+
+        assertThrows(IllegalStateException.class, () -> game.turnFinished(first.id));
+        assertEquals(table.players().get(1).id, game.getOnTurn());
+        assertEquals(GameState.TakeCardNoCardDiscarded, game.getState());
+        assertEquals(0, entries(directory).size());
+    }
+
+    @Test
+    public void testFailingObserverDoesNotHideMoves() {
+        Simulator.Table table = Simulator.randomSetup(2).create(new SplittableRandom(9));
+        Map<Integer, TerraFuturaObserverInterface> observers = new HashMap<>();
+        for (Player player : table.players()) {
+            observers.put(player.id, state -> {
+                throw new IllegalStateException("client gone");
+            });
+        }
+        Game game = new Game(table.players(), table.piles(), new MoveCard(), new ProcessAction(),
+                new ProcessActionAssistance(), new GameObserver(observers));
+        List<Move> accepted = new ArrayList<>();
+        game.setMoveListener(accepted::add);
+        Player first = table.players().get(0);
+        GridPosition destination = first.g.getPlaceablePositions().get(0);
+
+        assertThrows(IllegalStateException.class,
+                () -> game.takeCard(first.id, new CardSource(Deck.I, 1), destination));
+        assertEquals(GameState.ActivateCard, game.getState());
+        assertThrows(IllegalStateException.class, () -> game.turnFinished(first.id));
+        assertEquals(List.of(new Move.TakeCard(first.id, Deck.I, 1, destination), new Move.TurnFinished(first.id)),
+                accepted);
+    }
+}
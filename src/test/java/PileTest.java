@@ -0,0 +1,118 @@
+package test.java;
+
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.piles.Pile;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class PileTest {
+
+    private List<Card> cards;
+
+    @Before
+    public void setUp() {
+        cards = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            cards.add(new Card(i, new ArbitraryInOut(1, 1, 0)));
+        }
+    }
+
+    private static List<Card> visible(Pile pile) {
+        List<Card> visible = new ArrayList<>();
+        for (int i = 0; pile.getCard(i).isPresent(); i++) {
+            visible.add(pile.getCard(i).get());
+        }
+        return visible;
+    }
+
+    @Test
+    public void testDealsVisibleCardsBySeed() {
+        Pile pile = new Pile(cards, 5);
+        assertEquals(Pile.VISIBLE, visible(pile).size());
+        assertEquals(cards.size() - Pile.VISIBLE, pile.hiddenCount());
+        assertEquals(visible(pile), visible(new Pile(cards, 5)));
+        assertTrue(cards.containsAll(visible(pile)));
+        assertEquals(Pile.VISIBLE, new HashSet<>(visible(pile)).size());
+    }
+
+    @Test
+    public void testTakenCardIsReplacedByNewestCard() {
+        Pile pile = new Pile(cards, 8);
+        List<Card> before = visible(pile);
+        pile.takeCard(2);
+
+        List<Card> after = visible(pile);
+        assertEquals(Pile.VISIBLE, after.size());
+        assertFalse(after.contains(before.get(2)));
+        assertEquals(List.of(before.get(0), before.get(1), before.get(3)), after.subList(1, Pile.VISIBLE));
+        assertEquals(0, pile.discardedCount());
+
+        pile.takeCard(Pile.VISIBLE);
+        pile.takeCard(-1);
+        assertEquals(after, visible(pile));
+    }
+
+    @Test
+    public void testDiscardedCardsAreReusedWhenHiddenRunOut() {
+        Pile pile = new Pile(cards, 3);
+        Set<Card> discarded = new HashSet<>();
+        for (int i = 0; i < cards.size() - Pile.VISIBLE; i++) {
+            List<Card> before = visible(pile);
+            pile.removeLastCard();
+            discarded.add(before.get(Pile.VISIBLE - 1));
+            assertEquals(before.subList(0, Pile.VISIBLE - 1), visible(pile).subList(1, Pile.VISIBLE));
+        }
+        assertEquals(0, pile.hiddenCount());
+        assertEquals(cards.size() - Pile.VISIBLE, pile.discardedCount());
+
+        pile.takeCard(0);
+        assertEquals(cards.size() - Pile.VISIBLE - 1, pile.hiddenCount());
+        assertEquals(0, pile.discardedCount());
+        assertTrue(discarded.contains(pile.getCard(0).orElseThrow()));
+    }
+
+    @Test
+    public void testRunsOutOfCards() {
+        Pile pile = new Pile(cards.subList(0, 5), 1);
+        for (int i = 0; i < 3; i++) {
+            pile.takeCard(0);
+        }
+        assertEquals(2, visible(pile).size());
+        assertEquals(0, pile.hiddenCount());
+
+        Pile empty = new Pile();
+        empty.takeCard(0);
+        empty.removeLastCard();
+        assertTrue(empty.getCard(0).isEmpty());
+    }
+
+    @Test
+    public void testContentsRestoreTheSamePile() {
+        Pile pile = new Pile(cards, 12);
+        pile.removeLastCard();
+        pile.takeCard(1);
+        Pile copy = new Pile(pile.contents());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(visible(pile), visible(copy));
+            if (i % 3 == 0) {
+                pile.takeCard(i % Pile.VISIBLE);
+                copy.takeCard(i % Pile.VISIBLE);
+            } else {
+                pile.removeLastCard();
+                copy.removeLastCard();
+            }
+        }
+        assertEquals(pile.state(), copy.state());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Pile(new Pile.Contents(1, cards.subList(0, 2), List.of(), List.of(), 0)));
+    }
+}
@@ -2,6 +2,7 @@ package test.java;
 
 import main.java.com.terrafutura.board.Grid;
 import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
 import main.java.com.terrafutura.cards.Card;
 import main.java.com.terrafutura.cards.Effect;
 import main.java.com.terrafutura.cards.Pair;
@@ -392,4 +393,29 @@ public class ProcessActionTest {
 
         assertTrue("Valid transaction with multiple pollution should return true", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void activateCard_EncodedBuffer_MovesResources() {
+        GridPosition activePos = new GridPosition(1, 0);
+        GridPosition sourcePos = new GridPosition(2, 0);
+        GridPosition targetPos = new GridPosition(-1, 0);
+        sourceCard.putResources(List.of(Resource.Green));
+
+        ActionBuffer action = new ActionBuffer()
+                .addInput(Resource.Green, sourcePos)
+                .addOutput(Resource.Red, targetPos)
+                .addPollution(activePos);
+
+        assertTrue(processAction.activateCard(activeCard, fakeGrid, action));
+        assertTrue(sourceCard.getResources().isEmpty());
+        assertEquals(List.of(Resource.Red), targetCard.getResources());
+        assertEquals(List.of(Resource.Pollution), activeCard.getResources());
+    }
+
+    @Test
+    public void activateCard_EncodedOffBoardPosition_ReturnsFalse() {
+        ActionBuffer action = new ActionBuffer().addOutput(Resource.Red, new GridPosition(3, 0));
+
+        assertFalse(processAction.activateCard(activeCard, fakeGrid, action));
+    }
+}
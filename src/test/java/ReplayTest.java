@@ -0,0 +1,165 @@
+package test.java;
+
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.CardDefinition;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.GameState;
+import main.java.com.terrafutura.game.Move;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.journal.Replay;
+import main.java.com.terrafutura.simulation.PlayerPolicy;
+import main.java.com.terrafutura.simulation.RandomPolicy;
+import main.java.com.terrafutura.simulation.Simulator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class ReplayTest {
+
+    private static final long SEED = 33;
+
+    private Simulator simulator;
+    private List<Player> played;
+    private final List<Move> moves = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        List<Player> seen = new ArrayList<>();
+        Simulator.Setup setup = random -> {
+            Simulator.Table table = Simulator.randomSetup(2).create(random);
+            seen.addAll(table.players());
+            return table;
+        };
+        List<Supplier<? extends PlayerPolicy>> seats = List.of(RandomPolicy::new, RandomPolicy::new);
+        simulator = new Simulator(setup, seats, 1);
+        assertTrue(simulator.play(SEED, 0, moves::add).finished());
+        played = List.copyOf(seen);
+    }
+
+    @After
+    public void tearDown() {
+        simulator.close();
+    }
+
+    private Replay replay(int snapshotInterval) {
+        return new Replay(moves, () -> {
+            Simulator.Table table = simulator.table(SEED, 0);
+            return new Replay.Start(table.players(), table.piles());
+        }, snapshotInterval);
+    }
+
+    /**
+     * @return progress and grids of the replayed game
+     */
+    private static String state(Replay replay) {
+        StringBuilder state = new StringBuilder(replay.game().getProgress().toString());
+        for (Player player : replay.players()) {
+            state.append(player.id).append(player.g.state()).append(player.a1.state()).append(player.a2.state())
+                    .append(player.score.projected());
+        }
+        return state.toString();
+    }
+
+    /**
+     * @return definitions of the grid cards of the replayed game
+     */
+    private static List<CardDefinition> definitions(Replay replay) {
+        List<CardDefinition> definitions = new ArrayList<>();
+        for (Player player : replay.players()) {
+            for (GridPosition position : player.g.getCardPositions()) {
+                definitions.add(player.g.getCard(position).orElseThrow().getDefinition());
+            }
+        }
+        return definitions;
+    }
+
+    @Test
+    public void testReplayEndsLikeThePlayedGame() {
+        Replay replay = replay(3);
+        assertEquals(2 * (Game.TURNS + 1), replay.turns());
+        Game game = replay.seek(replay.size());
+
+        assertEquals(GameState.Finish, game.getState());
+        assertEquals(moves.size(), replay.position());
+        for (int i = 0; i < played.size(); i++) {
+            Player expected = played.get(i), actual = replay.players().get(i);
+            assertEquals(expected.g.state(), actual.g.state());
+            assertEquals(expected.s1.getCalculatedTotal().getValue(), actual.s1.getCalculatedTotal().getValue());
+            assertEquals(expected.s2.getCalculatedTotal().getValue(), actual.s2.getCalculatedTotal().getValue());
+        }
+    }
+
+    @Test
+    public void testSeekingMatchesPlainReplay() {
+        Replay plain = replay(Integer.MAX_VALUE);
+        List<String> expected = new ArrayList<>();
+        for (int turn = 0; turn <= plain.turns(); turn++) {
+            plain.seekTurn(turn);
+            expected.add(state(plain));
+        }
+
+        Replay replay = replay(2);
+        replay.seek(replay.size()); // passes every snapshot
+        for (int turn = replay.turns(); turn >= 0; turn--) {
+            replay.seekTurn(turn);
+            assertEquals("turn " + turn, expected.get(turn), state(replay));
+        }
+        for (int turn : new int[]{7, 3, 12, 11, 0, 17, 5}) {
+            replay.seekTurn(turn);
+            assertEquals("turn " + turn, expected.get(turn), state(replay));
+        }
+    }
+
+    @Test
+    public void testSeekWithinTurnAfterRestore() {
+        Replay plain = replay(Integer.MAX_VALUE);
+        plain.seekTurn(4);
+        int middle = plain.position() + 2;
+        plain.seek(middle);
+        String expected = state(plain);
+
+        Replay replay = replay(1);
+        replay.seek(replay.size());
+        replay.seek(middle);
+        assertEquals(expected, state(replay));
+        assertEquals(middle, replay.position());
+
+        replay.seek(middle + 1);
+        plain.seek(middle + 1);
+        assertEquals(state(plain), state(replay));
+    }
+
+    @Test
+    public void testRestoredCardsShareDefinitions() {
+        Replay replay = replay(2);
+        replay.seekTurn(6);
+        List<CardDefinition> expected = definitions(replay);
+
+        replay.seek(replay.size());
+        replay.seekTurn(6); // restores the snapshot of turn 6
+        List<CardDefinition> restored = definitions(replay);
+        assertEquals(expected.size(), restored.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), restored.get(i));
+        }
+    }
+
+    @Test
+    public void testRejectsRefusedMovesAndBadTargets() {
+        Replay replay = replay(2);
+        assertThrows(IndexOutOfBoundsException.class, () -> replay.seek(moves.size() + 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> replay.seekTurn(-1));
+        assertThrows(IllegalArgumentException.class, () -> replay(0));
+
+        moves.add(1, new Move.SelectScoring(played.get(0).id, 0));
+        Replay tampered = replay(2);
+        tampered.seek(1);
+        assertThrows(IllegalStateException.class, () -> tampered.seek(2));
+    }
+}
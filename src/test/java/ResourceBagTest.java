@@ -0,0 +1,45 @@
+package test.java;
+
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.resources.ResourceBag;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ResourceBagTest {
+
+    @Test
+    public void testCountsAndSize() {
+        long bag = ResourceBag.of(List.of(Resource.Gear, Resource.Car, Resource.Gear, Resource.Pollution));
+
+        assertEquals(2, ResourceBag.count(bag, Resource.Gear));
+        assertEquals(1, ResourceBag.count(bag, Resource.Car));
+        assertEquals(1, ResourceBag.count(bag, Resource.Pollution));
+        assertEquals(0, ResourceBag.count(bag, Resource.Green));
+        assertEquals(4, ResourceBag.size(bag));
+    }
+
+    @Test
+    public void testContainsAllRespectsMultiplicity() {
+        long gearGear = ResourceBag.of(List.of(Resource.Gear, Resource.Gear));
+        long gearCar = ResourceBag.of(List.of(Resource.Gear, Resource.Car));
+        long gear = ResourceBag.of(List.of(Resource.Gear));
+
+        assertTrue(ResourceBag.containsAll(gearGear, gear));
+        assertTrue(ResourceBag.containsAll(gearGear, ResourceBag.EMPTY));
+        assertFalse(ResourceBag.containsAll(gear, gearGear));
+        assertFalse(ResourceBag.containsAll(gearGear, gearCar));
+        assertFalse(ResourceBag.containsAll(ResourceBag.EMPTY, gear));
+    }
+
+    @Test
+    public void testSaturatesInsteadOfOverflowing() {
+        long bag = ResourceBag.of(Collections.nCopies(200, Resource.Pollution));
+
+        assertEquals(ResourceBag.LANE_MAX, ResourceBag.count(bag, Resource.Pollution));
+        assertEquals(0, ResourceBag.count(bag, Resource.Money));
+    }
+}
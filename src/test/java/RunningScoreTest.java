@@ -0,0 +1,187 @@
+package test.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.ActionBuffer;
+import main.java.com.terrafutura.cards.ActivationJournal;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.ProcessAction;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.cards.effects.TransformationFixed;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.scoring.Points;
+import main.java.com.terrafutura.scoring.RunningScore;
+import main.java.com.terrafutura.scoring.ScoringMethod;
+import main.java.com.terrafutura.simulation.PlayerPolicy;
+import main.java.com.terrafutura.simulation.RandomPolicy;
+import main.java.com.terrafutura.simulation.Simulator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class RunningScoreTest {
+
+    private final ScoringMethod greens = new ScoringMethod(List.of(Resource.Green, Resource.Green), new Points(4));
+    private final ScoringMethod cars = new ScoringMethod(List.of(Resource.Car), new Points(10));
+
+    private Card start;
+    private Grid grid;
+    private RunningScore score;
+
+    @Before
+    public void setUp() {
+        start = new Card(1, new ArbitraryInOut(1, 1, 0));
+        grid = new Grid(start);
+        score = new RunningScore(grid, List.of(greens, cars));
+    }
+
+    /**
+     * @return resources on cards that are not blocked, found by scanning the grid
+     */
+    private static List<Resource> scan(Grid grid) {
+        List<Resource> resources = new ArrayList<>();
+        for (GridPosition position : grid.getCardPositions()) {
+            Card card = grid.getCard(position).orElseThrow();
+            if (!card.isBlockedByPollution()) {
+                resources.addAll(card.getResources());
+            }
+        }
+        return resources;
+    }
+
+    @Test
+    public void testFollowsResourceChanges() {
+        start.putResources(List.of(Resource.Green, Resource.Green, Resource.Car));
+        assertEquals(2, score.count(Resource.Green));
+        assertEquals(8, score.resourcePoints());
+        assertEquals(12, score.score(0));
+        assertEquals(18, score.score(1));
+        assertEquals(1, score.best());
+        assertEquals(18, score.projected());
+
+        start.removeResource(Resource.Car);
+        assertEquals(0, score.combinations(1));
+        assertEquals(0, score.best());
+        assertEquals(6, score.projected());
+    }
+
+    @Test
+    public void testCardsAlreadyPlacedAndPlacedLaterCount() {
+        Card placed = new Card(1, new ArbitraryInOut(1, 1, 0));
+        placed.putResources(List.of(Resource.Car));
+        grid.putCard(new GridPosition(1, 0), placed);
+        assertEquals(1, score.count(Resource.Car));
+
+        start.putResources(List.of(Resource.Green));
+        RunningScore late = new RunningScore(grid, List.of(cars));
+        assertEquals(7, late.resourcePoints());
+        assertEquals(17, late.projected());
+    }
+
+    @Test
+    public void testSeveralScoresFollowOneGrid() {
+        RunningScore other = new RunningScore(grid, List.of(cars));
+        start.putResources(List.of(Resource.Car));
+        grid.putCard(new GridPosition(0, 1), new Card(1, new ArbitraryInOut(1, 1, 0)));
+        grid.getCard(new GridPosition(0, 1)).orElseThrow().putResources(List.of(Resource.Green));
+        assertEquals(1, score.count(Resource.Car));
+        assertEquals(1, other.count(Resource.Green));
+
+        grid.removeCardListener(other);
+        start.putResources(List.of(Resource.Car));
+        assertEquals(2, score.count(Resource.Car));
+        assertEquals(1, other.count(Resource.Car));
+    }
+
+    @Test
+    public void testPlayerWithoutGridHasNoScore() {
+        assertNull(new Player(1, greens, cars, null, null, null).score);
+        assertNull(new Player(1, null, null, null, null, grid).score);
+    }
+
+    @Test
+    public void testBlockedCardIsExcluded() {
+        start.putResources(List.of(Resource.Car, Resource.Pollution));
+        assertEquals(5, score.resourcePoints());
+
+        start.putResources(List.of(Resource.Pollution));
+        assertFalse(start.canPutResources(List.of()));
+        assertEquals(0, score.count(Resource.Car));
+        assertEquals(0, score.resourcePoints());
+
+        start.removeResource(Resource.Pollution);
+        assertEquals(0, score.count(Resource.Car)); // still blocked until a pollution space is free again
+        start.removeResource(Resource.Pollution);
+        assertEquals(1, score.count(Resource.Car));
+        assertEquals(6, score.resourcePoints());
+    }
+
+    @Test
+    public void testCardFullOfPollutionIsScored() {
+        Card farm = new Card(2, new ArbitraryInOut(1, 1, 0));
+        grid.putCard(new GridPosition(0, 1), farm);
+        farm.putResources(List.of(Resource.Car, Resource.Pollution, Resource.Pollution));
+        assertFalse(farm.isBlockedByPollution());
+        assertEquals(1, score.count(Resource.Car));
+        assertEquals(4, score.resourcePoints());
+
+        farm.putResources(List.of(Resource.Pollution));
+        assertEquals(0, score.count(Resource.Car));
+        assertEquals(0, score.resourcePoints());
+
+        farm.removeResource(Resource.Pollution);
+        farm.removeResource(Resource.Pollution);
+        assertEquals(1, score.count(Resource.Car));
+        assertEquals(5, score.resourcePoints());
+    }
+
+    @Test
+    public void testRevertedActivationsAndPlacements() {
+        Card producer = new Card(1, new TransformationFixed(List.of(), List.of(Resource.Car), 0));
+        int[] saved = new int[Grid.STATE_SIZE];
+        grid.saveState(saved, 0);
+        grid.putCard(new GridPosition(0, 1), producer);
+
+        ProcessAction processAction = new ProcessAction(new ActivationJournal());
+        ActionBuffer action = new ActionBuffer().addOutput(Resource.Car, new GridPosition(0, 1));
+        assertTrue(processAction.activateCard(producer, grid, action));
+        assertEquals(16, score.projected());
+
+        processAction.undo();
+        assertEquals(0, score.projected());
+        producer.putResources(List.of(Resource.Car));
+        grid.restoreState(saved, 0);
+        assertEquals(0, score.count(Resource.Car));
+
+        producer.putResources(List.of(Resource.Car)); // no longer on the grid
+        assertEquals(0, score.count(Resource.Car));
+    }
+
+    @Test
+    public void testMatchesScanAfterSimulatedGames() {
+        List<Player> seen = new ArrayList<>();
+        Simulator.Setup setup = random -> {
+            Simulator.Table table = Simulator.randomSetup(2).create(random);
+            seen.addAll(table.players());
+            return table;
+        };
+        List<Supplier<? extends PlayerPolicy>> seats = List.of(RandomPolicy::new, RandomPolicy::new);
+        try (Simulator simulator = new Simulator(setup, seats, 1)) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(simulator.play(9, i).finished());
+            }
+        }
+        for (Player player : seen) {
+            int[] counts = ScoringMethod.count(scan(player.g));
+            assertArrayEquals(counts, player.score.counts());
+            assertEquals(player.s1.calculate(counts), player.score.score(0));
+            assertEquals(player.s2.calculate(counts), player.score.score(1));
+        }
+    }
+}
@@ -96,4 +96,56 @@ public class ScoringMethodTest {
 
         assertEquals(2500, method.getCalculatedTotal().getValue());
     }
+
+    @Test
+    public void testCountedResourcesScoreLikeList() {
+        ScoringMethod method = new ScoringMethod(List.of(Resource.Red, Resource.Red, Resource.Yellow), new Points(5));
+        List<Resource> res = List.of(Resource.Red, Resource.Red, Resource.Red, Resource.Red, Resource.Yellow,
+                Resource.Yellow, Resource.Car, Resource.Pollution);
+        int[] counts = ScoringMethod.count(res);
+
+        assertEquals(4, counts[Resource.Red.ordinal()]);
+        assertEquals(2, method.combinations(counts));
+        assertEquals(method.calculate(res), method.calculate(counts));
+        assertEquals(21, method.calculate(counts)); // 2 * 5 + 4 + 2 + 6 - 1
+        assertEquals(0, method.getCalculatedTotal().getValue()); // calculating does not select
+        assertEquals(2, method.required(Resource.Red));
+        assertEquals(0, method.required(Resource.Car));
+    }
+
+    @Test
+    public void testBestMethodSelected() {
+        ScoringMethod greens = new ScoringMethod(List.of(Resource.Green), new Points(2));
+        ScoringMethod cars = new ScoringMethod(List.of(Resource.Car, Resource.Car), new Points(20));
+        ScoringMethod none = new ScoringMethod(List.of(), new Points(100));
+        List<Resource> res = List.of(Resource.Green, Resource.Green, Resource.Car);
+
+        assertEquals(0, ScoringMethod.best(List.of(greens, cars, none), ScoringMethod.count(res)));
+        ScoringMethod selected = ScoringMethod.selectBestAndCalculate(List.of(cars, greens), res);
+        assertSame(greens, selected);
+        assertEquals(12, greens.getCalculatedTotal().getValue()); // 2 * 2 + 1 + 1 + 6
+        assertEquals(0, cars.getCalculatedTotal().getValue());
+
+        // ties keep the earlier method
+        assertEquals(0, ScoringMethod.best(List.of(cars, none), ScoringMethod.count(List.of())));
+    }
+
+    @Test
+    public void testBatchFindsBestOfEveryPlayer() {
+        ScoringMethod greens = new ScoringMethod(List.of(Resource.Green), new Points(2));
+        ScoringMethod cars = new ScoringMethod(List.of(Resource.Car), new Points(20));
+        int[][] counts = {
+                ScoringMethod.count(List.of(Resource.Green, Resource.Green)),
+                ScoringMethod.count(List.of(Resource.Car, Resource.Pollution)),
+                ScoringMethod.count(List.of())
+        };
+        int[] best = new int[3];
+        int[] points = new int[3];
+
+        ScoringMethod.best(List.of(List.of(greens, cars), List.of(greens, cars), List.of(cars)), counts, best, points);
+        assertArrayEquals(new int[]{0, 1, 0}, best);
+        assertArrayEquals(new int[]{6, 25, 0}, points);
+        assertThrows(IllegalArgumentException.class,
+                () -> ScoringMethod.best(List.of(List.of(greens)), counts, best, points));
+    }
 }
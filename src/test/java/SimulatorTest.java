@@ -0,0 +1,110 @@
+package test.java;
+
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.CardSource;
+import main.java.com.terrafutura.piles.Deck;
+import main.java.com.terrafutura.simulation.PlayerPolicy;
+import main.java.com.terrafutura.simulation.RandomPolicy;
+import main.java.com.terrafutura.simulation.Simulator;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class SimulatorTest {
+
+    private static final List<Supplier<? extends PlayerPolicy>> RANDOM_SEATS =
+            List.of(RandomPolicy::new, RandomPolicy::new);
+
+    /**
+     * Never activates anything and always picks the second pattern and scoring method.
+     */
+    private static class PassivePolicy extends RandomPolicy {
+        @Override
+        public Optional<Activation> activate(Game game, Player self, SplittableRandom random) {
+            return Optional.empty();
+        }
+
+        @Override
+        public int selectActivationPattern(Game game, Player self, SplittableRandom random) {
+            return 1;
+        }
+
+        @Override
+        public int selectScoring(Game game, Player self, SplittableRandom random) {
+            return 1;
+        }
+    }
+
+    @Test
+    public void testGamesFinish() {
+        try (Simulator simulator = new Simulator(Simulator.randomSetup(2), RANDOM_SEATS, 2)) {
+            Simulator.Report report = simulator.run(20, 42);
+            assertEquals(20, report.games());
+            assertEquals(20, report.finished());
+            assertTrue(report.wins()[0] + report.wins()[1] >= 20);
+            assertTrue(report.gamesPerSecond() > 0);
+        }
+    }
+
+    @Test
+    public void testRunsAreReproducible() {
+        Simulator.Report sequential, parallel;
+        try (Simulator simulator = new Simulator(Simulator.randomSetup(2), RANDOM_SEATS, 1)) {
+            sequential = simulator.run(40, 7);
+        }
+        try (Simulator simulator = new Simulator(Simulator.randomSetup(2), RANDOM_SEATS, 4)) {
+            parallel = simulator.run(40, 7);
+        }
+        assertArrayEquals(sequential.wins(), parallel.wins());
+        assertEquals(sequential.averageScores()[0], parallel.averageScores()[0], 0);
+        assertEquals(sequential.averageScores()[1], parallel.averageScores()[1], 0);
+    }
+
+    @Test
+    public void testSingleGameIsDeterministic() {
+        try (Simulator simulator = new Simulator(Simulator.randomSetup(2), RANDOM_SEATS, 1)) {
+            Simulator.GameResult first = simulator.play(3, 5);
+            Simulator.GameResult second = simulator.play(3, 5);
+            assertTrue(first.finished());
+            assertArrayEquals(first.scores(), second.scores());
+        }
+    }
+
+    @Test
+    public void testScoresComeFromSelectedMethod() {
+        List<Supplier<? extends PlayerPolicy>> seats = List.of(PassivePolicy::new);
+        Player[] seen = new Player[1];
+        Simulator.Setup setup = random -> {
+            Simulator.Table table = Simulator.randomSetup(1).create(random);
+            seen[0] = table.players().get(0);
+            return table;
+        };
+        try (Simulator simulator = new Simulator(setup, seats, 1)) {
+            Simulator.GameResult result = simulator.play(1, 0);
+            assertTrue(result.finished());
+            assertTrue(seen[0].a2.isSelected());
+            assertFalse(seen[0].a1.isSelected());
+            assertEquals(seen[0].s2.getCalculatedTotal().getValue(), result.scores()[0]);
+        }
+    }
+
+    @Test
+    public void testIllegalMoveAbortsGame() {
+        List<Supplier<? extends PlayerPolicy>> seats = List.of(() -> new RandomPolicy(0) {
+            @Override
+            public Placement place(Game game, Player self, SplittableRandom random) {
+                return new Placement(new CardSource(Deck.I, 0), self.g.getCardPositions().get(0));
+            }
+        });
+        try (Simulator simulator = new Simulator(Simulator.randomSetup(1), seats, 1)) {
+            assertFalse(simulator.play(1, 0).finished());
+            assertEquals(0, simulator.run(3, 1).finished());
+        }
+    }
+}
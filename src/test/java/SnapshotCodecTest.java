@@ -0,0 +1,324 @@
+package test.java;
+
+import main.java.com.terrafutura.board.Grid;
+import main.java.com.terrafutura.board.GridPosition;
+import main.java.com.terrafutura.cards.Card;
+import main.java.com.terrafutura.cards.CardCatalog;
+import main.java.com.terrafutura.cards.CardDefinition;
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.cards.effects.ArbitraryBasic;
+import main.java.com.terrafutura.cards.effects.ArbitraryInOut;
+import main.java.com.terrafutura.cards.effects.ArbitraryOutput;
+import main.java.com.terrafutura.cards.effects.EffectOr;
+import main.java.com.terrafutura.cards.effects.TransformationFixed;
+import main.java.com.terrafutura.codec.DefinitionTable;
+import main.java.com.terrafutura.codec.SnapshotCodec;
+import main.java.com.terrafutura.game.Game;
+import main.java.com.terrafutura.game.GameState;
+import main.java.com.terrafutura.game.Player;
+import main.java.com.terrafutura.piles.Pile;
+import main.java.com.terrafutura.resources.Resource;
+import main.java.com.terrafutura.scoring.Points;
+import main.java.com.terrafutura.scoring.ScoringMethod;
+import main.java.com.terrafutura.simulation.PlayerPolicy;
+import main.java.com.terrafutura.simulation.RandomPolicy;
+import main.java.com.terrafutura.simulation.Simulator;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+public class SnapshotCodecTest {
+
+    private final Effect producer = new TransformationFixed(List.of(), List.of(Resource.Car), 0);
+    private final Effect exchange = new ArbitraryInOut(1, 1, 0);
+    private final DefinitionTable definitions = new DefinitionTable();
+    private final SnapshotCodec codec = new SnapshotCodec(definitions);
+
+    /**
+     * @return card with the effects, its definition registered in the table of the codec
+     */
+    private Card card(int pollutionSpaces, Effect effect, Effect lowerEffect) {
+        Card card = new Card(pollutionSpaces, Optional.of(effect), Optional.ofNullable(lowerEffect));
+        definitions.register(card.getDefinition());
+        return card;
+    }
+
+    /**
+     * Plays random games and returns their players with the definitions of all grid cards registered in the table.
+     */
+    private static List<Player> playedPlayers(DefinitionTable table) {
+        List<Player> players = new ArrayList<>();
+        Simulator.Setup setup = random -> {
+            Simulator.Table created = Simulator.randomSetup(2).create(random);
+            players.addAll(created.players());
+            return created;
+        };
+        List<Supplier<? extends PlayerPolicy>> seats = List.of(RandomPolicy::new, RandomPolicy::new);
+        try (Simulator simulator = new Simulator(setup, seats, 1)) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(simulator.play(21, i).finished());
+            }
+        }
+        for (Player player : players) {
+            for (GridPosition position : player.g.getCardPositions()) {
+                table.register(player.g.getCard(position).orElseThrow().getDefinition());
+            }
+        }
+        return players;
+    }
+
+    private static void assertScoringEquals(ScoringMethod expected, ScoringMethod actual) {
+        assertEquals(expected.getResources(), actual.getResources());
+        assertEquals(expected.getPointsPerCombination().getValue(), actual.getPointsPerCombination().getValue());
+        assertEquals(expected.getCalculatedTotal().getValue(), actual.getCalculatedTotal().getValue());
+    }
+
+    @Test
+    public void testCardRoundTrip() {
+        Card card = card(1, producer, exchange);
+        card.putResources(List.of(Resource.Car, Resource.Car, Resource.Pollution, Resource.Pollution));
+        card.removeResource(Resource.Pollution); // blocked with no pollution space free
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.writeCard(buffer, card);
+        buffer.flip();
+        Card decoded = codec.readCard(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(card.state(), decoded.state());
+        assertSame(producer, decoded.getEffect().orElseThrow());
+        assertSame(exchange, decoded.getLowerEffect().orElseThrow());
+        assertFalse(decoded.canPutResources(List.of()));
+        assertEquals(2, decoded.getResourceCount(Resource.Car));
+        assertSame(card.getDefinition(), decoded.getDefinition());
+    }
+
+    @Test
+    public void testCardKeepsCatalogDefinition() {
+        CardCatalog.Builder builder = CardCatalog.builder();
+        builder.define("farm", 1, Optional.of(builder.arbitraryInOut(1, 1, 0, false)), Optional.empty());
+        builder.define("mill", 2, Optional.of(builder.arbitraryInOut(2, 1, 0, false)), Optional.empty());
+        CardCatalog catalog = builder.build();
+        SnapshotCodec codec = new SnapshotCodec(new DefinitionTable(catalog.definitions()));
+
+        Card card = catalog.newCard("mill");
+        card.putResources(List.of(Resource.Green));
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.writeCard(buffer, card);
+        buffer.flip();
+        assertEquals(2, buffer.get(buffer.position())); // the id is the index in the catalog plus one
+        Card decoded = codec.readCard(buffer);
+
+        CardDefinition mill = catalog.definition("mill").orElseThrow();
+        assertSame(mill, decoded.getDefinition());
+        assertEquals("mill", decoded.getDefinition().getName());
+        assertEquals(card.state(), decoded.state());
+    }
+
+    @Test
+    public void testCardKeepsPollutionCapacity() {
+        Card card = card(2, producer, null);
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.writeCard(buffer, card);
+        buffer.flip();
+        Card decoded = codec.readCard(buffer);
+
+        assertEquals(2, decoded.getDefinition().getPollutionSpaces());
+        decoded.putResources(List.of(Resource.Pollution, Resource.Pollution));
+        assertFalse(decoded.isBlockedByPollution());
+        decoded.putResources(List.of(Resource.Pollution));
+        assertTrue(decoded.isBlockedByPollution());
+    }
+
+    @Test
+    public void testPlayedPlayersRoundTrip() {
+        DefinitionTable table = new DefinitionTable();
+        List<Player> players = playedPlayers(table);
+        SnapshotCodec codec = new SnapshotCodec(table);
+
+        for (Player player : players) {
+            byte[] bytes = codec.toBytes(player);
+            assertTrue("snapshot of " + bytes.length + " bytes", bytes.length < 400);
+            Player decoded = codec.decode(ByteBuffer.wrap(bytes));
+
+            assertEquals(player.id, decoded.id);
+            assertEquals(player.g.state(), decoded.g.state());
+            assertEquals(player.g.getPlaceablePositions(), decoded.g.getPlaceablePositions());
+            assertEquals(player.a1.state(), decoded.a1.state());
+            assertEquals(player.a2.state(), decoded.a2.state());
+            assertScoringEquals(player.s1, decoded.s1);
+            assertScoringEquals(player.s2, decoded.s2);
+            assertArrayEquals(player.score.counts(), decoded.score.counts());
+        }
+    }
+
+    @Test
+    public void testCardOutsideTheTableKeepsItsDefinition() {
+        Effect upper = new EffectOr(new TransformationFixed(List.of(Resource.Red), List.of(Resource.Car), 1, true, 1),
+                new ArbitraryOutput(List.of(Resource.Green, Resource.Green), 2, 0));
+        Card card = new Card(2, upper, new ArbitraryBasic(2, List.of(Resource.Bulb, Resource.Gear), -1, false));
+        card.putResources(List.of(Resource.Red, Resource.Pollution));
+
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        codec.writeCard(buffer, card);
+        buffer.flip();
+        Card decoded = codec.readCard(buffer);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(card.state(), decoded.state());
+        assertEquals(2, decoded.getDefinition().getPollutionSpaces());
+        assertEquals(card.hasAssistance(), decoded.hasAssistance());
+        assertTrue(decoded.getEffect().orElseThrow().hasAssistance());
+        assertTrue(decoded.getEffect().orElseThrow().check(List.of(Resource.Red), List.of(Resource.Car), 1));
+        assertTrue(decoded.getEffect().orElseThrow().check(List.of(Resource.Green, Resource.Green),
+                List.of(Resource.Red, Resource.Red), 0));
+        assertTrue(decoded.getLowerEffect().orElseThrow().check(List.of(Resource.Red, Resource.Red),
+                List.of(Resource.Gear), -1));
+        assertFalse(decoded.getLowerEffect().orElseThrow().check(List.of(Resource.Red), List.of(Resource.Gear), -1));
+        assertEquals(0, definitions.size());
+    }
+
+    @Test
+    public void testSimulatorPlayersRoundTripWithoutTable() {
+        List<Player> players = playedPlayers(new DefinitionTable());
+        SnapshotCodec codec = new SnapshotCodec(new DefinitionTable());
+
+        for (Player player : players) {
+            Player decoded = codec.decode(ByteBuffer.wrap(codec.toBytes(player)));
+            assertEquals(player.g.state(), decoded.g.state());
+            assertArrayEquals(player.score.counts(), decoded.score.counts());
+        }
+    }
+
+    @Test
+    public void testRejectsActivationsOfEmptySlots() {
+        Grid grid = new Grid(card(1, exchange, null));
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.writeGrid(buffer, grid);
+        buffer.flip();
+        int occupied = buffer.getInt(0);
+
+        ByteBuffer pending = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.limit()));
+        pending.putInt(4, occupied << 1);
+        assertThrows(IllegalArgumentException.class, () -> codec.readGrid(pending));
+        ByteBuffer activated = ByteBuffer.wrap(Arrays.copyOf(buffer.array(), buffer.limit()));
+        activated.putInt(8, occupied | occupied << 1);
+        assertThrows(IllegalArgumentException.class, () -> codec.readGrid(activated));
+    }
+
+    @Test
+    public void testPendingActivationsSurvive() {
+        Grid grid = new Grid(card(1, exchange, null));
+        grid.putCard(new GridPosition(1, 1), card(0, producer, null));
+        grid.setActivated(new GridPosition(1, 1));
+        grid.setActivationPattern(List.of(new SimpleEntry<>(0, 0), new SimpleEntry<>(0, 0)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.writeGrid(buffer, grid);
+        buffer.flip();
+        Grid decoded = codec.readGrid(buffer);
+
+        assertEquals(grid.state(), decoded.state());
+        assertFalse(decoded.canBeActivated(new GridPosition(1, 1)));
+        decoded.setActivated(new GridPosition(0, 0));
+        decoded.setActivated(new GridPosition(0, 0));
+        assertFalse(decoded.canBeActivated(new GridPosition(0, 0)));
+    }
+
+    @Test
+    public void testScoringKeepsCalculatedTotal() {
+        ScoringMethod method = new ScoringMethod(List.of(Resource.Red, Resource.Gear), new Points(-3));
+        method.selectThisMethodAndCalculate(List.of(Resource.Red, Resource.Gear));
+
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        codec.writeScoring(buffer, method);
+        buffer.flip();
+        ScoringMethod decoded = codec.readScoring(buffer);
+        assertScoringEquals(method, decoded);
+        assertEquals(3, decoded.getCalculatedTotal().getValue());
+    }
+
+    @Test
+    public void testPileDealsTheSameAfterRoundTrip() {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            cards.add(card(i % 3, i % 2 == 0 ? producer : exchange, null));
+        }
+        cards.get(4).putResources(List.of(Resource.Green));
+        Pile pile = new Pile(cards, 17);
+        pile.takeCard(2);
+        pile.removeLastCard();
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        codec.writePile(buffer, pile);
+        buffer.flip();
+        Pile decoded = codec.readPile(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertEquals(pile.state(), decoded.state());
+
+        for (int i = 0; i < 6; i++) {
+            pile.removeLastCard();
+            decoded.removeLastCard();
+            pile.takeCard(i % Pile.VISIBLE);
+            decoded.takeCard(i % Pile.VISIBLE);
+            assertEquals(pile.state(), decoded.state());
+        }
+    }
+
+    @Test
+    public void testProgressRoundTrip() {
+        Game.Progress progress = new Game.Progress(GameState.SelectActivationPattern, 1, Game.TURNS, true);
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        codec.writeProgress(buffer, progress);
+        buffer.flip();
+        assertEquals(progress, codec.readProgress(buffer));
+        assertFalse(buffer.hasRemaining());
+
+        assertThrows(IllegalArgumentException.class, () -> codec.readProgress(ByteBuffer.wrap(new byte[]{99, 0, 1, 0})));
+    }
+
+    @Test
+    public void testRejectsUnknownInput() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        Card foreign = new Card(1, new Effect() {
+            @Override
+            public boolean check(List<Resource> input, List<Resource> output, int pollution) {
+                return false;
+            }
+
+            @Override
+            public boolean hasAssistance() {
+                return false;
+            }
+
+            @Override
+            public String state() {
+                return "custom";
+            }
+        });
+        assertThrows(IllegalArgumentException.class, () -> codec.writeCard(buffer, foreign));
+        assertThrows(IllegalArgumentException.class, () -> codec.readCard(ByteBuffer.wrap(new byte[]{5})));
+        assertThrows(IllegalArgumentException.class, () -> codec.readCard(ByteBuffer.wrap(new byte[]{0, 0, 1, 9})));
+
+        assertThrows(IllegalArgumentException.class, () -> codec.readHeader(ByteBuffer.wrap(new byte[]{0, 0, 1})));
+        ByteBuffer future = ByteBuffer.allocate(3).putShort(SnapshotCodec.MAGIC).put((byte) (SnapshotCodec.VERSION + 1));
+        future.flip();
+        assertThrows(IllegalArgumentException.class, () -> codec.readHeader(future));
+        ByteBuffer old = ByteBuffer.allocate(3).putShort(SnapshotCodec.MAGIC).put((byte) (SnapshotCodec.VERSION - 1));
+        old.flip();
+        assertThrows(IllegalArgumentException.class, () -> codec.readHeader(old));
+
+        ByteBuffer header = ByteBuffer.allocate(3);
+        codec.writeHeader(header);
+        header.flip();
+        assertEquals(SnapshotCodec.VERSION, codec.readHeader(header));
+    }
+}
@@ -0,0 +1,164 @@
+package test.java;
+
+import main.java.com.terrafutura.game.StateDeltaEncoder;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StateDeltaEncoderTest {
+
+    private static final String FIRST = "{\"grid\":{\"cards\":[{\"x\":0,\"y\":0,\"card\":\"a\"}]},\"pile\":[1,2,3],\"turn\":1}";
+    private static final String SECOND = "{\"grid\":{\"cards\":[{\"x\":0,\"y\":0,\"card\":\"b\"}]},\"pile\":[1,2,4],\"turn\":1}";
+    private static final String THIRD = "{\"grid\":{\"cards\":[{\"x\":0,\"y\":0,\"card\":\"b\"},{\"x\":1,\"y\":0,\"card\":\"c\"}]},\"pile\":[1,2,4],\"done\":true}";
+
+    /**
+     * Applies one change of a delta message, the way a client would.
+     */
+    private static void apply(JSONObject state, JSONObject change) {
+        String[] path = change.getString("path").substring(1).split("/");
+        Object parent = state;
+        for (int i = 0; i < path.length - 1; i++) {
+            parent = parent instanceof JSONObject object ? object.get(path[i]) : ((JSONArray) parent).get(Integer.parseInt(path[i]));
+        }
+        String last = path[path.length - 1];
+        if (parent instanceof JSONObject object) {
+            if (change.optBoolean("remove")) {
+                object.remove(last);
+            } else {
+                object.put(last, change.get("value"));
+            }
+        } else {
+            ((JSONArray) parent).put(Integer.parseInt(last), change.get("value"));
+        }
+    }
+
+    private static JSONObject apply(JSONObject state, String message) {
+        JSONObject delta = new JSONObject(message);
+        assertEquals("delta", delta.getString("type"));
+        JSONObject result = new JSONObject(state.toString());
+        JSONArray changes = delta.getJSONArray("changes");
+        for (int i = 0; i < changes.length(); i++) {
+            apply(result, changes.getJSONObject(i));
+        }
+        return result;
+    }
+
+    @Test
+    public void testFirstMessageIsKeyframe() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(10, true);
+        JSONObject message = new JSONObject(encoder.encode(FIRST));
+        assertEquals("full", message.getString("type"));
+        assertEquals(1, message.getLong("version"));
+        assertTrue(message.getJSONObject("state").similar(new JSONObject(FIRST)));
+    }
+
+    @Test
+    public void testDeltaContainsOnlyChangedFields() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(10, true);
+        encoder.encode(FIRST);
+        JSONObject message = new JSONObject(encoder.encode(SECOND));
+        assertEquals(2, message.getLong("version"));
+        assertEquals(1, message.getLong("base"));
+        JSONArray changes = message.getJSONArray("changes");
+        assertEquals(2, changes.length());
+        assertTrue(apply(new JSONObject(FIRST), message.toString()).similar(new JSONObject(SECOND)));
+    }
+
+    @Test
+    public void testDeltaReplacesResizedArrayAndRemovesFields() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(10, true);
+        encoder.encode(SECOND);
+        String message = encoder.encode(THIRD);
+        assertTrue(message.contains("\"remove\":true"));
+        assertTrue(apply(new JSONObject(SECOND), message).similar(new JSONObject(THIRD)));
+    }
+
+    @Test
+    public void testUnchangedStateIsNotSent() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(10, true);
+        encoder.encode(FIRST);
+        assertNull(encoder.encode(FIRST));
+        assertNull(encoder.encode(new JSONObject(FIRST).toString()));
+        assertEquals(1, encoder.version());
+    }
+
+    @Test
+    public void testPeriodicKeyframes() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(2, true);
+        assertTrue(encoder.encode(FIRST).contains("\"full\""));
+        assertTrue(encoder.encode(SECOND).contains("\"delta\""));
+        assertTrue(encoder.encode(THIRD).contains("\"full\""));
+        assertTrue(encoder.encode(FIRST).contains("\"delta\""));
+    }
+
+    @Test
+    public void testDeltasBasedOnAcknowledgedVersion() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(100, false);
+        assertTrue(encoder.encode(FIRST).contains("\"full\""));
+        // nothing acknowledged yet, so the client might not have any state
+        assertTrue(encoder.encode(SECOND).contains("\"full\""));
+
+        encoder.acknowledge(1);
+        String third = encoder.encode(THIRD);
+        assertEquals(1, new JSONObject(third).getLong("base"));
+        assertTrue(apply(new JSONObject(FIRST), third).similar(new JSONObject(THIRD)));
+
+        encoder.acknowledge(3);
+        String fourth = encoder.encode(FIRST);
+        assertEquals(3, new JSONObject(fourth).getLong("base"));
+        assertTrue(apply(new JSONObject(THIRD), fourth).similar(new JSONObject(FIRST)));
+
+        // acknowledging an older version does not move the base back
+        encoder.acknowledge(2);
+        assertEquals(3, new JSONObject(encoder.encode(SECOND)).getLong("base"));
+    }
+
+    @Test
+    public void testResyncSendsLatestState() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(10, true);
+        assertNull(encoder.resync());
+        encoder.encode(FIRST);
+        encoder.encode(SECOND);
+        JSONObject message = new JSONObject(encoder.resync());
+        assertEquals("full", message.getString("type"));
+        assertEquals(2, message.getLong("version"));
+        assertTrue(message.getJSONObject("state").similar(new JSONObject(SECOND)));
+        assertEquals(2, new JSONObject(encoder.encode(THIRD)).getLong("base"));
+    }
+
+    @Test
+    public void testResyncDropsAcknowledgedBase() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(100, false);
+        encoder.encode(FIRST);
+        encoder.acknowledge(1);
+        assertEquals(1, new JSONObject(encoder.encode(SECOND)).getLong("base"));
+
+        // the reconnected client only has the resync keyframe
+        assertEquals(2, new JSONObject(encoder.resync()).getLong("version"));
+        assertEquals("full", new JSONObject(encoder.encode(THIRD)).getString("type"));
+        encoder.acknowledge(1);
+        assertEquals("full", new JSONObject(encoder.encode(FIRST)).getString("type"));
+
+        encoder.acknowledge(4);
+        String fifth = encoder.encode(SECOND);
+        assertEquals(4, new JSONObject(fifth).getLong("base"));
+        assertTrue(apply(new JSONObject(FIRST), fifth).similar(new JSONObject(SECOND)));
+    }
+
+    @Test
+    public void testNonJsonStatesAreSentWhole() {
+        StateDeltaEncoder encoder = new StateDeltaEncoder(10, true);
+        encoder.encode("plain");
+        JSONObject message = new JSONObject(encoder.encode("other"));
+        assertEquals("full", message.getString("type"));
+        assertEquals("other", message.getString("state"));
+        assertTrue(encoder.encode(FIRST).contains("\"full\""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonPositiveInterval() {
+        new StateDeltaEncoder(0, true);
+    }
+}
@@ -0,0 +1,71 @@
+package test.java.effect;
+
+import main.java.com.terrafutura.cards.Effect;
+import main.java.com.terrafutura.cards.effects.*;
+import main.java.com.terrafutura.resources.Resource;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EffectCompilerTest {
+
+    private final Resource gear = Resource.Gear;
+    private final Resource car = Resource.Car;
+    private final Resource bulb = Resource.Bulb;
+
+    private final EffectOr tree = new EffectOr(
+            new TransformationFixed(List.of(gear, gear), List.of(car), 0),
+            new ArbitraryOutput(List.of(bulb), 2, 1),
+            new ArbitraryInOut(2, 1, 0),
+            new ArbitraryBasic(2, List.of(gear), 1));
+
+    @Test
+    public void testCompiledMatchesTree() {
+        CompiledEffect compiled = EffectCompiler.compile(tree);
+        List<List<Resource>> samples = List.of(
+                List.of(), List.of(gear), List.of(gear, gear), List.of(bulb),
+                List.of(bulb, car), List.of(car, car), List.of(gear, gear, car));
+
+        for (List<Resource> input : samples) {
+            for (List<Resource> output : samples) {
+                for (int pollution = 0; pollution <= 2; pollution++) {
+                    assertEquals(input + " -> " + output + " / " + pollution,
+                            tree.check(input, output, pollution), compiled.check(input, output, pollution));
+                }
+            }
+        }
+        assertFalse(compiled.hasDelegates());
+    }
+
+    @Test
+    public void testUnknownEffectIsDelegated() {
+        Effect custom = new Effect() {
+            @Override
+            public boolean check(List<Resource> input, List<Resource> output, int pollution) {
+                return input.isEmpty() && pollution == 3;
+            }
+
+            @Override
+            public String state() {
+                return "custom";
+            }
+        };
+        CompiledEffect compiled = EffectCompiler.compile(new EffectOr(tree, custom));
+
+        assertTrue(compiled.hasDelegates());
+        assertTrue(compiled.check(List.of(), List.of(), 3));
+        assertTrue(compiled.check(List.of(gear, gear), List.of(car), 0));
+    }
+
+    @Test
+    public void testStateAndAssistanceKept() {
+        EffectOr assisted = new EffectOr(new ArbitraryInOut(1, 1, true, 0));
+        CompiledEffect compiled = EffectCompiler.compile(assisted);
+
+        assertEquals(assisted.state(), compiled.state());
+        assertTrue(compiled.hasAssistance());
+        assertSame(compiled, EffectCompiler.compile(compiled));
+    }
+}
@@ -68,4 +68,13 @@ public class TransformationFixedTest {
 
         assertEquals("[(Gear Car ) -> (Car )]", effect.state());
     }
+
+    @Test
+    public void testInputCountedWithMultiplicity() {
+        TransformationFixed effect =
+                new TransformationFixed(List.of(gear, gear), List.of(car), 0);
+
+        assertFalse(effect.check(List.of(gear), List.of(car), 0));
+        assertFalse(effect.check(List.of(gear, gear), List.of(car, car), 0));
+    }
 }